@@ -0,0 +1,29 @@
+package com.example.matchservice.bench;
+
+import com.example.matchservice.repo.MoveRepo;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+
+/**
+ * MoveRepo stand-in with no stored moves, so every game loads from the start position.
+ */
+public final class EmptyMoveRepo {
+
+    private EmptyMoveRepo() {
+    }
+
+    public static MoveRepo create() {
+        return (MoveRepo) Proxy.newProxyInstance(
+                MoveRepo.class.getClassLoader(),
+                new Class<?>[] { MoveRepo.class },
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findByMatchIdOrderByPlyAsc" -> List.of();
+                    case "maxPly" -> 0;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "EmptyMoveRepo";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.matchservice.bench;
+
+import com.example.matchservice.config.WireFormat;
+
+/**
+ * Prints the encoded payload size of each STOMP frame in each {@link WireFormat}.
+ *
+ * <pre>
+ * java -cp match-service-bench/target/benchmarks.jar com.example.matchservice.bench.FrameSizes
+ * </pre>
+ */
+public class FrameSizes {
+
+    public static void main(String[] args) throws Exception {
+        Object[] payloads = { SampleFrames.moveRequest(), SampleFrames.moveDTO(), SampleFrames.gameStatus(),
+                SampleFrames.moveFrame() };
+
+        System.out.printf("%-16s", "payload");
+        for (WireFormat format : WireFormat.values()) {
+            System.out.printf("%10s", format);
+        }
+        System.out.println();
+
+        for (Object payload : payloads) {
+            System.out.printf("%-16s", payload.getClass().getSimpleName());
+            for (WireFormat format : WireFormat.values()) {
+                System.out.printf("%10d", format.mapper().writeValueAsBytes(payload).length);
+            }
+            System.out.println();
+        }
+    }
+}
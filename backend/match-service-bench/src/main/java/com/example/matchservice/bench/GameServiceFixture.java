@@ -0,0 +1,105 @@
+package com.example.matchservice.bench;
+
+import com.example.matchservice.journal.FsyncPolicy;
+import com.example.matchservice.repo.MatchRepo;
+import com.example.matchservice.repo.MoveRepo;
+import com.example.matchservice.service.ClockService;
+import com.example.matchservice.service.FramePublisher;
+import com.example.matchservice.service.GameRegistry;
+import com.example.matchservice.service.GameService;
+import com.example.matchservice.service.GameStateStore;
+import com.example.matchservice.service.JwtService;
+import com.example.matchservice.service.MatchLanes;
+import com.example.matchservice.service.MoveJournalService;
+import com.example.matchservice.service.MovePersister;
+import com.example.matchservice.service.SpectatorHub;
+import com.example.matchservice.service.SubscriptionTracker;
+import com.example.matchservice.service.TablebaseService;
+import com.example.matchservice.timer.TimingWheel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A GameService wired as the application wires it, minus the database and the broker: one
+ * in-memory match between alice and bob, no stored moves and a persister that discards its
+ * batches. {@link #close()} stops every thread the parts start (lanes, timers, spectator
+ * fan-out, persister, journal); benchmarks call it from their {@code @TearDown}.
+ */
+public final class GameServiceFixture implements AutoCloseable {
+
+    private final MatchLanes lanes;
+    private final TimingWheel timers;
+    private final MovePersister movePersister;
+    private final MoveJournalService moveJournal;
+    private final SpectatorHub spectators;
+    private final GameService gameService;
+
+    /**
+     * No journal, and a template whose channel accepts and drops every message.
+     */
+    public GameServiceFixture(int laneCount) {
+        this(laneCount, new SimpMessagingTemplate((message, timeout) -> true), new SubscriptionTracker(),
+                new MoveJournalService(false, "journal", 16, FsyncPolicy.NONE, 10));
+    }
+
+    /**
+     * Takes ownership of {@code moveJournal}: closing the fixture closes it.
+     */
+    public GameServiceFixture(int laneCount, SimpMessagingTemplate template, SubscriptionTracker subscriptions,
+            MoveJournalService moveJournal) {
+        MatchRepo matchRepo = InMemoryMatchRepo.create("alice", "bob");
+        GameRegistry gameRegistry = new GameRegistry(new SimpleMeterRegistry());
+        this.lanes = new MatchLanes(laneCount);
+        this.timers = new TimingWheel("bench-timers", 10, TimeUnit.MILLISECONDS);
+        this.movePersister = NoOpMovePersister.create();
+        this.moveJournal = moveJournal;
+        this.spectators = new SpectatorHub(gameRegistry, new SimpleMeterRegistry(), 1, 10_000, 512 * 1024);
+        ClockService clocks = new ClockService(lanes, timers, new SimpleMeterRegistry(), 180_000, 2_000, 600_000,
+                5_000);
+        MoveRepo moveRepo = EmptyMoveRepo.create();
+        GameStateStore store = new GameStateStore(matchRepo, moveRepo, moveJournal, gameRegistry, clocks, lanes,
+                new SimpleMeterRegistry(), 60_000, 10_000, 1_000, 16);
+        this.gameService = new GameService(matchRepo, moveRepo, new JwtService(), template,
+                new FramePublisher(template, subscriptions), new TablebaseService("tablebases"), event -> {},
+                movePersister, moveJournal, store, clocks, spectators, lanes);
+    }
+
+    public GameService gameService() {
+        return gameService;
+    }
+
+    public MatchLanes lanes() {
+        return lanes;
+    }
+
+    /**
+     * Stops everything the fixture started. An interrupt while waiting for a thread to stop
+     * does not skip the rest; the interrupt flag is restored at the end.
+     */
+    @Override
+    public void close() {
+        boolean interrupted = false;
+        try {
+            lanes.shutdown();
+        } catch (InterruptedException e) {
+            interrupted = true;
+        }
+        timers.close();
+        try {
+            spectators.shutdown();
+        } catch (InterruptedException e) {
+            interrupted = true;
+        }
+        try {
+            movePersister.shutdown();
+        } catch (InterruptedException e) {
+            interrupted = true;
+        }
+        moveJournal.close();
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.matchservice.bench;
+
+import com.example.matchservice.model.Match;
+import com.example.matchservice.model.MatchStatus;
+import com.example.matchservice.model.User;
+import com.example.matchservice.repo.MatchRepo;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * MatchRepo stand-in backed by a HashMap. Any id that has not been saved yet resolves to a
+ * fresh in-progress match between the two configured players.
+ */
+public final class InMemoryMatchRepo {
+
+    private InMemoryMatchRepo() {
+    }
+
+    public static MatchRepo create(String whiteUsername, String blackUsername) {
+        User white = user(1L, whiteUsername);
+        User black = user(2L, blackUsername);
+        Map<Long, Match> matches = new HashMap<>();
+
+        return (MatchRepo) Proxy.newProxyInstance(
+                MatchRepo.class.getClassLoader(),
+                new Class<?>[] { MatchRepo.class },
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findById" -> Optional.of(matches.computeIfAbsent((Long) args[0],
+                            id -> newMatch(id, white, black)));
+                    case "save" -> {
+                        Match match = (Match) args[0];
+                        matches.put(match.getId(), match);
+                        yield match;
+                    }
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "InMemoryMatchRepo";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static Match newMatch(Long id, User white, User black) {
+        Match match = new Match(white, black, MatchStatus.IN_PROGRESS, 1);
+        match.setId(id);
+        return match;
+    }
+
+    private static User user(Long id, String username) {
+        User user = new User();
+        user.setUserId(id);
+        user.setUsername(username);
+        return user;
+    }
+}
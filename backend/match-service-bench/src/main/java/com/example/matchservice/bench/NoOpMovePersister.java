@@ -0,0 +1,50 @@
+package com.example.matchservice.bench;
+
+import com.example.matchservice.service.MovePersister;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import java.util.List;
+
+/**
+ * MovePersister whose flusher runs against a JdbcTemplate that discards every batch, so
+ * benchmarks measure the enqueue on the move path and not a database.
+ */
+public final class NoOpMovePersister {
+
+    private NoOpMovePersister() {
+    }
+
+    public static MovePersister create() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate() {
+            @Override
+            public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+                return new int[batchArgs.size()];
+            }
+        };
+        return new MovePersister(jdbcTemplate, new NoOpTransactionManager(), new SimpleMeterRegistry(), event -> {},
+                100_000, 500, 50);
+    }
+
+    private static final class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.matchservice.bench;
+
+import com.example.matchservice.chess.Position;
+import com.example.matchservice.model.DTO.GameStatusDTO;
+import com.example.matchservice.model.DTO.MoveDTO;
+import com.example.matchservice.model.DTO.MoveFrame;
+import com.example.matchservice.model.DTO.MoveRequest;
+
+import java.time.LocalDateTime;
+
+/**
+ * Representative payloads for the STOMP frames, taken at white castling in an Italian game.
+ */
+public final class SampleFrames {
+
+    static final String FEN_BEFORE = "r1bqkb1r/pppp1ppp/2n2n2/4p3/2B1P3/5N2/PPPP1PPP/RNBQK2R w KQkq - 4 4";
+    static final String FEN_AFTER = "r1bqkb1r/pppp1ppp/2n2n2/4p3/2B1P3/5N2/PPPP1PPP/RNBQ1RK1 b kq - 5 4";
+    static final long HASH = 0x5F3A9C1D2E4B6A70L;
+
+    private SampleFrames() {
+    }
+
+    public static MoveRequest moveRequest() {
+        MoveRequest moveRequest = new MoveRequest(7, 4, 7, 6, "K", null, null, true, false, false,
+                FEN_BEFORE, FEN_AFTER, board(FEN_BEFORE), true, "white", 42L, LocalDateTime.now());
+        moveRequest.setPositionHash(HASH);
+        return moveRequest;
+    }
+
+    public static MoveDTO moveDTO() {
+        MoveDTO moveDTO = new MoveDTO(7, 4, 7, 6, "K", null, null, true, false, false,
+                FEN_BEFORE, FEN_AFTER, board(FEN_AFTER), false, "white", 42L,
+                LocalDateTime.now(), "O-O", "alice");
+        moveDTO.setPositionHash(HASH);
+        return moveDTO;
+    }
+
+    public static MoveFrame moveFrame() {
+        return new MoveFrame(42L, 7, 4, 6, null, HASH);
+    }
+
+    public static GameStatusDTO gameStatus() {
+        GameStatusDTO statusDTO = new GameStatusDTO("IN_PROGRESS", 42L, "black", true, board(FEN_AFTER), FEN_AFTER);
+        statusDTO.setPositionHash(HASH);
+        statusDTO.setPly(7);
+        return statusDTO;
+    }
+
+    private static String[][] board(String fen) {
+        return Position.fromFen(fen).toBoardArray();
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.matchservice.bench;
+
+import com.example.matchservice.config.WireFormat;
+import com.example.matchservice.model.DTO.GameStatusDTO;
+import com.example.matchservice.model.DTO.MoveDTO;
+import com.example.matchservice.model.DTO.MoveFrame;
+import com.example.matchservice.model.DTO.MoveRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode and decode cost of the STOMP payloads in each {@link WireFormat}, using the same
+ * mappers as the broker. Frame sizes are printed by {@link FrameSizes}.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SerializationBenchmark {
+
+    @Param({ "JSON", "CBOR", "SMILE" })
+    private WireFormat format;
+
+    private ObjectMapper objectMapper;
+    private MoveDTO moveDTO;
+    private MoveFrame moveFrame;
+    private GameStatusDTO gameStatus;
+    private byte[] moveRequestBytes;
+    private byte[] moveDTOBytes;
+    private byte[] moveFrameBytes;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = format.mapper();
+        moveDTO = SampleFrames.moveDTO();
+        moveFrame = SampleFrames.moveFrame();
+        gameStatus = SampleFrames.gameStatus();
+        moveRequestBytes = objectMapper.writeValueAsBytes(SampleFrames.moveRequest());
+        moveDTOBytes = objectMapper.writeValueAsBytes(moveDTO);
+        moveFrameBytes = objectMapper.writeValueAsBytes(moveFrame);
+    }
+
+    @Benchmark
+    public byte[] serializeMoveDTO() throws Exception {
+        return objectMapper.writeValueAsBytes(moveDTO);
+    }
+
+    @Benchmark
+    public byte[] serializeMoveFrame() throws Exception {
+        return objectMapper.writeValueAsBytes(moveFrame);
+    }
+
+    @Benchmark
+    public byte[] serializeGameStatus() throws Exception {
+        return objectMapper.writeValueAsBytes(gameStatus);
+    }
+
+    @Benchmark
+    public MoveRequest deserializeMoveRequest() throws Exception {
+        return objectMapper.readValue(moveRequestBytes, MoveRequest.class);
+    }
+
+    @Benchmark
+    public MoveDTO deserializeMoveDTO() throws Exception {
+        return objectMapper.readValue(moveDTOBytes, MoveDTO.class);
+    }
+
+    @Benchmark
+    public MoveFrame deserializeMoveFrame() throws Exception {
+        return objectMapper.readValue(moveFrameBytes, MoveFrame.class);
+    }
+}
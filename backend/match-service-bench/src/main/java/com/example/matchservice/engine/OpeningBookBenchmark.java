@@ -0,0 +1,94 @@
+package com.example.matchservice.engine;
+
+import com.example.matchservice.chess.MoveGenerator;
+import com.example.matchservice.chess.Moves;
+import com.example.matchservice.chess.Position;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Probes a mapped book built from random games. {@code find} is the raw binary search over
+ * the mapped entries; {@code pickMove} adds the weighted choice and the legality check.
+ *
+ * <pre>
+ * java -jar match-service-bench/target/benchmarks.jar OpeningBookBenchmark -p games=1000,100000
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OpeningBookBenchmark {
+
+    @Param({ "1000", "100000" })
+    private int games;
+
+    private Path file;
+    private OpeningBook book;
+    private Position[] positions;
+    private long[] keys;
+    private final int[] buffer = new int[MoveGenerator.MAX_MOVES];
+    private final SplittableRandom random = new SplittableRandom(7);
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        SplittableRandom gameRandom = new SplittableRandom(42);
+        OpeningBookBuilder builder = new OpeningBookBuilder(16);
+        List<Position> probes = new ArrayList<>();
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        for (int g = 0; g < games; g++) {
+            Position position = Position.startPosition();
+            List<String> uci = new ArrayList<>();
+            for (int ply = 0; ply < 16; ply++) {
+                int count = MoveGenerator.generateLegal(position, moves);
+                if (count == 0) {
+                    break;
+                }
+                // Favour the first few moves so positions repeat across games like real openings.
+                int move = moves[Math.min(count - 1, (int) Math.abs(gameRandom.nextGaussian() * 3))];
+                if (g % 64 == 0 && probes.size() < 1024) {
+                    probes.add(position.copy());
+                }
+                uci.add(Moves.toUci(move));
+                position.makeMove(move);
+            }
+            builder.addUciGame(uci, gameRandom.nextInt(3) - 1);
+        }
+        file = Files.createTempFile("opening-book", ".bin");
+        int entries = builder.write(file);
+        book = OpeningBook.open(file);
+        positions = probes.toArray(new Position[0]);
+        keys = new long[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            keys[i] = positions[i].hash();
+        }
+        System.out.println("Book entries: " + entries + " (" + Files.size(file) + " bytes)");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public int find() {
+        int i = (next++ & 0x7FFFFFFF) % keys.length;
+        return book.find(keys[i]);
+    }
+
+    @Benchmark
+    public int pickMove() {
+        int i = (next++ & 0x7FFFFFFF) % positions.length;
+        return book.pickMove(positions[i], random, buffer);
+    }
+}
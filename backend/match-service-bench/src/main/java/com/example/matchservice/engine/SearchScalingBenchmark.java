@@ -0,0 +1,81 @@
+package com.example.matchservice.engine;
+
+import com.example.matchservice.chess.Position;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lazy-SMP scaling: each operation is a fixed-depth search from a cold transposition
+ * table. The primary score is searches per second (time to depth is its inverse) and the
+ * {@code nodes} counter gives nodes per second across all threads.
+ *
+ * <pre>
+ * java -jar match-service-bench/target/benchmarks.jar SearchScalingBenchmark -p threads=1,2,4,8,16,32
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SearchScalingBenchmark {
+
+    private static final String[] FENS = {
+            "r1bqkb1r/pppp1ppp/2n2n2/4p3/2B1P3/5N2/PPPP1PPP/RNBQK2R w KQkq - 4 4",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "r2q1rk1/pp2bppp/2n1bn2/2pp4/3P4/2NBPN2/PP3PPP/R1BQ1RK1 w - - 0 10",
+            "8/5pk1/6p1/3P4/2P2P2/6P1/5K2/8 w - - 0 1"
+    };
+
+    @Param({ "1", "2", "4", "8" })
+    private int threads;
+
+    @Param({ "9" })
+    private int depth;
+
+    private Position[] positions;
+    private TranspositionTable tt;
+    private ExecutorService helpers;
+    private ParallelSearch parallelSearch;
+    private int next;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public long nodes;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        positions = new Position[FENS.length];
+        for (int i = 0; i < FENS.length; i++) {
+            positions[i] = Position.fromFen(FENS[i]);
+        }
+        tt = new TranspositionTable(64);
+        helpers = Executors.newFixedThreadPool(threads);
+        parallelSearch = new ParallelSearch(tt, helpers);
+    }
+
+    @Setup(Level.Invocation)
+    public void clearTable() {
+        tt.clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        helpers.shutdownNow();
+    }
+
+    @Benchmark
+    public int searchToDepth(Counters counters) {
+        Position position = positions[next];
+        next = (next + 1) % positions.length;
+        SearchResult result = parallelSearch.search(position, SearchLimits.depth(depth), threads);
+        counters.nodes += result.getNodes();
+        return result.getBestMove();
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.matchservice.journal;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Cost of journaling one move across many concurrent games. Every 80 plies a game finishes
+ * and is marked persisted, so segments keep rolling, checkpointing and being deleted as
+ * they would under load. {@code ALWAYS} pays a disk flush per append; the others only
+ * copy into the mapping.
+ *
+ * <pre>
+ * java -jar match-service-bench/target/benchmarks.jar MoveJournalBenchmark -p fsync=INTERVAL
+ * </pre>
+ */
+@BenchmarkMode({ Mode.AverageTime, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MoveJournalBenchmark {
+
+    private static final int GAMES = 1000;
+    private static final int GAME_PLIES = 80;
+
+    @Param({ "NONE", "INTERVAL", "ALWAYS" })
+    private FsyncPolicy fsync;
+
+    private Path directory;
+    private MoveJournal journal;
+    private final int[] plies = new int[GAMES];
+    private final long[] matchIds = new long[GAMES];
+    private long nextMatchId;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("move-journal");
+        journal = MoveJournal.open(directory, 4 << 20, fsync, 10);
+        for (int i = 0; i < GAMES; i++) {
+            startGame(i);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        System.out.println("Segments in use: " + journal.segmentCount());
+        journal.close();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public void appendMove() {
+        int game = next;
+        next = next + 1 == GAMES ? 0 : next + 1;
+        int ply = ++plies[game];
+        journal.appendMove(matchIds[game], ply, 0x0C1C + ply, 180_000, 180_000);
+        if (ply == GAME_PLIES) {
+            journal.appendEnd(matchIds[game], MoveJournal.WHITE, "CHECKMATE", "FINISHED");
+            journal.appendPersisted(matchIds[game]);
+            startGame(game);
+        }
+    }
+
+    private void startGame(int game) {
+        matchIds[game] = ++nextMatchId;
+        plies[game] = 0;
+        journal.appendStart(matchIds[game], "white-" + game, "black-" + game, new int[0]);
+    }
+}
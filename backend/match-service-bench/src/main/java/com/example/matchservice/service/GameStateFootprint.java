@@ -0,0 +1,109 @@
+package com.example.matchservice.service;
+
+import com.example.matchservice.chess.MoveGenerator;
+import com.example.matchservice.chess.Position;
+import com.example.matchservice.model.DTO.MoveRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.SplittableRandom;
+
+/**
+ * Reports retained heap per active game for the previous String[][] game state and the
+ * current {@link GameState}, and the off-heap bytes an idle game takes in the warm tier of
+ * {@link GameStateStore}. Many games are measured together and the total divided, so
+ * objects shared between games (usernames, status literals) are not charged per game.
+ *
+ * <pre>
+ * java -cp match-service-bench/target/benchmarks.jar com.example.matchservice.service.GameStateFootprint
+ * </pre>
+ */
+public class GameStateFootprint {
+
+    private static final int GAMES = 1000;
+    private static final int[] PLIES = { 0, 40, 80, 160 };
+
+    static class LegacyGameState {
+        String[][] board;
+        boolean isWhiteTurn;
+        String status;
+        String player1Username;
+        String player2Username;
+    }
+
+    public static void main(String[] args) throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        String boardJson = objectMapper.writeValueAsString(Position.startPosition().toBoardArray());
+
+        Object[] legacy = new Object[GAMES];
+        for (int i = 0; i < GAMES; i++) {
+            LegacyGameState state = new LegacyGameState();
+            state.board = objectMapper.readValue(boardJson, String[][].class);
+            state.isWhiteTurn = true;
+            state.status = "IN_PROGRESS";
+            state.player1Username = "alice";
+            state.player2Username = "bob";
+            legacy[i] = state;
+        }
+        long legacyBytes = GraphLayout.parseInstance(legacy).totalSize() - arrayOverhead(GAMES);
+        System.out.printf("%-34s %8d bytes/game%n", "String[][] board (before)", legacyBytes / GAMES);
+
+        for (int plies : PLIES) {
+            SplittableRandom random = new SplittableRandom(plies);
+            Object[] games = new Object[GAMES];
+            for (int i = 0; i < GAMES; i++) {
+                GameState state = new GameState();
+                state.setPosition(playRandomGame(random, plies));
+                state.setStatus("IN_PROGRESS");
+                state.setPlayer1Username("alice");
+                state.setPlayer2Username("bob");
+                games[i] = state;
+            }
+            long bytes = GraphLayout.parseInstance(games).totalSize() - arrayOverhead(GAMES);
+            System.out.printf("%-34s %8d bytes/game%n", "GameState after " + plies + " plies (after)", bytes / GAMES);
+        }
+
+        for (int plies : PLIES) {
+            GameState state = new GameState();
+            state.setPosition(Position.startPosition());
+            state.setStatus("IN_PROGRESS");
+            state.setPlayer1Username("alice");
+            state.setPlayer2Username("bob");
+            int[] moves = new int[MoveGenerator.MAX_MOVES];
+            SplittableRandom random = new SplittableRandom(plies);
+            for (int ply = 0; ply < plies; ply++) {
+                int count = MoveGenerator.generateLegal(state.getPosition(), moves);
+                if (count == 0) {
+                    break;
+                }
+                state.applyMove(moves[random.nextInt(count)]);
+            }
+            int bytes = GameStateStore.encodedSize(state);
+            System.out.printf("%-34s %8d bytes/game (%d-byte slot)%n", "Warm tier after " + state.getPly() + " plies",
+                    bytes, OffHeapArena.slotSize(bytes));
+        }
+
+        MoveRequest request = objectMapper.readValue(
+                "{\"fromRow\":6,\"fromCol\":4,\"toRow\":4,\"toCol\":4,\"board\":" + boardJson + "}",
+                MoveRequest.class);
+        System.out.printf("%-34s %8s%n", "MoveRequest.board deserialized", request.getBoard() != null);
+    }
+
+    private static Position playRandomGame(SplittableRandom random, int plies) {
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        Position position = Position.startPosition();
+        for (int ply = 0; ply < plies; ply++) {
+            int count = MoveGenerator.generateLegal(position, moves);
+            if (count == 0) {
+                return playRandomGame(random, plies);
+            }
+            position.makeMove(moves[random.nextInt(count)]);
+            position.trimHistory();
+        }
+        return position;
+    }
+
+    private static long arrayOverhead(int length) {
+        return GraphLayout.parseInstance((Object) new Object[length]).totalSize();
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.matchservice.service;
+
+import com.example.matchservice.bench.GameServiceFixture;
+import com.example.matchservice.chess.MoveGenerator;
+import com.example.matchservice.chess.Moves;
+import com.example.matchservice.chess.Pieces;
+import com.example.matchservice.chess.Position;
+import com.example.matchservice.chess.Squares;
+import com.example.matchservice.model.DTO.JoinRequest;
+import com.example.matchservice.model.DTO.MoveRequest;
+import org.openjdk.jmh.annotations.*;
+
+import java.security.Principal;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves per second through {@link GameService#processMove} with {@code GAMES} games played
+ * at once. Each invocation advances every game by one ply and waits for all of them.
+ * {@code lanes} routes each game to its {@link MatchLanes} lane; {@code globalLock} runs the
+ * same work on a pool of the same size behind one shared lock, like the old
+ * {@code synchronized (this)} in MatchService. Run with {@code -p lanes=1,2,4,...} up to the
+ * core count to see the scaling.
+ *
+ * <pre>
+ * java -jar match-service-bench/target/benchmarks.jar MatchLanesBenchmark -p lanes=1,2,4,8
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MatchLanesBenchmark {
+
+    private static final int GAMES = 256;
+
+    private static final String[] LINE = {
+            "e2e4", "e7e5", "g1f3", "b8c6", "f1b5", "a7a6", "b5a4", "g8f6", "e1g1", "f8e7",
+            "f1e1", "b7b5", "a4b3", "d7d6", "c2c3", "e8g8", "h2h3", "c6b8", "d2d4", "b8d7"
+    };
+
+    private final Principal white = () -> "alice";
+    private final Principal black = () -> "bob";
+
+    @Param({ "1", "2", "4" })
+    private int lanes;
+
+    private GameServiceFixture fixture;
+    private GameService gameService;
+    private MatchLanes matchLanes;
+    private ExecutorService pool;
+    private final Object globalLock = new Object();
+    private MoveRequest[] requests;
+    private final int[] plies = new int[GAMES];
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = new GameServiceFixture(lanes);
+        gameService = fixture.gameService();
+        matchLanes = fixture.lanes();
+        pool = Executors.newFixedThreadPool(lanes);
+
+        requests = new MoveRequest[LINE.length];
+        Position position = Position.startPosition();
+        int[] buffer = new int[MoveGenerator.MAX_MOVES];
+        for (int i = 0; i < LINE.length; i++) {
+            int from = Squares.parse(LINE[i].substring(0, 2));
+            int to = Squares.parse(LINE[i].substring(2, 4));
+            MoveRequest request = new MoveRequest();
+            request.setFromRow(Squares.row(from));
+            request.setFromCol(Squares.col(from));
+            request.setToRow(Squares.row(to));
+            request.setToCol(Squares.col(to));
+            request.setPiece(String.valueOf(Pieces.symbol(position.pieceAt(from))));
+            request.setPlayerColor(position.isWhiteToMove() ? "white" : "black");
+            requests[i] = request;
+            int move = MoveGenerator.findLegal(position, from, to, Pieces.NONE, buffer);
+            if (move == Moves.NONE) {
+                throw new IllegalStateException("Illegal move in benchmark line");
+            }
+            position.makeMove(move);
+        }
+        // Load every game up front: the in-memory repo is a plain HashMap.
+        for (int game = 0; game < GAMES; game++) {
+            resetGame(game);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+        pool.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(GAMES)
+    public void lanes() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(GAMES);
+        for (int game = 0; game < GAMES; game++) {
+            int g = game;
+            matchLanes.execute(g, () -> {
+                step(g);
+                done.countDown();
+            });
+        }
+        done.await();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(GAMES)
+    public void globalLock() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(GAMES);
+        for (int game = 0; game < GAMES; game++) {
+            int g = game;
+            pool.execute(() -> {
+                synchronized (globalLock) {
+                    step(g);
+                }
+                done.countDown();
+            });
+        }
+        done.await();
+    }
+
+    private void step(int game) {
+        if (plies[game] == LINE.length) {
+            resetGame(game);
+        }
+        int ply = plies[game]++;
+        gameService.processMove((long) game, requests[ply], (ply & 1) == 0 ? white : black);
+    }
+
+    private void resetGame(int game) {
+        gameService.removeGame((long) game);
+        gameService.handlePlayerJoin((long) game, new JoinRequest("JOIN", "white", null), white);
+        plies[game] = 0;
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.matchservice.service;
+
+import com.example.matchservice.model.GameType;
+import com.example.matchservice.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays a synthetic arrival stream through {@link MatchmakingQueue} on a simulated clock
+ * ticking like the pairing tick in MatchService, and reports how long players waited, the
+ * rating gaps of the pairs and the real CPU time of each tick. It starts with a backlog
+ * already queued (a restart, or a tournament start) and then adds Poisson arrivals spread
+ * over the three rated game types, ratings around 1500 (sd 350).
+ *
+ * <pre>
+ * java -cp match-service-bench/target/benchmarks.jar com.example.matchservice.service.MatchmakingSimulation \
+ *     [backlog=12000] [arrivals-per-second=2000] [seconds=120] [tick-ms=250]
+ * </pre>
+ */
+public class MatchmakingSimulation {
+
+    private static final GameType[] TYPES = { GameType.BLITZ, GameType.RAPID, GameType.STANDARD };
+
+    public static void main(String[] args) {
+        int backlog = intArg(args, "backlog", 12_000);
+        int arrivalsPerSecond = intArg(args, "arrivals-per-second", 2_000);
+        int seconds = intArg(args, "seconds", 120);
+        int tickMs = intArg(args, "tick-ms", 250);
+
+        MatchmakingQueue queue = new MatchmakingQueue(new SimpleMeterRegistry(), 50, 100, 25, 600);
+        SplittableRandom random = new SplittableRandom(42);
+        long tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMs);
+        int ticks = (int) (TimeUnit.SECONDS.toNanos(seconds) / tickNanos);
+
+        long[] waits = new long[backlog + arrivalsPerSecond * (seconds + 1) + 1];
+        int[] gaps = new int[waits.length / 2 + 1];
+        long[] tickCpu = new long[ticks];
+        int paired = 0;
+        int pairs = 0;
+        int arrivals = 0;
+        int largestPool = 0;
+
+        long now = TimeUnit.DAYS.toNanos(1);
+        for (int i = 0; i < backlog; i++) {
+            queue.enqueue(player(arrivals++, random), TYPES[random.nextInt(TYPES.length)], now);
+        }
+        double meanPerTick = arrivalsPerSecond * tickMs / 1000.0;
+        for (int tick = 0; tick < ticks; tick++) {
+            // Arrivals during the tick, each at its own instant.
+            int count = poisson(meanPerTick, random);
+            for (int i = 0; i < count; i++) {
+                long at = now + random.nextLong(tickNanos);
+                queue.enqueue(player(arrivals++, random), TYPES[random.nextInt(TYPES.length)], at);
+            }
+            now += tickNanos;
+            largestPool = Math.max(largestPool, queue.waitingCount());
+
+            long start = System.nanoTime();
+            for (GameType type : TYPES) {
+                List<MatchmakingQueue.Pairing> pairings = queue.pair(type, now);
+                for (MatchmakingQueue.Pairing pairing : pairings) {
+                    waits[paired++] = now - pairing.white().getEnqueuedNanos();
+                    waits[paired++] = now - pairing.black().getEnqueuedNanos();
+                    gaps[pairs++] = Math.abs(pairing.white().getRating() - pairing.black().getRating());
+                    queue.complete(pairing.white());
+                    queue.complete(pairing.black());
+                }
+            }
+            tickCpu[tick] = System.nanoTime() - start;
+        }
+
+        System.out.printf("%d players arrived (%d backlog + %d/s for %d s), %d-ms ticks%n",
+                arrivals, backlog, arrivalsPerSecond, seconds, tickMs);
+        System.out.printf("largest pool %d, %d paired, %d still waiting%n", largestPool, paired,
+                queue.waitingCount());
+        long[] sortedWaits = Arrays.copyOf(waits, paired);
+        Arrays.sort(sortedWaits);
+        System.out.printf("wait ms      p50 %6.0f  p90 %6.0f  p99 %6.0f  max %6.0f%n",
+                millis(percentile(sortedWaits, 0.5)), millis(percentile(sortedWaits, 0.9)),
+                millis(percentile(sortedWaits, 0.99)), millis(sortedWaits[sortedWaits.length - 1]));
+        int[] sortedGaps = Arrays.copyOf(gaps, pairs);
+        Arrays.sort(sortedGaps);
+        System.out.printf("rating gap   p50 %6d  p90 %6d  p99 %6d  max %6d%n",
+                sortedGaps[(int) (0.5 * (pairs - 1))], sortedGaps[(int) (0.9 * (pairs - 1))],
+                sortedGaps[(int) (0.99 * (pairs - 1))], sortedGaps[pairs - 1]);
+        // The first tick pairs the backlog; report it apart from the steady state.
+        long first = tickCpu[0];
+        long[] steady = Arrays.copyOfRange(tickCpu, 1, ticks);
+        Arrays.sort(steady);
+        System.out.printf("tick cpu ms  first %.2f  p50 %.2f  p99 %.2f  max %.2f%n", first / 1e6,
+                percentile(steady, 0.5) / 1e6, percentile(steady, 0.99) / 1e6, steady[steady.length - 1] / 1e6);
+    }
+
+    private static User player(int id, SplittableRandom random) {
+        User user = new User();
+        user.setUsername("player-" + id);
+        user.setRating((int) Math.round(1500 + gaussian(random) * 350));
+        return user;
+    }
+
+    private static double gaussian(SplittableRandom random) {
+        // Box-Muller; SplittableRandom has no nextGaussian.
+        return Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+    }
+
+    private static int poisson(double mean, SplittableRandom random) {
+        if (mean > 30) {
+            return (int) Math.max(0, Math.round(mean + Math.sqrt(mean) * gaussian(random)));
+        }
+        double limit = Math.exp(-mean);
+        double product = random.nextDouble();
+        int count = 0;
+        while (product > limit) {
+            product *= random.nextDouble();
+            count++;
+        }
+        return count;
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted[(int) (p * (sorted.length - 1))];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static int intArg(String[] args, String name, int defaultValue) {
+        for (String arg : args) {
+            if (arg.startsWith(name + "=")) {
+                return Integer.parseInt(arg.substring(name.length() + 1));
+            }
+        }
+        return defaultValue;
+    }
+}
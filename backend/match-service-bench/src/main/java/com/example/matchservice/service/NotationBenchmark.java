@@ -0,0 +1,78 @@
+package com.example.matchservice.service;
+
+import com.example.matchservice.bench.GameServiceFixture;
+import com.example.matchservice.chess.Position;
+import com.example.matchservice.model.DTO.MoveDTO;
+import com.example.matchservice.model.DTO.MoveRequest;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class NotationBenchmark {
+
+    private GameServiceFixture fixture;
+    private GameService gameService;
+    private Position position;
+    private GameState gameState;
+    private MoveRequest promotionRequest;
+    private MoveDTO captureMove;
+
+    @Setup
+    public void setUp() {
+        fixture = new GameServiceFixture(1);
+        gameService = fixture.gameService();
+
+        position = Position.fromFen("r1bq1rk1/2p1bppp/p1np1n2/1p2p3/4P3/1BP2N1P/PP1P1PP1/RNBQR1K1 b - - 0 9");
+        gameState = new GameState();
+        gameState.setPosition(position.copy());
+
+        promotionRequest = new MoveRequest();
+        promotionRequest.setFromRow(1);
+        promotionRequest.setFromCol(6);
+        promotionRequest.setToRow(0);
+        promotionRequest.setToCol(7);
+        promotionRequest.setPiece("P");
+        promotionRequest.setIsPromotion(true);
+        promotionRequest.setPromotedTo("Q");
+
+        captureMove = new MoveDTO();
+        captureMove.setFromRow(5);
+        captureMove.setFromCol(5);
+        captureMove.setToRow(3);
+        captureMove.setToCol(4);
+        captureMove.setPiece("N");
+        captureMove.setCapturedPiece("p");
+        captureMove.setCastled(false);
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public String positionToFen() {
+        return position.toFen();
+    }
+
+    @Benchmark
+    public String cachedFen() {
+        return gameState.getFen();
+    }
+
+    @Benchmark
+    public String createUCI() {
+        return gameService.createUCI(promotionRequest);
+    }
+
+    @Benchmark
+    public String createMoveNotation() {
+        return gameService.createMoveNotation(captureMove);
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.matchservice.service;
+
+import com.example.matchservice.chess.MoveGenerator;
+import com.example.matchservice.chess.Notation;
+import com.example.matchservice.chess.Position;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The writing side of GET /game/export/{username}.pgn: {@code GAMES} random legal games of
+ * up to 120 plies, already in memory as SAN, written by {@link PgnWriter} to a stream that
+ * discards them, plain and through gzip at the level the export uses. One op is one game;
+ * the teardown prints the (uncompressed) PGN bytes produced per second, to compare against
+ * how fast the database can stream rows.
+ *
+ * <pre>
+ * java -jar match-service-bench/target/benchmarks.jar PgnExportBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PgnExportBenchmark {
+
+    private static final int GAMES = 2_000;
+    private static final int MAX_PLIES = 120;
+
+    private final CountingOutputStream plainBytes = new CountingOutputStream(OutputStream.nullOutputStream());
+    private CountingOutputStream gzipBytes;
+    private String[][] games;
+    private PgnWriter plain;
+    private PgnWriter gzip;
+    private int next;
+    private long startNanos;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        SplittableRandom random = new SplittableRandom(7);
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int[] buffer = new int[MoveGenerator.MAX_MOVES];
+        games = new String[GAMES][];
+        for (int g = 0; g < GAMES; g++) {
+            Position position = Position.startPosition();
+            String[] sans = new String[MAX_PLIES];
+            int plies = 0;
+            while (plies < MAX_PLIES) {
+                int count = MoveGenerator.generateLegal(position, moves);
+                if (count == 0) {
+                    break;
+                }
+                int move = moves[random.nextInt(count)];
+                sans[plies++] = Notation.toSan(position, move, buffer);
+                position.makeMove(move);
+            }
+            games[g] = Arrays.copyOf(sans, plies);
+        }
+        plain = new PgnWriter(plainBytes, 64 * 1024);
+        gzipBytes = new CountingOutputStream(new GZIPOutputStream(OutputStream.nullOutputStream(), 64 * 1024) {
+            {
+                def.setLevel(Deflater.BEST_SPEED);
+            }
+        });
+        gzip = new PgnWriter(gzipBytes, 64 * 1024);
+    }
+
+    @Setup(Level.Iteration)
+    public void startIteration() {
+        plainBytes.bytes = 0;
+        gzipBytes.bytes = 0;
+        startNanos = System.nanoTime();
+    }
+
+    @TearDown(Level.Iteration)
+    public void endIteration() {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        System.out.printf("(%.0f MB/s written) ", (plainBytes.bytes + gzipBytes.bytes) / 1e6 / seconds);
+    }
+
+    @Benchmark
+    public void plain() throws IOException {
+        write(plain);
+    }
+
+    @Benchmark
+    public void gzip() throws IOException {
+        write(gzip);
+    }
+
+    private void write(PgnWriter pgn) throws IOException {
+        String[] game = games[next];
+        next = next + 1 == GAMES ? 0 : next + 1;
+        pgn.beginGame("IndiChess BLITZ", "2026.10.18", "alice", "bob", "1/2-1/2", "normal");
+        for (String san : game) {
+            pgn.move(san);
+        }
+        pgn.endGame("1/2-1/2");
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+
+        private final OutputStream target;
+        long bytes;
+
+        CountingOutputStream(OutputStream target) {
+            this.target = target;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            bytes++;
+            target.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            bytes += len;
+            target.write(b, off, len);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.matchservice.service;
+
+import com.example.matchservice.bench.GameServiceFixture;
+import com.example.matchservice.chess.MoveGenerator;
+import com.example.matchservice.chess.Moves;
+import com.example.matchservice.chess.Pieces;
+import com.example.matchservice.chess.Position;
+import com.example.matchservice.chess.Squares;
+import com.example.matchservice.config.WireFormat;
+import com.example.matchservice.journal.FsyncPolicy;
+import com.example.matchservice.model.DTO.JoinRequest;
+import com.example.matchservice.model.DTO.MoveDTO;
+import com.example.matchservice.model.DTO.MoveRequest;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.messaging.converter.ByteArrayMessageConverter;
+import org.springframework.messaging.converter.CompositeMessageConverter;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.Principal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Replays a 20-ply Ruy Lopez through {@link GameService#processMove} end to end. When the
+ * line is exhausted the game is dropped and re-joined, so one reset is amortised over
+ * twenty measured moves. {@code topic} selects which move topic has a subscriber (the full
+ * MoveDTO frame or the compact delta frame, optionally CBOR-encoded); publishing includes
+ * payload conversion but no broker. Moves are journaled to a temporary directory with the
+ * default group-commit policy.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ProcessMoveBenchmark {
+
+    private static final String[] LINE = {
+            "e2e4", "e7e5", "g1f3", "b8c6", "f1b5", "a7a6", "b5a4", "g8f6", "e1g1", "f8e7",
+            "f1e1", "b7b5", "a4b3", "d7d6", "c2c3", "e8g8", "h2h3", "c6b8", "d2d4", "b8d7"
+    };
+
+    private static final Long MATCH_ID = 1L;
+
+    private final Principal white = () -> "alice";
+    private final Principal black = () -> "bob";
+
+    @Param({ "", "/delta", "/delta.cbor" })
+    private String topic;
+
+    private Path journalDirectory;
+    private GameServiceFixture fixture;
+    private GameService gameService;
+    private MoveRequest[] requests;
+    private int ply;
+
+    @Setup
+    public void setUp() throws IOException {
+        SubscriptionTracker subscriptions = new SubscriptionTracker();
+        subscriptions.add("bench", "0", "/topic/moves/" + MATCH_ID + topic);
+        SimpMessagingTemplate template = new SimpMessagingTemplate((message, timeout) -> true);
+        journalDirectory = Files.createTempDirectory("move-journal");
+        MoveJournalService moveJournal = new MoveJournalService(true, journalDirectory.toString(), 16,
+                FsyncPolicy.INTERVAL, 10);
+        MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
+        converter.setObjectMapper(WireFormat.JSON.mapper());
+        template.setMessageConverter(new CompositeMessageConverter(List.of(new ByteArrayMessageConverter(), converter)));
+        fixture = new GameServiceFixture(1, template, subscriptions, moveJournal);
+        gameService = fixture.gameService();
+
+        requests = new MoveRequest[LINE.length];
+        Position position = Position.startPosition();
+        for (int i = 0; i < LINE.length; i++) {
+            int from = Squares.parse(LINE[i].substring(0, 2));
+            int to = Squares.parse(LINE[i].substring(2, 4));
+
+            MoveRequest request = new MoveRequest();
+            request.setFromRow(Squares.row(from));
+            request.setFromCol(Squares.col(from));
+            request.setToRow(Squares.row(to));
+            request.setToCol(Squares.col(to));
+            request.setPiece(String.valueOf(Pieces.symbol(position.pieceAt(from))));
+            request.setPlayerColor(position.isWhiteToMove() ? "white" : "black");
+            requests[i] = request;
+
+            position.makeMove(findMove(position, from, to));
+        }
+
+        resetGame();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        fixture.close();
+        try (Stream<Path> files = Files.list(journalDirectory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(journalDirectory);
+    }
+
+    @Benchmark
+    public MoveDTO processMove() {
+        if (ply == LINE.length) {
+            resetGame();
+        }
+        MoveRequest request = requests[ply];
+        Principal player = (ply & 1) == 0 ? white : black;
+        ply++;
+        return gameService.processMove(MATCH_ID, request, player);
+    }
+
+    private void resetGame() {
+        gameService.removeGame(MATCH_ID);
+        gameService.handlePlayerJoin(MATCH_ID, new JoinRequest("JOIN", "white", null), white);
+        ply = 0;
+    }
+
+    private static int findMove(Position position, int from, int to) {
+        int[] buffer = new int[MoveGenerator.MAX_MOVES];
+        int move = MoveGenerator.findLegal(position, from, to, Pieces.NONE, buffer);
+        if (move == Moves.NONE) {
+            throw new IllegalStateException("Illegal move in benchmark line");
+        }
+        return move;
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.matchservice.service;
+
+import com.example.matchservice.bench.CountingWebSocketSession;
+import com.example.matchservice.bench.SampleFrames;
+import com.example.matchservice.config.WireFormat;
+import com.example.matchservice.model.DTO.MoveFrame;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.messaging.StompSubProtocolHandler;
+import org.springframework.web.socket.messaging.SubProtocolWebSocketHandler;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One move broadcast to {@code SPECTATORS} sessions watching the same match, measured up to
+ * the socket write (the sessions only count what they are sent). {@code simpleBroker} is
+ * the path of a plain topic: the payload converted once, then the simple broker and the
+ * STOMP handler build and encode a frame per subscriber. {@code serializeOnce} is
+ * {@link SpectatorHub#deliver}: one frame per subscription id, shared by every session.
+ * Both run on the calling thread, so the time per op is also its CPU time; the teardown
+ * prints the measured CPU per broadcast as a check.
+ *
+ * <pre>
+ * java -jar match-service-bench/target/benchmarks.jar SpectatorFanoutBenchmark
+ * </pre>
+ */
+@BenchmarkMode({ Mode.AverageTime, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SpectatorFanoutBenchmark {
+
+    private static final int SPECTATORS = 10_000;
+    private static final long MATCH_ID = 42;
+    private static final String DESTINATION = SpectatorHub.PREFIX + MATCH_ID;
+    // stomp.js names subscriptions sub-0, sub-1, ... in the order a page makes them.
+    private static final int SUBSCRIPTION_IDS = 4;
+
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final MoveFrame frame = SampleFrames.moveFrame();
+    private SpectatorHub hub;
+    private SimpleBrokerMessageHandler broker;
+    private long cpuStart;
+    private long ops;
+    private long cpu;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        hub = new SpectatorHub(new GameRegistry(new SimpleMeterRegistry()), new SimpleMeterRegistry(), 1, 10_000,
+                512 * 1024);
+
+        ExecutorSubscribableChannel clientInbound = new ExecutorSubscribableChannel();
+        ExecutorSubscribableChannel clientOutbound = new ExecutorSubscribableChannel();
+        SubProtocolWebSocketHandler stompHandler = new SubProtocolWebSocketHandler(clientInbound, clientOutbound);
+        stompHandler.addProtocolHandler(new StompSubProtocolHandler());
+        stompHandler.start();
+        broker = new SimpleBrokerMessageHandler(clientInbound, clientOutbound, new ExecutorSubscribableChannel(),
+                List.of("/topic"));
+        broker.start();
+
+        for (int i = 0; i < SPECTATORS; i++) {
+            String subscriptionId = "sub-" + (i % SUBSCRIPTION_IDS);
+            CountingWebSocketSession hubSession = new CountingWebSocketSession("hub-" + i, "spectator-" + i);
+            hub.connected(hubSession);
+            hub.subscribed(hubSession.getId(), subscriptionId, "spectator-" + i, DESTINATION);
+
+            CountingWebSocketSession brokerSession = new CountingWebSocketSession("broker-" + i, "spectator-" + i);
+            stompHandler.afterConnectionEstablished(brokerSession);
+            stompHandler.handleMessage(brokerSession, new TextMessage("CONNECT\naccept-version:1.2\nhost:bench\n\n\0"));
+            stompHandler.handleMessage(brokerSession, new TextMessage("SUBSCRIBE\nid:" + subscriptionId
+                    + "\ndestination:" + DESTINATION + "\n\n\0"));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        hub.shutdown();
+    }
+
+    @Setup(Level.Iteration)
+    public void startIteration() {
+        ops = 0;
+        cpuStart = threads.getCurrentThreadCpuTime();
+    }
+
+    @TearDown(Level.Iteration)
+    public void endIteration() {
+        // Setup and teardown run on the benchmark thread with a single-threaded benchmark.
+        cpu = threads.getCurrentThreadCpuTime() - cpuStart;
+        if (ops > 0) {
+            System.out.printf("(cpu %.1f us/broadcast) ", cpu / 1e3 / ops);
+        }
+    }
+
+    @Benchmark
+    public int serializeOnce() {
+        ops++;
+        return hub.deliver(MATCH_ID, frame);
+    }
+
+    @Benchmark
+    public void simpleBroker() throws Exception {
+        ops++;
+        // As SimpMessagingTemplate.convertAndSend: one conversion, then the broker fans out.
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setDestination(DESTINATION);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        Message<byte[]> message = MessageBuilder.createMessage(WireFormat.JSON.mapper().writeValueAsBytes(frame),
+                accessor.getMessageHeaders());
+        broker.handleMessage(message);
+    }
+}
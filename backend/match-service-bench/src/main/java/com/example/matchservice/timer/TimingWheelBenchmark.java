@@ -0,0 +1,92 @@
+package com.example.matchservice.timer;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Flag timers for {@code CLOCKS} games at once on a 10 ms {@link TimingWheel} driven by hand
+ * on a simulated clock. Each timer re-arms itself when it fires, as a clock does after a
+ * move, with a deadline between 1 s and 10 min away, so the population stays constant.
+ * {@code rearm} replaces one game's timer (cancel plus schedule, linked on the next drain),
+ * {@code tick} advances the wheel by one tick, and {@code scanAll} is the per-tick scan of
+ * every game's deadline that the wheel avoids.
+ *
+ * <pre>
+ * java -jar match-service-bench/target/benchmarks.jar TimingWheelBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TimingWheelBenchmark {
+
+    private static final int CLOCKS = 100_000;
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long MIN_DELAY_MS = 1_000;
+    private static final long MAX_DELAY_MS = 600_000;
+
+    private final SplittableRandom random = new SplittableRandom(42);
+    private final TimingWheel.Timeout[] timeouts = new TimingWheel.Timeout[CLOCKS];
+    private final long[] deadlines = new long[CLOCKS];
+    private TimingWheel wheel;
+    private long now;
+    private int next;
+    private long fired;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        now = TimeUnit.DAYS.toNanos(1);
+        wheel = new TimingWheel("bench-wheel", TICK_NANOS, () -> now);
+        for (int i = 0; i < CLOCKS; i++) {
+            arm(i);
+        }
+        wheel.advance(now);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.println("Resident timers: " + wheel.size() + ", fired: " + fired);
+        wheel.close();
+    }
+
+    @Benchmark
+    public void rearm() {
+        int clock = next;
+        next = next + 1 == CLOCKS ? 0 : next + 1;
+        timeouts[clock].cancel();
+        arm(clock);
+        wheel.advance(now);
+    }
+
+    @Benchmark
+    public void tick() {
+        now += TICK_NANOS;
+        wheel.advance(now);
+    }
+
+    @Benchmark
+    public int scanAll() {
+        now += TICK_NANOS;
+        int due = 0;
+        for (long deadline : deadlines) {
+            if (deadline <= now) {
+                due++;
+            }
+        }
+        return due;
+    }
+
+    private void arm(int clock) {
+        long delayMs = MIN_DELAY_MS + random.nextLong(MAX_DELAY_MS - MIN_DELAY_MS);
+        deadlines[clock] = now + TimeUnit.MILLISECONDS.toNanos(delayMs);
+        timeouts[clock] = wheel.schedule(delayMs, TimeUnit.MILLISECONDS, () -> {
+            fired++;
+            arm(clock);
+        });
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.matchservice.chess;
+
+/**
+ * Precomputed attack tables. Sliding pieces use magic bitboards whose magics are
+ * searched once at class load with a fixed seed, so the tables are identical on every node.
+ */
+public final class Bitboards {
+
+    public static final long FILE_A = 0x0101010101010101L;
+    public static final long FILE_H = FILE_A << 7;
+    public static final long RANK_1 = 0xFFL;
+    public static final long RANK_2 = RANK_1 << 8;
+    public static final long RANK_3 = RANK_1 << 16;
+    public static final long RANK_6 = RANK_1 << 40;
+    public static final long RANK_7 = RANK_1 << 48;
+    public static final long RANK_8 = RANK_1 << 56;
+
+    static final long[] KNIGHT_ATTACKS = new long[64];
+    static final long[] KING_ATTACKS = new long[64];
+    static final long[][] PAWN_ATTACKS = new long[2][64];
+
+    private static final long[] ROOK_MASKS = new long[64];
+    private static final long[] ROOK_MAGICS = new long[64];
+    private static final int[] ROOK_SHIFTS = new int[64];
+    private static final int[] ROOK_OFFSETS = new int[64];
+    private static final long[] ROOK_TABLE = new long[102400];
+
+    private static final long[] BISHOP_MASKS = new long[64];
+    private static final long[] BISHOP_MAGICS = new long[64];
+    private static final int[] BISHOP_SHIFTS = new int[64];
+    private static final int[] BISHOP_OFFSETS = new int[64];
+    private static final long[] BISHOP_TABLE = new long[5248];
+
+    private static final int[][] ROOK_DIRECTIONS = { { 1, 0 }, { -1, 0 }, { 0, 1 }, { 0, -1 } };
+    private static final int[][] BISHOP_DIRECTIONS = { { 1, 1 }, { 1, -1 }, { -1, 1 }, { -1, -1 } };
+
+    private static long seed = 0x9E3779B97F4A7C15L;
+
+    static {
+        for (int sq = 0; sq < 64; sq++) {
+            KNIGHT_ATTACKS[sq] = leaperAttacks(sq, new int[][] {
+                    { 1, 2 }, { 2, 1 }, { 2, -1 }, { 1, -2 }, { -1, -2 }, { -2, -1 }, { -2, 1 }, { -1, 2 } });
+            KING_ATTACKS[sq] = leaperAttacks(sq, new int[][] {
+                    { 1, 0 }, { 1, 1 }, { 0, 1 }, { -1, 1 }, { -1, 0 }, { -1, -1 }, { 0, -1 }, { 1, -1 } });
+            PAWN_ATTACKS[Pieces.WHITE][sq] = leaperAttacks(sq, new int[][] { { -1, 1 }, { 1, 1 } });
+            PAWN_ATTACKS[Pieces.BLACK][sq] = leaperAttacks(sq, new int[][] { { -1, -1 }, { 1, -1 } });
+        }
+        initSliders(ROOK_DIRECTIONS, ROOK_MASKS, ROOK_MAGICS, ROOK_SHIFTS, ROOK_OFFSETS, ROOK_TABLE);
+        initSliders(BISHOP_DIRECTIONS, BISHOP_MASKS, BISHOP_MAGICS, BISHOP_SHIFTS, BISHOP_OFFSETS, BISHOP_TABLE);
+    }
+
+    private Bitboards() {
+    }
+
+    public static long knightAttacks(int sq) {
+        return KNIGHT_ATTACKS[sq];
+    }
+
+    public static long kingAttacks(int sq) {
+        return KING_ATTACKS[sq];
+    }
+
+    public static long pawnAttacks(int color, int sq) {
+        return PAWN_ATTACKS[color][sq];
+    }
+
+    public static long rookAttacks(int sq, long occupied) {
+        int index = (int) (((occupied & ROOK_MASKS[sq]) * ROOK_MAGICS[sq]) >>> ROOK_SHIFTS[sq]);
+        return ROOK_TABLE[ROOK_OFFSETS[sq] + index];
+    }
+
+    public static long bishopAttacks(int sq, long occupied) {
+        int index = (int) (((occupied & BISHOP_MASKS[sq]) * BISHOP_MAGICS[sq]) >>> BISHOP_SHIFTS[sq]);
+        return BISHOP_TABLE[BISHOP_OFFSETS[sq] + index];
+    }
+
+    public static long queenAttacks(int sq, long occupied) {
+        return rookAttacks(sq, occupied) | bishopAttacks(sq, occupied);
+    }
+
+    private static long leaperAttacks(int sq, int[][] deltas) {
+        int file = sq & 7;
+        int rank = sq >>> 3;
+        long attacks = 0L;
+        for (int[] d : deltas) {
+            int f = file + d[0];
+            int r = rank + d[1];
+            if (f >= 0 && f < 8 && r >= 0 && r < 8) {
+                attacks |= 1L << (r * 8 + f);
+            }
+        }
+        return attacks;
+    }
+
+    private static long slidingAttacks(int sq, long occupied, int[][] directions) {
+        int file = sq & 7;
+        int rank = sq >>> 3;
+        long attacks = 0L;
+        for (int[] d : directions) {
+            int f = file + d[0];
+            int r = rank + d[1];
+            while (f >= 0 && f < 8 && r >= 0 && r < 8) {
+                long bit = 1L << (r * 8 + f);
+                attacks |= bit;
+                if ((occupied & bit) != 0) {
+                    break;
+                }
+                f += d[0];
+                r += d[1];
+            }
+        }
+        return attacks;
+    }
+
+    private static long relevantMask(int sq, int[][] directions) {
+        int file = sq & 7;
+        int rank = sq >>> 3;
+        long mask = 0L;
+        for (int[] d : directions) {
+            int f = file + d[0];
+            int r = rank + d[1];
+            while (f + d[0] >= 0 && f + d[0] < 8 && r + d[1] >= 0 && r + d[1] < 8) {
+                mask |= 1L << (r * 8 + f);
+                f += d[0];
+                r += d[1];
+            }
+        }
+        return mask;
+    }
+
+    private static void initSliders(int[][] directions, long[] masks, long[] magics, int[] shifts,
+            int[] offsets, long[] table) {
+        int offset = 0;
+        long[] occupancies = new long[4096];
+        long[] references = new long[4096];
+        long[] scratch = new long[4096];
+        int[] epoch = new int[4096];
+        int attempt = 0;
+
+        for (int sq = 0; sq < 64; sq++) {
+            long mask = relevantMask(sq, directions);
+            int bits = Long.bitCount(mask);
+            int size = 1 << bits;
+
+            int n = 0;
+            long subset = 0L;
+            do {
+                occupancies[n] = subset;
+                references[n] = slidingAttacks(sq, subset, directions);
+                n++;
+                subset = (subset - mask) & mask;
+            } while (subset != 0L);
+
+            long magic;
+            search:
+            while (true) {
+                magic = nextRandom() & nextRandom() & nextRandom();
+                if (Long.bitCount((mask * magic) & 0xFF00000000000000L) < 6) {
+                    continue;
+                }
+                attempt++;
+                for (int i = 0; i < n; i++) {
+                    int index = (int) ((occupancies[i] * magic) >>> (64 - bits));
+                    if (epoch[index] < attempt) {
+                        epoch[index] = attempt;
+                        scratch[index] = references[i];
+                    } else if (scratch[index] != references[i]) {
+                        continue search;
+                    }
+                }
+                break;
+            }
+
+            masks[sq] = mask;
+            magics[sq] = magic;
+            shifts[sq] = 64 - bits;
+            offsets[sq] = offset;
+            for (int i = 0; i < n; i++) {
+                int index = (int) ((occupancies[i] * magic) >>> (64 - bits));
+                table[offset + index] = references[i];
+            }
+            offset += size;
+        }
+    }
+
+    private static long nextRandom() {
+        seed ^= seed >>> 12;
+        seed ^= seed << 25;
+        seed ^= seed >>> 27;
+        return seed * 0x2545F4914F6CDD1DL;
+    }
+}
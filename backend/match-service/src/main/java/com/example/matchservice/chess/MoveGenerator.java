@@ -0,0 +1,207 @@
+package com.example.matchservice.chess;
+
+/**
+ * Writes moves into caller-supplied int buffers. {@link #MAX_MOVES} is enough for any
+ * legal chess position.
+ */
+public final class MoveGenerator {
+
+    public static final int MAX_MOVES = 256;
+
+    private static final int[] PROMOTIONS = { Pieces.QUEEN, Pieces.ROOK, Pieces.BISHOP, Pieces.KNIGHT };
+
+    private MoveGenerator() {
+    }
+
+    public static int generateLegal(Position position, int[] moves) {
+        int count = generatePseudoLegal(position, moves);
+        int legal = 0;
+        for (int i = 0; i < count; i++) {
+            if (isLegal(position, moves[i])) {
+                moves[legal++] = moves[i];
+            }
+        }
+        return legal;
+    }
+
+    public static boolean isLegal(Position position, int move) {
+        int us = position.sideToMove();
+        position.makeMove(move);
+        boolean legal = !position.isSquareAttacked(position.kingSquare(us), us ^ 1);
+        position.unmakeMove(move);
+        return legal;
+    }
+
+    public static boolean hasLegalMove(Position position, int[] buffer) {
+        int count = generatePseudoLegal(position, buffer);
+        for (int i = 0; i < count; i++) {
+            if (isLegal(position, buffer[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the legal move matching the given squares, or {@link Moves#NONE}. When a pawn
+     * reaches the last rank without a promotion piece, a queen is assumed.
+     */
+    public static int findLegal(Position position, int from, int to, int promotion, int[] buffer) {
+        int count = generatePseudoLegal(position, buffer);
+        int wanted = promotion == Pieces.NONE ? Pieces.QUEEN : promotion;
+        for (int i = 0; i < count; i++) {
+            int move = buffer[i];
+            if (Moves.from(move) != from || Moves.to(move) != to) {
+                continue;
+            }
+            if (Moves.isPromotion(move) && Moves.promotion(move) != wanted) {
+                continue;
+            }
+            return isLegal(position, move) ? move : Moves.NONE;
+        }
+        return Moves.NONE;
+    }
+
+    public static int generatePseudoLegal(Position position, int[] moves) {
+        int us = position.sideToMove();
+        int them = us ^ 1;
+        long own = position.colorPieces(us);
+        long enemy = position.colorPieces(them);
+        long occupied = own | enemy;
+        int count = 0;
+
+        count = generatePawnMoves(position, moves, count, us, enemy, occupied);
+
+        long knights = position.pieces(us, Pieces.KNIGHT);
+        while (knights != 0) {
+            int from = Long.numberOfTrailingZeros(knights);
+            knights &= knights - 1;
+            count = addTargets(moves, count, from, Bitboards.KNIGHT_ATTACKS[from] & ~own, enemy);
+        }
+
+        long bishops = position.pieces(us, Pieces.BISHOP) | position.pieces(us, Pieces.QUEEN);
+        while (bishops != 0) {
+            int from = Long.numberOfTrailingZeros(bishops);
+            bishops &= bishops - 1;
+            count = addTargets(moves, count, from, Bitboards.bishopAttacks(from, occupied) & ~own, enemy);
+        }
+
+        long rooks = position.pieces(us, Pieces.ROOK) | position.pieces(us, Pieces.QUEEN);
+        while (rooks != 0) {
+            int from = Long.numberOfTrailingZeros(rooks);
+            rooks &= rooks - 1;
+            count = addTargets(moves, count, from, Bitboards.rookAttacks(from, occupied) & ~own, enemy);
+        }
+
+        int king = position.kingSquare(us);
+        count = addTargets(moves, count, king, Bitboards.KING_ATTACKS[king] & ~own, enemy);
+        count = generateCastling(position, moves, count, us, occupied);
+
+        return count;
+    }
+
+    private static int generatePawnMoves(Position position, int[] moves, int count, int us, long enemy,
+            long occupied) {
+        long pawns = position.pieces(us, Pieces.PAWN);
+        long empty = ~occupied;
+        int forward = us == Pieces.WHITE ? 8 : -8;
+        long promotionRank = us == Pieces.WHITE ? Bitboards.RANK_8 : Bitboards.RANK_1;
+
+        long single = us == Pieces.WHITE ? (pawns << 8) & empty : (pawns >>> 8) & empty;
+        long doubles = us == Pieces.WHITE
+                ? ((single & Bitboards.RANK_3) << 8) & empty
+                : ((single & Bitboards.RANK_6) >>> 8) & empty;
+
+        while (single != 0) {
+            int to = Long.numberOfTrailingZeros(single);
+            single &= single - 1;
+            int from = to - forward;
+            if (((1L << to) & promotionRank) != 0) {
+                for (int promotion : PROMOTIONS) {
+                    moves[count++] = Moves.encode(from, to, promotion, 0);
+                }
+            } else {
+                moves[count++] = Moves.encode(from, to, 0, 0);
+            }
+        }
+
+        while (doubles != 0) {
+            int to = Long.numberOfTrailingZeros(doubles);
+            doubles &= doubles - 1;
+            moves[count++] = Moves.encode(to - 2 * forward, to, 0, Moves.FLAG_DOUBLE_PUSH);
+        }
+
+        long attackers = pawns;
+        while (attackers != 0) {
+            int from = Long.numberOfTrailingZeros(attackers);
+            attackers &= attackers - 1;
+            long targets = Bitboards.PAWN_ATTACKS[us][from] & enemy;
+            while (targets != 0) {
+                int to = Long.numberOfTrailingZeros(targets);
+                targets &= targets - 1;
+                if (((1L << to) & promotionRank) != 0) {
+                    for (int promotion : PROMOTIONS) {
+                        moves[count++] = Moves.encode(from, to, promotion, Moves.FLAG_CAPTURE);
+                    }
+                } else {
+                    moves[count++] = Moves.encode(from, to, 0, Moves.FLAG_CAPTURE);
+                }
+            }
+        }
+
+        int ep = position.epSquare();
+        if (ep != Squares.NONE) {
+            long epAttackers = Bitboards.PAWN_ATTACKS[us ^ 1][ep] & pawns;
+            while (epAttackers != 0) {
+                int from = Long.numberOfTrailingZeros(epAttackers);
+                epAttackers &= epAttackers - 1;
+                moves[count++] = Moves.encode(from, ep, 0, Moves.FLAG_CAPTURE | Moves.FLAG_EN_PASSANT);
+            }
+        }
+
+        return count;
+    }
+
+    private static int generateCastling(Position position, int[] moves, int count, int us, long occupied) {
+        int rights = position.castlingRights();
+        int them = us ^ 1;
+        if (us == Pieces.WHITE) {
+            if ((rights & Position.CASTLE_WHITE_KING) != 0 && (occupied & 0x60L) == 0
+                    && position.pieceAt(7) == Pieces.make(us, Pieces.ROOK)
+                    && !position.isSquareAttacked(4, them) && !position.isSquareAttacked(5, them)
+                    && !position.isSquareAttacked(6, them)) {
+                moves[count++] = Moves.encode(4, 6, 0, Moves.FLAG_CASTLE);
+            }
+            if ((rights & Position.CASTLE_WHITE_QUEEN) != 0 && (occupied & 0x0EL) == 0
+                    && position.pieceAt(0) == Pieces.make(us, Pieces.ROOK)
+                    && !position.isSquareAttacked(4, them) && !position.isSquareAttacked(3, them)
+                    && !position.isSquareAttacked(2, them)) {
+                moves[count++] = Moves.encode(4, 2, 0, Moves.FLAG_CASTLE);
+            }
+        } else {
+            if ((rights & Position.CASTLE_BLACK_KING) != 0 && (occupied & (0x60L << 56)) == 0
+                    && position.pieceAt(63) == Pieces.make(us, Pieces.ROOK)
+                    && !position.isSquareAttacked(60, them) && !position.isSquareAttacked(61, them)
+                    && !position.isSquareAttacked(62, them)) {
+                moves[count++] = Moves.encode(60, 62, 0, Moves.FLAG_CASTLE);
+            }
+            if ((rights & Position.CASTLE_BLACK_QUEEN) != 0 && (occupied & (0x0EL << 56)) == 0
+                    && position.pieceAt(56) == Pieces.make(us, Pieces.ROOK)
+                    && !position.isSquareAttacked(60, them) && !position.isSquareAttacked(59, them)
+                    && !position.isSquareAttacked(58, them)) {
+                moves[count++] = Moves.encode(60, 58, 0, Moves.FLAG_CASTLE);
+            }
+        }
+        return count;
+    }
+
+    private static int addTargets(int[] moves, int count, int from, long targets, long enemy) {
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            int flags = (enemy & (1L << to)) != 0 ? Moves.FLAG_CAPTURE : 0;
+            moves[count++] = Moves.encode(from, to, 0, flags);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.matchservice.chess;
+
+/**
+ * Moves are packed into a single int: from (6 bits), to (6 bits), promotion piece type
+ * (3 bits, 0 when not a promotion) and flags, so move lists are plain int arrays.
+ */
+public final class Moves {
+
+    public static final int NONE = 0;
+
+    public static final int FLAG_CAPTURE = 1 << 15;
+    public static final int FLAG_EN_PASSANT = 1 << 16;
+    public static final int FLAG_CASTLE = 1 << 17;
+    public static final int FLAG_DOUBLE_PUSH = 1 << 18;
+
+    private Moves() {
+    }
+
+    public static int encode(int from, int to, int promotion, int flags) {
+        return from | (to << 6) | (promotion << 12) | flags;
+    }
+
+    public static int from(int move) {
+        return move & 0x3F;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 0x3F;
+    }
+
+    public static int promotion(int move) {
+        return (move >>> 12) & 0x7;
+    }
+
+    public static boolean isPromotion(int move) {
+        return promotion(move) != 0;
+    }
+
+    public static boolean isCapture(int move) {
+        return (move & FLAG_CAPTURE) != 0;
+    }
+
+    public static boolean isEnPassant(int move) {
+        return (move & FLAG_EN_PASSANT) != 0;
+    }
+
+    public static boolean isCastle(int move) {
+        return (move & FLAG_CASTLE) != 0;
+    }
+
+    public static boolean isDoublePush(int move) {
+        return (move & FLAG_DOUBLE_PUSH) != 0;
+    }
+
+    public static String toUci(int move) {
+        StringBuilder uci = new StringBuilder(5);
+        uci.append(Squares.name(from(move))).append(Squares.name(to(move)));
+        if (isPromotion(move)) {
+            uci.append(Character.toLowerCase(Pieces.symbol(promotion(move))));
+        }
+        return uci.toString();
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.matchservice.chess;
+
+/**
+ * Standard algebraic notation. Both directions need the legal moves of the position, so
+ * callers pass a scratch buffer of {@link MoveGenerator#MAX_MOVES}.
+ */
+public final class Notation {
+
+    private Notation() {
+    }
+
+    public static String toSan(Position position, int move, int[] buffer) {
+        int from = Moves.from(move);
+        int to = Moves.to(move);
+        int type = Pieces.type(position.pieceAt(from));
+        StringBuilder san = new StringBuilder(8);
+
+        if (Moves.isCastle(move)) {
+            san.append(to > from ? "O-O" : "O-O-O");
+        } else if (type == Pieces.PAWN) {
+            if (Moves.isCapture(move)) {
+                san.append((char) ('a' + Squares.file(from))).append('x');
+            }
+            san.append(Squares.name(to));
+            if (Moves.isPromotion(move)) {
+                san.append('=').append(Pieces.symbol(Moves.promotion(move)));
+            }
+        } else {
+            san.append(Pieces.symbol(type));
+            appendDisambiguation(san, position, move, type, buffer);
+            if (Moves.isCapture(move)) {
+                san.append('x');
+            }
+            san.append(Squares.name(to));
+        }
+
+        position.makeMove(move);
+        if (position.isInCheck()) {
+            san.append(MoveGenerator.hasLegalMove(position, buffer) ? '+' : '#');
+        }
+        position.unmakeMove(move);
+        return san.toString();
+    }
+
+    /**
+     * Returns the legal move written in UCI form ({@code e2e4}, {@code e7e8q}), or
+     * {@link Moves#NONE}.
+     */
+    public static int fromUci(Position position, String uci, int[] buffer) {
+        if (uci == null || uci.length() < 4) {
+            return Moves.NONE;
+        }
+        int from = Squares.parse(uci.substring(0, 2));
+        int to = Squares.parse(uci.substring(2, 4));
+        if (from == Squares.NONE || to == Squares.NONE) {
+            return Moves.NONE;
+        }
+        int promotion = uci.length() > 4
+                ? Pieces.typeFromSymbol(Character.toUpperCase(uci.charAt(4)))
+                : Pieces.NONE;
+        return MoveGenerator.findLegal(position, from, to, promotion, buffer);
+    }
+
+    /**
+     * Returns the legal move written as {@code san}, or {@link Moves#NONE} if it is not a
+     * legal, unambiguous move in this position. Check marks and annotations are ignored.
+     */
+    public static int fromSan(Position position, String san, int[] buffer) {
+        String text = san.trim();
+        int end = text.length();
+        while (end > 0 && "+#!?".indexOf(text.charAt(end - 1)) >= 0) {
+            end--;
+        }
+        text = text.substring(0, end);
+        if (text.isEmpty()) {
+            return Moves.NONE;
+        }
+
+        int count = MoveGenerator.generateLegal(position, buffer);
+        if (text.equals("O-O") || text.equals("0-0") || text.equals("O-O-O") || text.equals("0-0-0")) {
+            boolean kingSide = text.length() == 3;
+            for (int i = 0; i < count; i++) {
+                int move = buffer[i];
+                if (Moves.isCastle(move) && (Moves.to(move) > Moves.from(move)) == kingSide) {
+                    return move;
+                }
+            }
+            return Moves.NONE;
+        }
+
+        int promotion = 0;
+        int eq = text.indexOf('=');
+        if (eq >= 0) {
+            if (eq + 1 >= text.length()) {
+                return Moves.NONE;
+            }
+            promotion = Pieces.typeFromSymbol(text.charAt(eq + 1));
+            text = text.substring(0, eq);
+        } else if (text.length() > 2 && "NBRQ".indexOf(text.charAt(text.length() - 1)) >= 0
+                && Character.isDigit(text.charAt(text.length() - 2))) {
+            promotion = Pieces.typeFromSymbol(text.charAt(text.length() - 1));
+            text = text.substring(0, text.length() - 1);
+        }
+        if (promotion < 0 || text.length() < 2) {
+            return Moves.NONE;
+        }
+
+        int to = Squares.parse(text.substring(text.length() - 2));
+        if (to == Squares.NONE) {
+            return Moves.NONE;
+        }
+
+        int type = Pieces.PAWN;
+        int start = 0;
+        if ("NBRQK".indexOf(text.charAt(0)) >= 0) {
+            type = Pieces.typeFromSymbol(text.charAt(0));
+            start = 1;
+        }
+        int fromFile = -1;
+        int fromRank = -1;
+        for (int i = start; i < text.length() - 2; i++) {
+            char c = text.charAt(i);
+            if (c >= 'a' && c <= 'h') {
+                fromFile = c - 'a';
+            } else if (c >= '1' && c <= '8') {
+                fromRank = c - '1';
+            } else if (c != 'x' && c != '-') {
+                return Moves.NONE;
+            }
+        }
+
+        int found = Moves.NONE;
+        for (int i = 0; i < count; i++) {
+            int move = buffer[i];
+            int from = Moves.from(move);
+            if (Moves.to(move) != to || Pieces.type(position.pieceAt(from)) != type
+                    || Moves.promotion(move) != promotion
+                    || (fromFile >= 0 && Squares.file(from) != fromFile)
+                    || (fromRank >= 0 && Squares.rank(from) != fromRank)) {
+                continue;
+            }
+            if (found != Moves.NONE) {
+                return Moves.NONE;
+            }
+            found = move;
+        }
+        return found;
+    }
+
+    private static void appendDisambiguation(StringBuilder san, Position position, int move, int type,
+            int[] buffer) {
+        int from = Moves.from(move);
+        int to = Moves.to(move);
+        int count = MoveGenerator.generateLegal(position, buffer);
+        boolean ambiguous = false;
+        boolean sameFile = false;
+        boolean sameRank = false;
+        for (int i = 0; i < count; i++) {
+            int other = Moves.from(buffer[i]);
+            if (other == from || Moves.to(buffer[i]) != to || Pieces.type(position.pieceAt(other)) != type) {
+                continue;
+            }
+            ambiguous = true;
+            sameFile |= Squares.file(other) == Squares.file(from);
+            sameRank |= Squares.rank(other) == Squares.rank(from);
+        }
+        if (!ambiguous) {
+            return;
+        }
+        if (!sameFile) {
+            san.append((char) ('a' + Squares.file(from)));
+        } else if (!sameRank) {
+            san.append((char) ('1' + Squares.rank(from)));
+        } else {
+            san.append(Squares.name(from));
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.matchservice.chess;
+
+public final class Pieces {
+
+    public static final int WHITE = 0;
+    public static final int BLACK = 1;
+
+    public static final int PAWN = 0;
+    public static final int KNIGHT = 1;
+    public static final int BISHOP = 2;
+    public static final int ROOK = 3;
+    public static final int QUEEN = 4;
+    public static final int KING = 5;
+
+    public static final int NONE = -1;
+
+    private static final String SYMBOLS = "PNBRQKpnbrqk";
+
+    private Pieces() {
+    }
+
+    public static int make(int color, int type) {
+        return color * 6 + type;
+    }
+
+    public static int color(int piece) {
+        return piece < 6 ? WHITE : BLACK;
+    }
+
+    public static int type(int piece) {
+        return piece < 6 ? piece : piece - 6;
+    }
+
+    public static char symbol(int piece) {
+        return SYMBOLS.charAt(piece);
+    }
+
+    public static int fromSymbol(char symbol) {
+        return SYMBOLS.indexOf(symbol);
+    }
+
+    public static int typeFromSymbol(char symbol) {
+        int piece = SYMBOLS.indexOf(symbol);
+        return piece < 0 ? NONE : type(piece);
+    }
+}
@@ -0,0 +1,492 @@
+package com.example.matchservice.chess;
+
+import java.util.Arrays;
+
+/**
+ * Bitboard chess position with make/unmake and an incrementally maintained Zobrist hash.
+ * Side to move, castling rights, en-passant square and halfmove clock are packed into a
+ * single int, which is also what the undo stack records per ply. Undo entries and the
+ * hashes of earlier positions live in primitive stacks, so applying a move never
+ * allocates once the stacks have grown to the game length.
+ */
+public final class Position {
+
+    public static final int CASTLE_WHITE_KING = 1;
+    public static final int CASTLE_WHITE_QUEEN = 2;
+    public static final int CASTLE_BLACK_KING = 4;
+    public static final int CASTLE_BLACK_QUEEN = 8;
+
+    public static final String START_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    private static final int SIDE_MASK = 0x1;
+    private static final int CASTLING_SHIFT = 1;
+    private static final int EP_SHIFT = 5;
+    private static final int HALFMOVE_SHIFT = 12;
+    private static final int MAX_HALFMOVE = 0xFF;
+    private static final int SEVENTY_FIVE_MOVES = 150;
+    private static final int CAPTURED_SHIFT = 20;
+    private static final int INITIAL_CAPACITY = 8;
+
+    private static final int[] CASTLE_MASK = new int[64];
+
+    static {
+        Arrays.fill(CASTLE_MASK, 0xF);
+        CASTLE_MASK[0] &= ~CASTLE_WHITE_QUEEN;
+        CASTLE_MASK[7] &= ~CASTLE_WHITE_KING;
+        CASTLE_MASK[4] &= ~(CASTLE_WHITE_KING | CASTLE_WHITE_QUEEN);
+        CASTLE_MASK[56] &= ~CASTLE_BLACK_QUEEN;
+        CASTLE_MASK[63] &= ~CASTLE_BLACK_KING;
+        CASTLE_MASK[60] &= ~(CASTLE_BLACK_KING | CASTLE_BLACK_QUEEN);
+    }
+
+    private final long[] pieces = new long[12];
+    private final byte[] board = new byte[64];
+    private long whitePieces;
+    private long blackPieces;
+    private long hash;
+
+    private int state;
+    private int fullmoveNumber = 1;
+
+    private int[] undo = new int[INITIAL_CAPACITY];
+    private long[] history = new long[INITIAL_CAPACITY];
+    private int undoSize;
+
+    public Position() {
+        Arrays.fill(board, (byte) Pieces.NONE);
+    }
+
+    public static Position startPosition() {
+        return fromFen(START_FEN);
+    }
+
+    public static Position fromFen(String fen) {
+        String[] parts = fen.trim().split("\\s+");
+        if (parts.length < 2) {
+            throw new IllegalArgumentException("Invalid FEN: " + fen);
+        }
+
+        Position position = new Position();
+        int rank = 7;
+        int file = 0;
+        for (int i = 0; i < parts[0].length(); i++) {
+            char c = parts[0].charAt(i);
+            if (c == '/') {
+                rank--;
+                file = 0;
+            } else if (c >= '1' && c <= '8') {
+                file += c - '0';
+            } else {
+                int piece = Pieces.fromSymbol(c);
+                if (piece < 0 || rank < 0 || file > 7) {
+                    throw new IllegalArgumentException("Invalid FEN: " + fen);
+                }
+                position.put(piece, rank * 8 + file);
+                file++;
+            }
+        }
+
+        int side = "b".equals(parts[1]) ? Pieces.BLACK : Pieces.WHITE;
+        int castling = 0;
+        int ep = Squares.NONE;
+        int halfmove = 0;
+
+        if (parts.length > 2) {
+            for (char c : parts[2].toCharArray()) {
+                switch (c) {
+                    case 'K' -> castling |= CASTLE_WHITE_KING;
+                    case 'Q' -> castling |= CASTLE_WHITE_QUEEN;
+                    case 'k' -> castling |= CASTLE_BLACK_KING;
+                    case 'q' -> castling |= CASTLE_BLACK_QUEEN;
+                    default -> {
+                    }
+                }
+            }
+        }
+        if (parts.length > 3) {
+            ep = Squares.parse(parts[3]);
+        }
+        if (parts.length > 4) {
+            halfmove = Integer.parseInt(parts[4]);
+        }
+        if (parts.length > 5) {
+            position.fullmoveNumber = Integer.parseInt(parts[5]);
+        }
+
+        position.state = pack(side, castling, ep, halfmove);
+        position.hash = position.computeHash();
+        return position;
+    }
+
+    public Position copy() {
+        Position copy = new Position();
+        System.arraycopy(pieces, 0, copy.pieces, 0, 12);
+        System.arraycopy(board, 0, copy.board, 0, 64);
+        copy.whitePieces = whitePieces;
+        copy.blackPieces = blackPieces;
+        copy.hash = hash;
+        copy.state = state;
+        copy.fullmoveNumber = fullmoveNumber;
+        copy.undo = Arrays.copyOf(undo, undo.length);
+        copy.history = Arrays.copyOf(history, history.length);
+        copy.undoSize = undoSize;
+        return copy;
+    }
+
+    public int pieceAt(int sq) {
+        return board[sq];
+    }
+
+    public long pieces(int piece) {
+        return pieces[piece];
+    }
+
+    public long pieces(int color, int type) {
+        return pieces[Pieces.make(color, type)];
+    }
+
+    public long colorPieces(int color) {
+        return color == Pieces.WHITE ? whitePieces : blackPieces;
+    }
+
+    public long occupied() {
+        return whitePieces | blackPieces;
+    }
+
+    public int sideToMove() {
+        return state & SIDE_MASK;
+    }
+
+    public boolean isWhiteToMove() {
+        return sideToMove() == Pieces.WHITE;
+    }
+
+    public int castlingRights() {
+        return (state >>> CASTLING_SHIFT) & 0xF;
+    }
+
+    public int epSquare() {
+        return ((state >>> EP_SHIFT) & 0x7F) - 1;
+    }
+
+    public int halfmoveClock() {
+        return (state >>> HALFMOVE_SHIFT) & MAX_HALFMOVE;
+    }
+
+    public int fullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    public long hash() {
+        return hash;
+    }
+
+    /**
+     * Counts how often the current position has occurred, looking back only as far as the
+     * last capture or pawn move since nothing earlier can repeat.
+     */
+    public int repetitionCount() {
+        int count = 1;
+        int limit = Math.max(0, undoSize - halfmoveClock());
+        for (int i = undoSize - 2; i >= limit; i -= 2) {
+            if (history[i] == hash) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public boolean isThreefoldRepetition() {
+        return repetitionCount() >= 3;
+    }
+
+    /**
+     * 75 moves by each side without a capture or pawn move: a draw without any claim.
+     */
+    public boolean isSeventyFiveMoveDraw() {
+        return halfmoveClock() >= SEVENTY_FIVE_MOVES;
+    }
+
+    /**
+     * Drops undo entries and hashes older than the last capture or pawn move. Those can
+     * never take part in a repetition, so a long-running game retains only the entries
+     * that still matter. Moves made before the cut can no longer be unmade.
+     */
+    public void trimHistory() {
+        int keep = halfmoveClock();
+        int drop = undoSize - keep;
+        if (drop < INITIAL_CAPACITY) {
+            return;
+        }
+        int capacity = Math.max(INITIAL_CAPACITY, Integer.highestOneBit(keep) << 1);
+        int[] trimmedUndo = capacity == undo.length ? undo : new int[capacity];
+        long[] trimmedHistory = capacity == history.length ? history : new long[capacity];
+        System.arraycopy(undo, drop, trimmedUndo, 0, keep);
+        System.arraycopy(history, drop, trimmedHistory, 0, keep);
+        undo = trimmedUndo;
+        history = trimmedHistory;
+        undoSize = keep;
+    }
+
+    public int kingSquare(int color) {
+        return Long.numberOfTrailingZeros(pieces[Pieces.make(color, Pieces.KING)]);
+    }
+
+    public boolean isInCheck() {
+        int side = sideToMove();
+        return isSquareAttacked(kingSquare(side), side ^ 1);
+    }
+
+    public boolean isSquareAttacked(int sq, int byColor) {
+        long occupied = occupied();
+        if ((Bitboards.PAWN_ATTACKS[byColor ^ 1][sq] & pieces[Pieces.make(byColor, Pieces.PAWN)]) != 0) {
+            return true;
+        }
+        if ((Bitboards.KNIGHT_ATTACKS[sq] & pieces[Pieces.make(byColor, Pieces.KNIGHT)]) != 0) {
+            return true;
+        }
+        if ((Bitboards.KING_ATTACKS[sq] & pieces[Pieces.make(byColor, Pieces.KING)]) != 0) {
+            return true;
+        }
+        long queens = pieces[Pieces.make(byColor, Pieces.QUEEN)];
+        if ((Bitboards.bishopAttacks(sq, occupied) & (pieces[Pieces.make(byColor, Pieces.BISHOP)] | queens)) != 0) {
+            return true;
+        }
+        return (Bitboards.rookAttacks(sq, occupied) & (pieces[Pieces.make(byColor, Pieces.ROOK)] | queens)) != 0;
+    }
+
+    public void makeMove(int move) {
+        int from = Moves.from(move);
+        int to = Moves.to(move);
+        int piece = board[from];
+        int us = sideToMove();
+        int captureSquare = Moves.isEnPassant(move) ? (us == Pieces.WHITE ? to - 8 : to + 8) : to;
+        int captured = board[captureSquare];
+        int castling = castlingRights();
+
+        if (undoSize == undo.length) {
+            undo = Arrays.copyOf(undo, undoSize * 2);
+            history = Arrays.copyOf(history, undoSize * 2);
+        }
+        history[undoSize] = hash;
+        undo[undoSize++] = state | ((captured + 1) << CAPTURED_SHIFT);
+
+        hash ^= epKey() ^ Zobrist.CASTLING[castling] ^ Zobrist.SIDE_TO_MOVE;
+        int halfmove = halfmoveClock() + 1;
+
+        if (captured != Pieces.NONE) {
+            remove(captured, captureSquare);
+            halfmove = 0;
+        }
+
+        remove(piece, from);
+        if (Moves.isPromotion(move)) {
+            put(Pieces.make(us, Moves.promotion(move)), to);
+        } else {
+            put(piece, to);
+        }
+
+        if (Pieces.type(piece) == Pieces.PAWN) {
+            halfmove = 0;
+        }
+
+        if (Moves.isCastle(move)) {
+            int rook = Pieces.make(us, Pieces.ROOK);
+            if (to > from) {
+                remove(rook, to + 1);
+                put(rook, to - 1);
+            } else {
+                remove(rook, to - 2);
+                put(rook, to + 1);
+            }
+        }
+
+        int ep = Moves.isDoublePush(move) ? (from + to) >>> 1 : Squares.NONE;
+        castling &= CASTLE_MASK[from] & CASTLE_MASK[to];
+
+        if (us == Pieces.BLACK) {
+            fullmoveNumber++;
+        }
+        state = pack(us ^ 1, castling, ep, halfmove);
+        hash ^= epKey() ^ Zobrist.CASTLING[castling];
+    }
+
+    public void unmakeMove(int move) {
+        int from = Moves.from(move);
+        int to = Moves.to(move);
+        int entry = undo[--undoSize];
+        int captured = (entry >>> CAPTURED_SHIFT) - 1;
+
+        state = entry & ((1 << CAPTURED_SHIFT) - 1);
+        int us = sideToMove();
+        if (us == Pieces.BLACK) {
+            fullmoveNumber--;
+        }
+
+        int moved = board[to];
+        remove(moved, to);
+        put(Moves.isPromotion(move) ? Pieces.make(us, Pieces.PAWN) : moved, from);
+
+        if (captured != Pieces.NONE) {
+            int captureSquare = Moves.isEnPassant(move) ? (us == Pieces.WHITE ? to - 8 : to + 8) : to;
+            put(captured, captureSquare);
+        }
+
+        if (Moves.isCastle(move)) {
+            int rook = Pieces.make(us, Pieces.ROOK);
+            if (to > from) {
+                remove(rook, to - 1);
+                put(rook, to + 1);
+            } else {
+                remove(rook, to + 1);
+                put(rook, to - 2);
+            }
+        }
+        hash = history[undoSize];
+    }
+
+    /**
+     * Passes the turn, for null-move pruning. The halfmove clock restarts so repetition
+     * checks never look back across the null move.
+     */
+    public void makeNullMove() {
+        if (undoSize == undo.length) {
+            undo = Arrays.copyOf(undo, undoSize * 2);
+            history = Arrays.copyOf(history, undoSize * 2);
+        }
+        history[undoSize] = hash;
+        undo[undoSize++] = state;
+
+        int us = sideToMove();
+        hash ^= epKey() ^ Zobrist.SIDE_TO_MOVE;
+        if (us == Pieces.BLACK) {
+            fullmoveNumber++;
+        }
+        state = pack(us ^ 1, castlingRights(), Squares.NONE, 0);
+    }
+
+    public void unmakeNullMove() {
+        state = undo[--undoSize] & ((1 << CAPTURED_SHIFT) - 1);
+        if (sideToMove() == Pieces.BLACK) {
+            fullmoveNumber--;
+        }
+        hash = history[undoSize];
+    }
+
+    public String[][] toBoardArray() {
+        String[][] rows = new String[8][8];
+        for (int sq = 0; sq < 64; sq++) {
+            int piece = board[sq];
+            rows[Squares.row(sq)][Squares.col(sq)] = piece == Pieces.NONE ? "" : String.valueOf(Pieces.symbol(piece));
+        }
+        return rows;
+    }
+
+    public String toFen() {
+        StringBuilder fen = new StringBuilder(90);
+        for (int rank = 7; rank >= 0; rank--) {
+            int empty = 0;
+            for (int file = 0; file < 8; file++) {
+                int piece = board[rank * 8 + file];
+                if (piece == Pieces.NONE) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append(empty);
+                    empty = 0;
+                }
+                fen.append(Pieces.symbol(piece));
+            }
+            if (empty > 0) {
+                fen.append(empty);
+            }
+            if (rank > 0) {
+                fen.append('/');
+            }
+        }
+
+        fen.append(' ').append(isWhiteToMove() ? 'w' : 'b').append(' ');
+
+        int castling = castlingRights();
+        if (castling == 0) {
+            fen.append('-');
+        } else {
+            if ((castling & CASTLE_WHITE_KING) != 0) {
+                fen.append('K');
+            }
+            if ((castling & CASTLE_WHITE_QUEEN) != 0) {
+                fen.append('Q');
+            }
+            if ((castling & CASTLE_BLACK_KING) != 0) {
+                fen.append('k');
+            }
+            if ((castling & CASTLE_BLACK_QUEEN) != 0) {
+                fen.append('q');
+            }
+        }
+
+        int ep = epSquare();
+        fen.append(' ').append(ep == Squares.NONE ? "-" : Squares.name(ep));
+        fen.append(' ').append(halfmoveClock());
+        fen.append(' ').append(fullmoveNumber);
+        return fen.toString();
+    }
+
+    /**
+     * The halfmove clock saturates at 255; games end by the 75-move rule at 150.
+     */
+    private static int pack(int side, int castling, int ep, int halfmove) {
+        return side
+                | (castling << CASTLING_SHIFT)
+                | ((ep + 1) << EP_SHIFT)
+                | (Math.min(halfmove, MAX_HALFMOVE) << HALFMOVE_SHIFT);
+    }
+
+    private long computeHash() {
+        long h = 0L;
+        for (int sq = 0; sq < 64; sq++) {
+            if (board[sq] != Pieces.NONE) {
+                h ^= Zobrist.PIECE_SQUARE[board[sq]][sq];
+            }
+        }
+        if (sideToMove() == Pieces.BLACK) {
+            h ^= Zobrist.SIDE_TO_MOVE;
+        }
+        return h ^ Zobrist.CASTLING[castlingRights()] ^ epKey();
+    }
+
+    private long epKey() {
+        int ep = epSquare();
+        if (ep == Squares.NONE) {
+            return 0L;
+        }
+        int side = sideToMove();
+        long capturers = Bitboards.PAWN_ATTACKS[side ^ 1][ep] & pieces[Pieces.make(side, Pieces.PAWN)];
+        return capturers == 0 ? 0L : Zobrist.EP_FILE[Squares.file(ep)];
+    }
+
+    private void put(int piece, int sq) {
+        long bit = 1L << sq;
+        pieces[piece] |= bit;
+        if (piece < 6) {
+            whitePieces |= bit;
+        } else {
+            blackPieces |= bit;
+        }
+        board[sq] = (byte) piece;
+        hash ^= Zobrist.PIECE_SQUARE[piece][sq];
+    }
+
+    private void remove(int piece, int sq) {
+        long bit = ~(1L << sq);
+        pieces[piece] &= bit;
+        if (piece < 6) {
+            whitePieces &= bit;
+        } else {
+            blackPieces &= bit;
+        }
+        board[sq] = (byte) Pieces.NONE;
+        hash ^= Zobrist.PIECE_SQUARE[piece][sq];
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.matchservice.chess;
+
+/**
+ * Square indexes run a1 = 0 to h8 = 63. The API boards are indexed by row from the
+ * black side (row 0 is rank 8), so conversions go through here.
+ */
+public final class Squares {
+
+    public static final int NONE = -1;
+
+    private Squares() {
+    }
+
+    public static int fromRowCol(int row, int col) {
+        return (7 - row) * 8 + col;
+    }
+
+    public static int row(int sq) {
+        return 7 - (sq >>> 3);
+    }
+
+    public static int col(int sq) {
+        return sq & 7;
+    }
+
+    public static int file(int sq) {
+        return sq & 7;
+    }
+
+    public static int rank(int sq) {
+        return sq >>> 3;
+    }
+
+    public static boolean isValidRowCol(int row, int col) {
+        return row >= 0 && row < 8 && col >= 0 && col < 8;
+    }
+
+    public static String name(int sq) {
+        return new String(new char[] { (char) ('a' + file(sq)), (char) ('1' + rank(sq)) });
+    }
+
+    public static int parse(String name) {
+        if (name == null || name.length() != 2) {
+            return NONE;
+        }
+        int file = name.charAt(0) - 'a';
+        int rank = name.charAt(1) - '1';
+        if (file < 0 || file > 7 || rank < 0 || rank > 7) {
+            return NONE;
+        }
+        return rank * 8 + file;
+    }
+}
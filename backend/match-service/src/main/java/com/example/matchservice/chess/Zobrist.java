@@ -0,0 +1,46 @@
+package com.example.matchservice.chess;
+
+/**
+ * Zobrist keys generated from a fixed seed, so a position hashes to the same value on
+ * every node and across restarts.
+ */
+public final class Zobrist {
+
+    static final long[][] PIECE_SQUARE = new long[12][64];
+    static final long[] CASTLING = new long[16];
+    static final long[] EP_FILE = new long[8];
+    static final long SIDE_TO_MOVE;
+
+    static {
+        long seed = 0x1D2C3B4A59687766L;
+        for (int piece = 0; piece < 12; piece++) {
+            for (int sq = 0; sq < 64; sq++) {
+                seed = next(seed);
+                PIECE_SQUARE[piece][sq] = mix(seed);
+            }
+        }
+        for (int i = 0; i < 16; i++) {
+            seed = next(seed);
+            CASTLING[i] = mix(seed);
+        }
+        for (int i = 0; i < 8; i++) {
+            seed = next(seed);
+            EP_FILE[i] = mix(seed);
+        }
+        seed = next(seed);
+        SIDE_TO_MOVE = mix(seed);
+    }
+
+    private Zobrist() {
+    }
+
+    private static long next(long seed) {
+        return seed + 0x9E3779B97F4A7C15L;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.matchservice.config;
+
+import com.example.matchservice.service.MatchLanes;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.MessageHandlingRunnable;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Executor for the client inbound channel. Frames sent to /app/game/{matchId}/... are
+ * handed to that match's {@link MatchLanes} lane, so moves, joins and resignations for one
+ * game are handled one at a time in arrival order. Everything else (CONNECT, SUBSCRIBE,
+ * frames for other destinations) runs on the regular pool.
+ */
+public class LaneRoutingExecutor extends ThreadPoolTaskExecutor {
+
+    private static final String GAME_PREFIX = "/app/game/";
+
+    private final MatchLanes lanes;
+
+    public LaneRoutingExecutor(MatchLanes lanes) {
+        this.lanes = lanes;
+        setCorePoolSize(Runtime.getRuntime().availableProcessors() * 2);
+        setThreadNamePrefix("clientInboundChannel-");
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        long matchId = task instanceof MessageHandlingRunnable handling
+                ? matchId(SimpMessageHeaderAccessor.getDestination(handling.getMessage().getHeaders()))
+                : -1;
+        if (matchId < 0) {
+            super.execute(task);
+        } else {
+            lanes.execute(matchId, task);
+        }
+    }
+
+    /**
+     * The match id of a /app/game/{matchId}/... destination, or -1.
+     */
+    static long matchId(String destination) {
+        if (destination == null || !destination.startsWith(GAME_PREFIX)) {
+            return -1;
+        }
+        long id = 0;
+        int digits = 0;
+        for (int i = GAME_PREFIX.length(); i < destination.length(); i++) {
+            char c = destination.charAt(i);
+            if (c == '/') {
+                break;
+            }
+            if (c < '0' || c > '9' || ++digits > 18) {
+                return -1;
+            }
+            id = id * 10 + (c - '0');
+        }
+        return digits == 0 ? -1 : id;
+    }
+}
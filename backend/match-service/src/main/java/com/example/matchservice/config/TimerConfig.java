@@ -0,0 +1,23 @@
+package com.example.matchservice.config;
+
+import com.example.matchservice.timer.TimingWheel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class TimerConfig {
+
+    /**
+     * The one wheel behind every per-game timer (clock flags, reconnect grace), so the
+     * number of games never turns into a number of scheduled tasks or threads.
+     */
+    @Bean(destroyMethod = "close")
+    public TimingWheel gameTimers(@Value("${timers.tick-ms:10}") long tickMs) {
+        TimingWheel wheel = new TimingWheel("game-timers", tickMs, TimeUnit.MILLISECONDS);
+        wheel.start();
+        return wheel;
+    }
+}
@@ -1,20 +1,32 @@
 package com.example.matchservice.config;
 
+import com.example.matchservice.service.MatchLanes;
+import com.example.matchservice.service.SpectatorHub;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.converter.MessageConverter;
 import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+import java.util.List;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     private final WebSocketAuthInterceptor webSocketAuthInterceptor;
+    private final MatchLanes matchLanes;
+    private final SpectatorHub spectatorHub;
 
-    public WebSocketConfig(WebSocketAuthInterceptor webSocketAuthInterceptor) {
+    public WebSocketConfig(WebSocketAuthInterceptor webSocketAuthInterceptor, MatchLanes matchLanes,
+            SpectatorHub spectatorHub) {
         this.webSocketAuthInterceptor = webSocketAuthInterceptor;
+        this.matchLanes = matchLanes;
+        this.spectatorHub = spectatorHub;
     }
 
     @Override
@@ -34,8 +46,30 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .setAllowedOriginPatterns("http://localhost:3000");
     }
 
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // Spectator frames are written straight to the sessions, encoded once per broadcast.
+        registration.addDecoratorFactory(spectatorHub::decorate);
+    }
+
     @Override
     public void configureClientInboundChannel(ChannelRegistration registration) {
         registration.interceptors(webSocketAuthInterceptor);
+        // One lane per game: frames for a match are handled in order by a single thread.
+        registration.taskExecutor(new LaneRoutingExecutor(matchLanes));
+    }
+
+    @Override
+    public boolean configureMessageConverters(List<MessageConverter> messageConverters) {
+        // Strict matching keeps frames without a content-type on the default JSON converter.
+        for (WireFormat format : WireFormat.values()) {
+            if (format.isBinary()) {
+                MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter(format.mimeType());
+                converter.setObjectMapper(format.mapper());
+                converter.setStrictContentTypeMatch(true);
+                messageConverters.add(converter);
+            }
+        }
+        return true;
     }
 }
@@ -0,0 +1,42 @@
+package com.example.matchservice.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.MimeType;
+
+/**
+ * Encodings a STOMP client can pick. Inbound frames are decoded by their content-type;
+ * outbound frames in a binary encoding go to the destination plus {@link #suffix()}, e.g.
+ * /topic/moves/42/delta.cbor.
+ */
+public enum WireFormat {
+    JSON(new MimeType("application", "json"), "", Jackson2ObjectMapperBuilder.json().build()),
+    CBOR(new MimeType("application", "cbor"), ".cbor", Jackson2ObjectMapperBuilder.cbor().build()),
+    SMILE(new MimeType("application", "x-jackson-smile"), ".smile", Jackson2ObjectMapperBuilder.smile().build());
+
+    private final MimeType mimeType;
+    private final String suffix;
+    private final ObjectMapper mapper;
+
+    WireFormat(MimeType mimeType, String suffix, ObjectMapper mapper) {
+        this.mimeType = mimeType;
+        this.suffix = suffix;
+        this.mapper = mapper;
+    }
+
+    public MimeType mimeType() {
+        return mimeType;
+    }
+
+    public String suffix() {
+        return suffix;
+    }
+
+    public ObjectMapper mapper() {
+        return mapper;
+    }
+
+    public boolean isBinary() {
+        return this != JSON;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.matchservice.controller;
+
+import com.example.matchservice.service.AnalysisService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/game")
+@CrossOrigin(origins = "http://localhost:3000", allowCredentials = "true")
+public class AnalysisController {
+
+    private final AnalysisService analysisService;
+
+    public AnalysisController(AnalysisService analysisService) {
+        this.analysisService = analysisService;
+    }
+
+    @PostMapping("/{matchId}/analysis")
+    public ResponseEntity<Map<String, Object>> requestAnalysis(@PathVariable Long matchId,
+            @RequestParam(defaultValue = "interactive") String priority) {
+        try {
+            AnalysisService.Priority level = AnalysisService.Priority.valueOf(priority.toUpperCase());
+            return ResponseEntity.accepted().body(analysisService.submit(matchId, level));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Unknown priority: " + priority));
+        } catch (RuntimeException e) {
+            if (e.getMessage().contains("not found")) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{matchId}/analysis")
+    public ResponseEntity<Map<String, Object>> getAnalysis(@PathVariable Long matchId) {
+        return ResponseEntity.ok(analysisService.getAnalysis(matchId));
+    }
+
+    @GetMapping(value = "/{matchId}/analysis/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAnalysis(@PathVariable Long matchId) {
+        return analysisService.stream(matchId);
+    }
+
+    @PostMapping("/analysis/backfill")
+    public ResponseEntity<Map<String, Object>> backfill() {
+        return ResponseEntity.ok(Map.of("queued", analysisService.backfill()));
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.matchservice.controller;
+
+import com.example.matchservice.engine.SearchResult;
+import com.example.matchservice.service.EngineService;
+import com.example.matchservice.service.OpeningBookService;
+import com.example.matchservice.service.TablebaseService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/game/engine")
+@CrossOrigin(origins = "http://localhost:3000", allowCredentials = "true")
+public class EngineController {
+
+    private final EngineService engineService;
+    private final OpeningBookService openingBookService;
+    private final TablebaseService tablebaseService;
+
+    public EngineController(EngineService engineService, OpeningBookService openingBookService,
+            TablebaseService tablebaseService) {
+        this.engineService = engineService;
+        this.openingBookService = openingBookService;
+        this.tablebaseService = tablebaseService;
+    }
+
+    @PostMapping("/search")
+    public ResponseEntity<Map<String, Object>> search(@RequestBody Map<String, Object> request) {
+        try {
+            SearchResult result = engineService.search(
+                    (String) request.get("fen"),
+                    request.get("movetimeMs") instanceof Number n ? n.longValue() : null,
+                    request.get("depth") instanceof Number n ? n.intValue() : null,
+                    request.get("threads") instanceof Number n ? n.intValue() : null);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("bestMove", result.getBestMoveUci());
+            if (result.isMate()) {
+                response.put("mate", result.getMateIn());
+            } else {
+                response.put("score", result.getScore());
+            }
+            response.put("depth", result.getDepth());
+            response.put("threads", result.getThreads());
+            response.put("nodes", result.getNodes());
+            response.put("nps", result.getNodesPerSecond());
+            response.put("timeMs", result.getElapsedMs());
+            return ResponseEntity.ok(response);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/book")
+    public ResponseEntity<Map<String, Object>> book(@RequestParam String fen) {
+        try {
+            List<Map<String, Object>> moves = openingBookService.lookup(fen);
+            return ResponseEntity.ok(Map.of("fen", fen, "moves", moves));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/book/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildBook() {
+        try {
+            int entries = openingBookService.rebuildFromDatabase();
+            return ResponseEntity.ok(Map.of("entries", entries));
+        } catch (IOException e) {
+            return ResponseEntity.status(500).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/tablebase")
+    public ResponseEntity<Map<String, Object>> tablebase(@RequestParam String fen) {
+        try {
+            return ResponseEntity.ok(tablebaseService.probe(fen));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -1,11 +1,15 @@
 package com.example.matchservice.controller;
 
 import com.example.matchservice.model.DTO.*;
+import com.example.matchservice.service.BotService;
+import com.example.matchservice.service.FramePublisher;
 import com.example.matchservice.service.GameService;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.handler.annotation.SendTo;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.annotation.SendToUser;
 import org.springframework.web.bind.annotation.*;
 
 import java.security.Principal;
@@ -17,25 +21,39 @@ import java.util.Map;
 public class GameController {
 
     private final GameService gameService;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final FramePublisher framePublisher;
+    private final BotService botService;
 
-    public GameController(GameService gameService) {
+    public GameController(GameService gameService, SimpMessagingTemplate messagingTemplate,
+            FramePublisher framePublisher, BotService botService) {
         this.gameService = gameService;
+        this.messagingTemplate = messagingTemplate;
+        this.framePublisher = framePublisher;
+        this.botService = botService;
     }
 
     @MessageMapping("/game/{matchId}/move")
-    @SendTo("/topic/moves/{matchId}")
-    public MoveDTO handleMove(@DestinationVariable Long matchId,
+    public void handleMove(@DestinationVariable Long matchId,
             @Payload MoveRequest moveRequest,
             Principal principal) {
         try {
             System.out.println("Received move for game " + matchId + " from " + principal.getName());
-            return gameService.processMove(matchId, moveRequest, principal);
+            gameService.processMove(matchId, moveRequest, principal);
+            botService.onMoveApplied(matchId);
         } catch (Exception e) {
             System.err.println("Error processing move: " + e.getMessage());
+
+            Map<String, Object> error = new HashMap<>();
+            error.put("type", "MOVE_REJECTED");
+            error.put("matchId", matchId);
+            error.put("error", e.getMessage());
+            messagingTemplate.convertAndSendToUser(principal.getName(), "/queue/errors", error);
+
             MoveDTO errorMove = new MoveDTO();
             errorMove.setMatchId(matchId);
             errorMove.setMoveNotation("ERROR: " + e.getMessage());
-            return errorMove;
+            framePublisher.publish("/topic/moves/" + matchId, errorMove);
         }
     }
 
@@ -46,7 +64,10 @@ public class GameController {
             Principal principal) {
         try {
             System.out.println("Player " + principal.getName() + " joining game " + matchId);
-            return gameService.handlePlayerJoin(matchId, joinRequest, principal);
+            GameStatusDTO status = gameService.handlePlayerJoin(matchId, joinRequest, principal);
+            // A bot game loaded from the database on this join may be waiting for the engine.
+            botService.onMoveApplied(matchId);
+            return status;
         } catch (Exception e) {
             System.err.println("Error handling player join: " + e.getMessage());
             GameStatusDTO errorStatus = new GameStatusDTO();
@@ -56,13 +77,30 @@ public class GameController {
         }
     }
 
+    @MessageMapping("/game/{matchId}/snapshot")
+    @SendToUser(destinations = "/queue/snapshot", broadcast = false)
+    public GameStatusDTO handleSnapshot(@DestinationVariable Long matchId,
+            Principal principal) {
+        try {
+            return gameService.getSnapshot(matchId, principal);
+        } catch (Exception e) {
+            System.err.println("Error handling snapshot: " + e.getMessage());
+            GameStatusDTO errorStatus = new GameStatusDTO();
+            errorStatus.setMatchId(matchId);
+            errorStatus.setStatus("ERROR: " + e.getMessage());
+            return errorStatus;
+        }
+    }
+
     @MessageMapping("/game/{matchId}/resign")
     @SendTo("/topic/game-state/{matchId}")
     public Map<String, Object> handleResign(@DestinationVariable Long matchId,
             Principal principal) {
         try {
             System.out.println("Player " + principal.getName() + " resigning from game " + matchId);
-            gameService.handleResignation(matchId, principal.getName());
+            if (!gameService.handleResignation(matchId, principal.getName())) {
+                throw new RuntimeException("No game in progress to resign");
+            }
 
             Map<String, Object> response = new HashMap<>();
             response.put("type", "RESIGNATION");
@@ -0,0 +1,61 @@
+package com.example.matchservice.controller;
+
+import com.example.matchservice.service.GameHistoryService;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/game")
+@CrossOrigin(origins = "http://localhost:3000", allowCredentials = "true")
+public class GameHistoryController {
+
+    static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    static final MediaType PGN = MediaType.parseMediaType("application/x-chess-pgn");
+
+    private final GameHistoryService gameHistoryService;
+
+    public GameHistoryController(GameHistoryService gameHistoryService) {
+        this.gameHistoryService = gameHistoryService;
+    }
+
+    @GetMapping("/{matchId}/moves")
+    public ResponseEntity<?> streamMoves(@PathVariable Long matchId,
+            @RequestParam(defaultValue = "1") int from,
+            @RequestParam(required = false) Integer limit) {
+        if (from < 1 || (limit != null && limit < 0)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "from must be at least 1 and limit not negative"));
+        }
+        if (!gameHistoryService.exists(matchId)) {
+            return ResponseEntity.notFound().build();
+        }
+        StreamingResponseBody body = out -> gameHistoryService.streamMoves(matchId, from, limit, out);
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
+    @GetMapping("/export/{username}.pgn")
+    public ResponseEntity<?> exportPgn(@PathVariable String username,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        Long userId = gameHistoryService.userId(username);
+        if (userId == null) {
+            return ResponseEntity.notFound().build();
+        }
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        StreamingResponseBody body = out -> gameHistoryService.exportPgn(userId, username, out, gzip);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(PGN)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(username + ".pgn", StandardCharsets.UTF_8).build().toString())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+}
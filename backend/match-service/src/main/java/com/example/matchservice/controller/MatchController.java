@@ -1,9 +1,11 @@
 package com.example.matchservice.controller;
 
+import com.example.matchservice.model.GameType;
 import com.example.matchservice.service.MatchService;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -21,8 +23,16 @@ public class MatchController {
     }
 
     @PostMapping
-    public ResponseEntity<Map<String, Long>> createMatch(HttpServletRequest request) {
-        Optional<Long> matchIdOpt = matchService.createMatch(request);
+    public ResponseEntity<Map<String, Long>> createMatch(@RequestBody(required = false) Map<String, Object> options, HttpServletRequest request) {
+        GameType gameType;
+        try {
+            gameType = options != null && options.get("gameType") instanceof String type
+                    ? GameType.valueOf(type.toUpperCase())
+                    : GameType.STANDARD;
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("matchId", -2L));
+        }
+        Optional<Long> matchIdOpt = matchService.createMatch(request, gameType);
 
         Map<String, Long> response = new HashMap<>();
         if (matchIdOpt.isPresent()) {
@@ -35,17 +45,8 @@ public class MatchController {
     }
 
     @GetMapping("/check-match")
-    public ResponseEntity<Map<String, Long>> checkMatch(HttpServletRequest request) {
-        Optional<Long> matchIdOpt = matchService.checkMatch(request);
-
-        Map<String, Long> response = new HashMap<>();
-        if (matchIdOpt.isPresent()) {
-            response.put("matchId", matchIdOpt.get());
-            return ResponseEntity.ok(response);
-        } else {
-            response.put("matchId", -2L);
-            return ResponseEntity.badRequest().body(response);
-        }
+    public DeferredResult<ResponseEntity<Map<String, Long>>> checkMatch(HttpServletRequest request) {
+        return matchService.awaitMatch(request);
     }
 
     @PostMapping("/cancel-waiting")
@@ -78,6 +79,20 @@ public class MatchController {
         }
     }
 
+    @PostMapping("/bot")
+    public ResponseEntity<Map<String, Long>> createBotMatch(@RequestBody(required = false) Map<String, Object> options, HttpServletRequest request) {
+        Optional<Long> matchIdOpt = matchService.createBotMatch(options, request);
+
+        Map<String, Long> response = new HashMap<>();
+        if (matchIdOpt.isPresent()) {
+            response.put("matchId", matchIdOpt.get());
+            return ResponseEntity.ok(response);
+        } else {
+            response.put("matchId", -1L);
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
     @PostMapping("/bot/save")
     public ResponseEntity<Map<String, Long>> saveBotMatch(@RequestBody Map<String, Object> gameResult, HttpServletRequest request) {
         Optional<Long> matchIdOpt = matchService.saveBotMatch(gameResult, request);
@@ -0,0 +1,156 @@
+package com.example.matchservice.engine;
+
+import com.example.matchservice.chess.Pieces;
+import com.example.matchservice.chess.Position;
+
+/**
+ * Material plus piece-square tables, with the king table blended between middlegame and
+ * endgame by the remaining non-pawn material. Tables are written from white's side with
+ * rank 8 first; black reads them mirrored.
+ */
+public final class Evaluator {
+
+    static final int[] PIECE_VALUES = { 100, 320, 330, 500, 900, 0 };
+
+    private static final int[] PHASE_WEIGHTS = { 0, 1, 1, 2, 4, 0 };
+    private static final int MAX_PHASE = 24;
+    private static final int BISHOP_PAIR = 30;
+
+    private static final int[][] TABLES = {
+            {
+                    0, 0, 0, 0, 0, 0, 0, 0,
+                    50, 50, 50, 50, 50, 50, 50, 50,
+                    10, 10, 20, 30, 30, 20, 10, 10,
+                    5, 5, 10, 25, 25, 10, 5, 5,
+                    0, 0, 0, 20, 20, 0, 0, 0,
+                    5, -5, -10, 0, 0, -10, -5, 5,
+                    5, 10, 10, -20, -20, 10, 10, 5,
+                    0, 0, 0, 0, 0, 0, 0, 0
+            },
+            {
+                    -50, -40, -30, -30, -30, -30, -40, -50,
+                    -40, -20, 0, 0, 0, 0, -20, -40,
+                    -30, 0, 10, 15, 15, 10, 0, -30,
+                    -30, 5, 15, 20, 20, 15, 5, -30,
+                    -30, 0, 15, 20, 20, 15, 0, -30,
+                    -30, 5, 10, 15, 15, 10, 5, -30,
+                    -40, -20, 0, 5, 5, 0, -20, -40,
+                    -50, -40, -30, -30, -30, -30, -40, -50
+            },
+            {
+                    -20, -10, -10, -10, -10, -10, -10, -20,
+                    -10, 0, 0, 0, 0, 0, 0, -10,
+                    -10, 0, 5, 10, 10, 5, 0, -10,
+                    -10, 5, 5, 10, 10, 5, 5, -10,
+                    -10, 0, 10, 10, 10, 10, 0, -10,
+                    -10, 10, 10, 10, 10, 10, 10, -10,
+                    -10, 5, 0, 0, 0, 0, 5, -10,
+                    -20, -10, -10, -10, -10, -10, -10, -20
+            },
+            {
+                    0, 0, 0, 0, 0, 0, 0, 0,
+                    5, 10, 10, 10, 10, 10, 10, 5,
+                    -5, 0, 0, 0, 0, 0, 0, -5,
+                    -5, 0, 0, 0, 0, 0, 0, -5,
+                    -5, 0, 0, 0, 0, 0, 0, -5,
+                    -5, 0, 0, 0, 0, 0, 0, -5,
+                    -5, 0, 0, 0, 0, 0, 0, -5,
+                    0, 0, 0, 5, 5, 0, 0, 0
+            },
+            {
+                    -20, -10, -10, -5, -5, -10, -10, -20,
+                    -10, 0, 0, 0, 0, 0, 0, -10,
+                    -10, 0, 5, 5, 5, 5, 0, -10,
+                    -5, 0, 5, 5, 5, 5, 0, -5,
+                    0, 0, 5, 5, 5, 5, 0, -5,
+                    -10, 5, 5, 5, 5, 5, 0, -10,
+                    -10, 0, 5, 0, 0, 0, 0, -10,
+                    -20, -10, -10, -5, -5, -10, -10, -20
+            },
+            {
+                    -30, -40, -40, -50, -50, -40, -40, -30,
+                    -30, -40, -40, -50, -50, -40, -40, -30,
+                    -30, -40, -40, -50, -50, -40, -40, -30,
+                    -30, -40, -40, -50, -50, -40, -40, -30,
+                    -20, -30, -30, -40, -40, -30, -30, -20,
+                    -10, -20, -20, -20, -20, -20, -20, -10,
+                    20, 20, 0, 0, 0, 0, 20, 20,
+                    20, 30, 10, 0, 0, 10, 30, 20
+            }
+    };
+
+    private static final int[] KING_ENDGAME = {
+            -50, -40, -30, -20, -20, -30, -40, -50,
+            -30, -20, -10, 0, 0, -10, -20, -30,
+            -30, -10, 20, 30, 30, 20, -10, -30,
+            -30, -10, 30, 40, 40, 30, -10, -30,
+            -30, -10, 30, 40, 40, 30, -10, -30,
+            -30, -10, 20, 30, 30, 20, -10, -30,
+            -30, -30, 0, 0, 0, 0, -30, -30,
+            -50, -30, -30, -30, -30, -30, -30, -50
+    };
+
+    // Signed from white's side, material included, indexed [piece][square].
+    private static final int[][] SQUARE_SCORES = new int[12][64];
+    private static final int[][] KING_SCORES = new int[2][64];
+    private static final int[][] KING_ENDGAME_SCORES = new int[2][64];
+
+    static {
+        for (int color = Pieces.WHITE; color <= Pieces.BLACK; color++) {
+            int sign = color == Pieces.WHITE ? 1 : -1;
+            for (int sq = 0; sq < 64; sq++) {
+                int index = color == Pieces.WHITE ? sq ^ 56 : sq;
+                for (int type = Pieces.PAWN; type < Pieces.KING; type++) {
+                    SQUARE_SCORES[Pieces.make(color, type)][sq] = sign * (PIECE_VALUES[type] + TABLES[type][index]);
+                }
+                KING_SCORES[color][sq] = sign * TABLES[Pieces.KING][index];
+                KING_ENDGAME_SCORES[color][sq] = sign * KING_ENDGAME[index];
+            }
+        }
+    }
+
+    private Evaluator() {
+    }
+
+    /**
+     * Returns the score in centipawns from the side to move's point of view.
+     */
+    public static int evaluate(Position position) {
+        int score = 0;
+        int phase = 0;
+        for (int piece = 0; piece < 12; piece++) {
+            if (Pieces.type(piece) == Pieces.KING) {
+                continue;
+            }
+            long bits = position.pieces(piece);
+            phase += PHASE_WEIGHTS[Pieces.type(piece)] * Long.bitCount(bits);
+            int[] table = SQUARE_SCORES[piece];
+            while (bits != 0) {
+                score += table[Long.numberOfTrailingZeros(bits)];
+                bits &= bits - 1;
+            }
+        }
+
+        if (Long.bitCount(position.pieces(Pieces.WHITE, Pieces.BISHOP)) >= 2) {
+            score += BISHOP_PAIR;
+        }
+        if (Long.bitCount(position.pieces(Pieces.BLACK, Pieces.BISHOP)) >= 2) {
+            score -= BISHOP_PAIR;
+        }
+
+        phase = Math.min(phase, MAX_PHASE);
+        int whiteKing = position.kingSquare(Pieces.WHITE);
+        int blackKing = position.kingSquare(Pieces.BLACK);
+        int middlegame = KING_SCORES[Pieces.WHITE][whiteKing] + KING_SCORES[Pieces.BLACK][blackKing];
+        int endgame = KING_ENDGAME_SCORES[Pieces.WHITE][whiteKing] + KING_ENDGAME_SCORES[Pieces.BLACK][blackKing];
+        score += (middlegame * phase + endgame * (MAX_PHASE - phase)) / MAX_PHASE;
+
+        return position.sideToMove() == Pieces.WHITE ? score : -score;
+    }
+
+    static boolean hasNonPawnMaterial(Position position, int color) {
+        return (position.colorPieces(color)
+                & ~position.pieces(color, Pieces.PAWN)
+                & ~position.pieces(color, Pieces.KING)) != 0;
+    }
+}
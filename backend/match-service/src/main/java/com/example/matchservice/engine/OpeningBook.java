@@ -0,0 +1,170 @@
+package com.example.matchservice.engine;
+
+import com.example.matchservice.chess.MoveGenerator;
+import com.example.matchservice.chess.Moves;
+import com.example.matchservice.chess.Pieces;
+import com.example.matchservice.chess.Position;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Read-only opening book mapped from a file written by {@link OpeningBookBuilder}. The book
+ * stays in the page cache rather than on the heap, and a lookup is a binary search over
+ * the mapping with absolute reads, so it is safe to share between threads.
+ *
+ * <p>File layout (big-endian): a 16-byte header of magic and entry count, then 16-byte
+ * entries sorted by key: Zobrist key (8), move (2: from, to, promotion type as in
+ * {@link Moves}), weight (2), game count (4).
+ */
+public final class OpeningBook {
+
+    static final long MAGIC = 0x4943424F4F4B3031L; // "ICBOOK01"
+    static final int HEADER_BYTES = 16;
+    static final int ENTRY_BYTES = 16;
+
+    private final ByteBuffer buffer;
+    private final int size;
+
+    private OpeningBook(ByteBuffer buffer, int size) {
+        this.buffer = buffer;
+        this.size = size;
+    }
+
+    public static OpeningBook open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < HEADER_BYTES || length > Integer.MAX_VALUE) {
+                throw new IOException("Not an opening book: " + path);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            if (buffer.getLong(0) != MAGIC) {
+                throw new IOException("Not an opening book: " + path);
+            }
+            int size = buffer.getInt(8);
+            if ((long) HEADER_BYTES + (long) size * ENTRY_BYTES != length) {
+                throw new IOException("Truncated opening book: " + path);
+            }
+            return new OpeningBook(buffer, size);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Index of the first entry for the key, or -1.
+     */
+    public int find(long key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (key(mid) < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low < size && key(low) == key ? low : -1;
+    }
+
+    public long key(int index) {
+        return buffer.getLong(HEADER_BYTES + index * ENTRY_BYTES);
+    }
+
+    public int move(int index) {
+        return buffer.getShort(HEADER_BYTES + index * ENTRY_BYTES + 8) & 0x7FFF;
+    }
+
+    public int weight(int index) {
+        return buffer.getShort(HEADER_BYTES + index * ENTRY_BYTES + 10) & 0xFFFF;
+    }
+
+    public int count(int index) {
+        return buffer.getInt(HEADER_BYTES + index * ENTRY_BYTES + 12);
+    }
+
+    /**
+     * Picks a book move at random in proportion to its weight, or returns {@link Moves#NONE}
+     * when the position is not in the book. Entries that are not legal here (a key
+     * collision) are skipped.
+     */
+    public int pickMove(Position position, RandomGenerator random, int[] buffer) {
+        int first = find(position.hash());
+        if (first < 0) {
+            return Moves.NONE;
+        }
+        long key = position.hash();
+        int total = 0;
+        for (int i = first; i < size && key(i) == key; i++) {
+            total += weight(i);
+        }
+        if (total == 0) {
+            return Moves.NONE;
+        }
+        int target = random.nextInt(total);
+        for (int i = first; i < size && key(i) == key; i++) {
+            target -= weight(i);
+            if (target < 0) {
+                return toLegal(position, move(i), buffer);
+            }
+        }
+        return Moves.NONE;
+    }
+
+    public List<BookMove> moves(Position position) {
+        List<BookMove> moves = new ArrayList<>();
+        int first = find(position.hash());
+        if (first < 0) {
+            return moves;
+        }
+        long key = position.hash();
+        int[] buffer = new int[MoveGenerator.MAX_MOVES];
+        for (int i = first; i < size && key(i) == key; i++) {
+            int move = toLegal(position, move(i), buffer);
+            if (move != Moves.NONE) {
+                moves.add(new BookMove(move, weight(i), count(i)));
+            }
+        }
+        return moves;
+    }
+
+    private static int toLegal(Position position, int bookMove, int[] buffer) {
+        int promotion = Moves.promotion(bookMove);
+        return MoveGenerator.findLegal(position, Moves.from(bookMove), Moves.to(bookMove),
+                promotion == 0 ? Pieces.NONE : promotion, buffer);
+    }
+
+    public static final class BookMove {
+        private final int move;
+        private final int weight;
+        private final int count;
+
+        BookMove(int move, int weight, int count) {
+            this.move = move;
+            this.weight = weight;
+            this.count = count;
+        }
+
+        public int getMove() {
+            return move;
+        }
+
+        public int getWeight() {
+            return weight;
+        }
+
+        public int getCount() {
+            return count;
+        }
+    }
+}
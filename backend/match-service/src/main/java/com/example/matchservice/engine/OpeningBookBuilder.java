@@ -0,0 +1,266 @@
+package com.example.matchservice.engine;
+
+import com.example.matchservice.chess.MoveGenerator;
+import com.example.matchservice.chess.Moves;
+import com.example.matchservice.chess.Notation;
+import com.example.matchservice.chess.Position;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects opening moves from finished games and writes an {@link OpeningBook} file. Each
+ * move of the first {@code maxPly} plies adds 2 to its weight if the mover went on to win,
+ * 1 for a draw or unknown result and 0 for a loss; moves that end with no weight are left
+ * out.
+ *
+ * <pre>
+ * java -cp match-service.jar com.example.matchservice.engine.OpeningBookBuilder book.bin games.pgn [--max-ply 30]
+ * </pre>
+ */
+public final class OpeningBookBuilder {
+
+    public static final int WHITE_WINS = 1;
+    public static final int DRAW = 0;
+    public static final int BLACK_WINS = -1;
+
+    private final int maxPly;
+    private final int[] buffer = new int[MoveGenerator.MAX_MOVES];
+    // key -> packed move -> { weight, count }
+    private final Map<Long, Map<Integer, int[]>> positions = new HashMap<>();
+    private int games;
+
+    public OpeningBookBuilder(int maxPly) {
+        this.maxPly = maxPly;
+    }
+
+    /**
+     * Adds a game given in UCI moves from the start position. Parsing stops at the first
+     * move that is not legal.
+     */
+    public void addUciGame(List<String> uciMoves, Integer result) {
+        Position position = Position.startPosition();
+        int ply = 0;
+        for (String uci : uciMoves) {
+            if (ply >= maxPly) {
+                break;
+            }
+            int move = Notation.fromUci(position, uci, buffer);
+            if (move == Moves.NONE) {
+                break;
+            }
+            add(position, move, result);
+            position.makeMove(move);
+            ply++;
+        }
+        games++;
+    }
+
+    /**
+     * Adds every game in a PGN stream and returns how many were read. Comments, variations
+     * and NAGs are skipped; games with a non-standard start position are ignored.
+     */
+    public int addPgn(Reader reader) throws IOException {
+        BufferedReader lines = reader instanceof BufferedReader b ? b : new BufferedReader(reader);
+        StringBuilder movetext = new StringBuilder();
+        String result = null;
+        boolean customStart = false;
+        int read = 0;
+        String line;
+        while ((line = lines.readLine()) != null) {
+            line = line.trim();
+            if (line.startsWith("[")) {
+                if (!movetext.isEmpty()) {
+                    if (!customStart) {
+                        addSanGame(movetext, result);
+                        read++;
+                    }
+                    movetext.setLength(0);
+                    result = null;
+                    customStart = false;
+                }
+                if (line.startsWith("[Result ")) {
+                    result = tagValue(line);
+                } else if (line.startsWith("[FEN ")) {
+                    customStart = !Position.START_FEN.equals(tagValue(line));
+                }
+            } else if (!line.startsWith("%")) {
+                movetext.append(line).append(' ');
+            }
+        }
+        if (!movetext.isEmpty() && !customStart) {
+            addSanGame(movetext, result);
+            read++;
+        }
+        return read;
+    }
+
+    public int getGames() {
+        return games;
+    }
+
+    /**
+     * Writes the book to a temporary file next to {@code path} and moves it into place, so
+     * a book that is mapped by a running server is never modified. Returns the entry count.
+     */
+    public int write(Path path) throws IOException {
+        long[] keys = new long[positions.size()];
+        int index = 0;
+        for (Long key : positions.keySet()) {
+            keys[index++] = key;
+        }
+        Arrays.sort(keys);
+
+        int entries = 0;
+        for (Map<Integer, int[]> moves : positions.values()) {
+            entries += (int) moves.values().stream().filter(stats -> stats[0] > 0).count();
+        }
+
+        Path temp = Files.createTempFile(path.toAbsolutePath().getParent(), "book", ".tmp");
+        try (OutputStream file = Files.newOutputStream(temp);
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+            out.writeLong(OpeningBook.MAGIC);
+            out.writeInt(entries);
+            out.writeInt(0);
+            for (long key : keys) {
+                List<Map.Entry<Integer, int[]>> moves = new ArrayList<>(positions.get(key).entrySet());
+                moves.sort((a, b) -> Integer.compare(b.getValue()[0], a.getValue()[0]));
+                for (Map.Entry<Integer, int[]> move : moves) {
+                    int[] stats = move.getValue();
+                    if (stats[0] == 0) {
+                        continue;
+                    }
+                    out.writeLong(key);
+                    out.writeShort(move.getKey());
+                    out.writeShort(Math.min(stats[0], 0xFFFF));
+                    out.writeInt(stats[1]);
+                }
+            }
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return entries;
+    }
+
+    private void add(Position position, int move, Integer result) {
+        int weight;
+        if (result == null || result == DRAW) {
+            weight = 1;
+        } else {
+            boolean moverWon = (result == WHITE_WINS) == position.isWhiteToMove();
+            weight = moverWon ? 2 : 0;
+        }
+        int packed = Moves.encode(Moves.from(move), Moves.to(move), Moves.promotion(move), 0);
+        int[] stats = positions.computeIfAbsent(position.hash(), k -> new HashMap<>(4))
+                .computeIfAbsent(packed, k -> new int[2]);
+        stats[0] += weight;
+        stats[1]++;
+    }
+
+    private void addSanGame(CharSequence movetext, String result) {
+        Position position = Position.startPosition();
+        Integer outcome = switch (result == null ? "*" : result) {
+            case "1-0" -> WHITE_WINS;
+            case "0-1" -> BLACK_WINS;
+            case "1/2-1/2" -> DRAW;
+            default -> null;
+        };
+
+        int ply = 0;
+        for (String token : tokens(movetext)) {
+            if (ply >= maxPly) {
+                break;
+            }
+            int move = Notation.fromSan(position, token, buffer);
+            if (move == Moves.NONE) {
+                break;
+            }
+            add(position, move, outcome);
+            position.makeMove(move);
+            ply++;
+        }
+        games++;
+    }
+
+    /**
+     * Splits movetext into SAN tokens, dropping move numbers, results, NAGs, comments and
+     * variations.
+     */
+    static List<String> tokens(CharSequence movetext) {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder token = new StringBuilder();
+        int variationDepth = 0;
+        boolean inComment = false;
+        for (int i = 0; i <= movetext.length(); i++) {
+            char c = i < movetext.length() ? movetext.charAt(i) : ' ';
+            if (inComment) {
+                inComment = c != '}';
+                continue;
+            }
+            if (c == '{') {
+                inComment = true;
+            } else if (c == '(') {
+                variationDepth++;
+            } else if (c == ')') {
+                variationDepth = Math.max(0, variationDepth - 1);
+            } else if (variationDepth == 0 && !Character.isWhitespace(c)) {
+                token.append(c);
+                continue;
+            }
+            if (!token.isEmpty()) {
+                String text = token.toString().replaceFirst("^\\d+\\.+", "");
+                if (!text.isEmpty() && !text.startsWith("$") && !isResult(text)) {
+                    tokens.add(text);
+                }
+                token.setLength(0);
+            }
+        }
+        return tokens;
+    }
+
+    private static boolean isResult(String token) {
+        return token.equals("1-0") || token.equals("0-1") || token.equals("1/2-1/2") || token.equals("*");
+    }
+
+    private static String tagValue(String line) {
+        int start = line.indexOf('"');
+        int end = line.lastIndexOf('"');
+        return start >= 0 && end > start ? line.substring(start + 1, end) : null;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: OpeningBookBuilder <book.bin> <games.pgn>... [--max-ply N]");
+            System.exit(1);
+        }
+        int maxPly = 30;
+        List<Path> inputs = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            if ("--max-ply".equals(args[i]) && i + 1 < args.length) {
+                maxPly = Integer.parseInt(args[++i]);
+            } else {
+                inputs.add(Path.of(args[i]));
+            }
+        }
+
+        OpeningBookBuilder builder = new OpeningBookBuilder(maxPly);
+        for (Path input : inputs) {
+            try (Reader reader = Files.newBufferedReader(input)) {
+                System.out.println(input + ": " + builder.addPgn(reader) + " games");
+            }
+        }
+        int entries = builder.write(Path.of(args[0]));
+        System.out.println("Wrote " + entries + " entries from " + builder.getGames() + " games to " + args[0]);
+    }
+}
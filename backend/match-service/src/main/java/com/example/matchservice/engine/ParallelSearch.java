@@ -0,0 +1,84 @@
+package com.example.matchservice.engine;
+
+import com.example.matchservice.chess.Position;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Lazy-SMP: the calling thread runs the main search while helpers search the same root on
+ * the executor, all sharing one {@link TranspositionTable}. Helpers only feed the table;
+ * they are stopped as soon as the main search finishes. Search instances are pooled, since
+ * each carries a few hundred KB of move buffers.
+ */
+public final class ParallelSearch {
+
+    private final TranspositionTable tt;
+    private final ExecutorService helpers;
+    private final ConcurrentLinkedQueue<Search> idle = new ConcurrentLinkedQueue<>();
+
+    public ParallelSearch(TranspositionTable tt, ExecutorService helpers) {
+        this.tt = tt;
+        this.helpers = helpers;
+    }
+
+    public SearchResult search(Position root, SearchLimits limits, int threads) {
+        tt.newSearch();
+        Search main = borrow();
+        List<Search> helperSearches = new ArrayList<>(threads - 1);
+        List<Future<SearchResult>> futures = new ArrayList<>(threads - 1);
+        SearchLimits helperLimits = limits.withMaxDepth(Search.MAX_PLY);
+        SearchResult result;
+        long helperNodes = 0;
+        try {
+            for (int id = 1; id < threads; id++) {
+                Search helper = borrow();
+                helperSearches.add(helper);
+                int threadId = id;
+                futures.add(helpers.submit(() -> helper.run(root, helperLimits, threadId)));
+            }
+            result = main.run(root, limits, 0);
+        } finally {
+            helperSearches.forEach(Search::stop);
+            idle.add(main);
+            for (int i = 0; i < futures.size(); i++) {
+                long nodes = await(futures.get(i));
+                if (nodes >= 0) {
+                    helperNodes += nodes;
+                    idle.add(helperSearches.get(i));
+                }
+            }
+        }
+        return new SearchResult(result.getBestMove(), result.getScore(), result.getDepth(),
+                result.getNodes() + helperNodes, result.getElapsedMs(), threads);
+    }
+
+    private Search borrow() {
+        Search search = idle.poll();
+        if (search == null) {
+            search = new Search(tt);
+        }
+        search.reset();
+        return search;
+    }
+
+    /**
+     * Returns the helper's node count, or -1 if it may still be running and must not go
+     * back to the pool.
+     */
+    private static long await(Future<SearchResult> future) {
+        try {
+            return future.get().getNodes();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        } catch (ExecutionException e) {
+            System.err.println("Helper search failed: " + e.getCause());
+            return 0;
+        }
+    }
+}
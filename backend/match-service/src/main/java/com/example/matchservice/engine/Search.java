@@ -0,0 +1,388 @@
+package com.example.matchservice.engine;
+
+import com.example.matchservice.chess.MoveGenerator;
+import com.example.matchservice.chess.Moves;
+import com.example.matchservice.chess.Pieces;
+import com.example.matchservice.chess.Position;
+
+import java.util.Arrays;
+
+/**
+ * Iterative-deepening principal variation search with a transposition table, null-move
+ * pruning, late move reductions and a capture-only quiescence search. Moves are ordered
+ * TT move first, then captures by MVV-LVA, killers and the history table.
+ *
+ * <p>One instance is reusable but not thread-safe; all buffers are allocated up front so a
+ * search does not allocate per node. Several instances sharing a transposition table make
+ * up a Lazy-SMP search, see {@link ParallelSearch}.
+ */
+public final class Search {
+
+    public static final int MAX_PLY = 128;
+    public static final int INFINITY = 32000;
+    public static final int MATE = 31000;
+
+    private static final int NULL_MOVE_REDUCTION = 2;
+    private static final int TIME_CHECK_MASK = 2047;
+
+    private static final int SCORE_TT_MOVE = 1 << 30;
+    private static final int SCORE_CAPTURE = 1 << 28;
+    private static final int SCORE_KILLER_1 = 1 << 27;
+    private static final int SCORE_KILLER_2 = SCORE_KILLER_1 - 1;
+    private static final int HISTORY_LIMIT = 1 << 20;
+
+    private final TranspositionTable tt;
+    private final int[][] moves = new int[MAX_PLY][MoveGenerator.MAX_MOVES];
+    private final int[][] moveScores = new int[MAX_PLY][MoveGenerator.MAX_MOVES];
+    private final int[][] killers = new int[MAX_PLY][2];
+    private final int[][] history = new int[12][64];
+
+    private Position position;
+    private long nodes;
+    private long startNanos;
+    private long hardNanos;
+    private int completedDepth;
+    private int rootBestMove;
+    private volatile boolean stopped;
+
+    public Search(TranspositionTable tt) {
+        this.tt = tt;
+    }
+
+    public SearchResult search(Position root, SearchLimits limits) {
+        reset();
+        tt.newSearch();
+        return run(root, limits, 0);
+    }
+
+    /**
+     * Clears the stop flag. Kept apart from {@link #run} so a coordinator can reset a helper
+     * before handing it to another thread, and a {@link #stop()} issued in between is not lost.
+     */
+    void reset() {
+        stopped = false;
+        nodes = 0;
+    }
+
+    /**
+     * Runs iterative deepening. Helpers (threadId > 0) with an odd id search one ply deeper
+     * per iteration than the main thread, so threads sharing the table spread over
+     * different depths instead of repeating each other's work.
+     */
+    SearchResult run(Position root, SearchLimits limits, int threadId) {
+        position = root.copy();
+        completedDepth = 0;
+        rootBestMove = Moves.NONE;
+        startNanos = System.nanoTime();
+        hardNanos = toNanos(limits.getHardMs());
+        long softNanos = toNanos(limits.getSoftMs());
+        for (int[] killer : killers) {
+            Arrays.fill(killer, Moves.NONE);
+        }
+        for (int[] row : history) {
+            Arrays.fill(row, 0);
+        }
+
+        int depthOffset = threadId & 1;
+        int bestMove = Moves.NONE;
+        int bestScore = 0;
+        for (int depth = 1 + depthOffset; depth <= limits.getMaxDepth(); depth++) {
+            int score = negamax(depth, -INFINITY, INFINITY, 0, false);
+            if (stopped) {
+                break;
+            }
+            bestMove = rootBestMove;
+            bestScore = score;
+            completedDepth = depth;
+
+            if (Math.abs(score) >= MATE - depth || System.nanoTime() - startNanos >= softNanos) {
+                break;
+            }
+        }
+
+        if (bestMove == Moves.NONE) {
+            int count = MoveGenerator.generateLegal(position, moves[0]);
+            bestMove = count > 0 ? moves[0][0] : Moves.NONE;
+        }
+        return new SearchResult(bestMove, bestScore, completedDepth, nodes, elapsedMs());
+    }
+
+    /**
+     * Aborts a running search; the result of the last completed iteration is returned.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    private int negamax(int depth, int alpha, int beta, int ply, boolean allowNull) {
+        if ((++nodes & TIME_CHECK_MASK) == 0) {
+            checkTime();
+        }
+        if (stopped) {
+            return 0;
+        }
+
+        boolean root = ply == 0;
+        if (!root) {
+            if (position.halfmoveClock() >= 100 || position.repetitionCount() >= 2) {
+                return 0;
+            }
+            alpha = Math.max(alpha, -MATE + ply);
+            beta = Math.min(beta, MATE - ply - 1);
+            if (alpha >= beta) {
+                return alpha;
+            }
+        }
+
+        boolean inCheck = position.isInCheck();
+        if (inCheck) {
+            depth++;
+        }
+        if (depth <= 0) {
+            return quiesce(alpha, beta, ply);
+        }
+        if (ply >= MAX_PLY - 1) {
+            return Evaluator.evaluate(position);
+        }
+
+        boolean pvNode = beta - alpha > 1;
+        long key = position.hash();
+        long entry = tt.probe(key);
+        int ttMove = Moves.NONE;
+        if (entry != 0) {
+            ttMove = TranspositionTable.move(entry);
+            if (!pvNode && TranspositionTable.depth(entry) >= depth) {
+                int score = fromTT(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.BOUND_EXACT
+                        || (bound == TranspositionTable.BOUND_LOWER && score >= beta)
+                        || (bound == TranspositionTable.BOUND_UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        int us = position.sideToMove();
+        if (allowNull && !pvNode && !inCheck && depth >= 3 && Evaluator.hasNonPawnMaterial(position, us)
+                && Evaluator.evaluate(position) >= beta) {
+            position.makeNullMove();
+            int score = -negamax(depth - 1 - NULL_MOVE_REDUCTION, -beta, -beta + 1, ply + 1, false);
+            position.unmakeNullMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score >= beta) {
+                return score >= MATE - MAX_PLY ? beta : score;
+            }
+        }
+
+        int[] list = moves[ply];
+        int[] scores = moveScores[ply];
+        int count = MoveGenerator.generatePseudoLegal(position, list);
+        scoreMoves(list, scores, count, ttMove, ply);
+
+        int originalAlpha = alpha;
+        int bestScore = -INFINITY;
+        int bestMove = Moves.NONE;
+        int legal = 0;
+        for (int i = 0; i < count; i++) {
+            int move = pickNext(list, scores, i, count);
+            int moved = position.pieceAt(Moves.from(move));
+            position.makeMove(move);
+            if (position.isSquareAttacked(position.kingSquare(us), us ^ 1)) {
+                position.unmakeMove(move);
+                continue;
+            }
+            legal++;
+
+            boolean quiet = !Moves.isCapture(move) && !Moves.isPromotion(move);
+            int score;
+            if (legal == 1) {
+                score = -negamax(depth - 1, -beta, -alpha, ply + 1, true);
+            } else {
+                int reduction = depth >= 3 && legal > 3 && quiet && !inCheck && !position.isInCheck() ? 1 : 0;
+                score = -negamax(depth - 1 - reduction, -alpha - 1, -alpha, ply + 1, true);
+                if (score > alpha && reduction > 0) {
+                    score = -negamax(depth - 1, -alpha - 1, -alpha, ply + 1, true);
+                }
+                if (score > alpha && score < beta) {
+                    score = -negamax(depth - 1, -beta, -alpha, ply + 1, true);
+                }
+            }
+            position.unmakeMove(move);
+
+            if (stopped) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+                if (root) {
+                    rootBestMove = move;
+                }
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        if (quiet) {
+                            updateQuietStats(move, moved, depth, ply);
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+
+        if (legal == 0) {
+            return inCheck ? -MATE + ply : 0;
+        }
+
+        int bound = bestScore >= beta ? TranspositionTable.BOUND_LOWER
+                : bestScore > originalAlpha ? TranspositionTable.BOUND_EXACT
+                : TranspositionTable.BOUND_UPPER;
+        tt.store(key, bestMove, toTT(bestScore, ply), depth, bound);
+        return bestScore;
+    }
+
+    private int quiesce(int alpha, int beta, int ply) {
+        if ((++nodes & TIME_CHECK_MASK) == 0) {
+            checkTime();
+        }
+        if (stopped) {
+            return 0;
+        }
+
+        int standPat = Evaluator.evaluate(position);
+        if (standPat >= beta || ply >= MAX_PLY - 1) {
+            return standPat;
+        }
+        alpha = Math.max(alpha, standPat);
+
+        int[] list = moves[ply];
+        int[] scores = moveScores[ply];
+        int all = MoveGenerator.generatePseudoLegal(position, list);
+        int count = 0;
+        for (int i = 0; i < all; i++) {
+            int move = list[i];
+            if (Moves.isCapture(move) || Moves.promotion(move) == Pieces.QUEEN) {
+                list[count++] = move;
+            }
+        }
+        scoreMoves(list, scores, count, Moves.NONE, ply);
+
+        int us = position.sideToMove();
+        for (int i = 0; i < count; i++) {
+            int move = pickNext(list, scores, i, count);
+            position.makeMove(move);
+            if (position.isSquareAttacked(position.kingSquare(us), us ^ 1)) {
+                position.unmakeMove(move);
+                continue;
+            }
+            int score = -quiesce(-beta, -alpha, ply + 1);
+            position.unmakeMove(move);
+
+            if (stopped) {
+                return 0;
+            }
+            if (score >= beta) {
+                return score;
+            }
+            alpha = Math.max(alpha, score);
+        }
+        return alpha;
+    }
+
+    private void scoreMoves(int[] list, int[] scores, int count, int ttMove, int ply) {
+        int killer1 = killers[ply][0];
+        int killer2 = killers[ply][1];
+        for (int i = 0; i < count; i++) {
+            int move = list[i];
+            int attacker = position.pieceAt(Moves.from(move));
+            if (move == ttMove) {
+                scores[i] = SCORE_TT_MOVE;
+            } else if (Moves.isCapture(move)) {
+                int victim = Moves.isEnPassant(move) ? Pieces.PAWN : Pieces.type(position.pieceAt(Moves.to(move)));
+                scores[i] = SCORE_CAPTURE + Evaluator.PIECE_VALUES[victim] * 8 - Pieces.type(attacker)
+                        + (Moves.isPromotion(move) ? Evaluator.PIECE_VALUES[Moves.promotion(move)] : 0);
+            } else if (Moves.isPromotion(move)) {
+                scores[i] = SCORE_CAPTURE + Evaluator.PIECE_VALUES[Moves.promotion(move)] - Evaluator.PIECE_VALUES[Pieces.PAWN];
+            } else if (move == killer1) {
+                scores[i] = SCORE_KILLER_1;
+            } else if (move == killer2) {
+                scores[i] = SCORE_KILLER_2;
+            } else {
+                scores[i] = history[attacker][Moves.to(move)];
+            }
+        }
+    }
+
+    private static int pickNext(int[] list, int[] scores, int start, int count) {
+        int best = start;
+        for (int i = start + 1; i < count; i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        int move = list[best];
+        list[best] = list[start];
+        list[start] = move;
+        int score = scores[best];
+        scores[best] = scores[start];
+        scores[start] = score;
+        return move;
+    }
+
+    private void updateQuietStats(int move, int piece, int depth, int ply) {
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        int[] row = history[piece];
+        int to = Moves.to(move);
+        row[to] += depth * depth;
+        if (row[to] > HISTORY_LIMIT) {
+            for (int[] table : history) {
+                for (int sq = 0; sq < 64; sq++) {
+                    table[sq] >>= 1;
+                }
+            }
+        }
+    }
+
+    private void checkTime() {
+        if (completedDepth > 0 && System.nanoTime() - startNanos >= hardNanos) {
+            stopped = true;
+        }
+    }
+
+    private long elapsedMs() {
+        return (System.nanoTime() - startNanos) / 1_000_000L;
+    }
+
+    private static long toNanos(long ms) {
+        return ms >= Long.MAX_VALUE / 1_000_000L ? Long.MAX_VALUE : ms * 1_000_000L;
+    }
+
+    private static int toTT(int score, int ply) {
+        if (score >= MATE - MAX_PLY) {
+            return score + ply;
+        }
+        if (score <= -MATE + MAX_PLY) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private static int fromTT(int score, int ply) {
+        if (score >= MATE - MAX_PLY) {
+            return score - ply;
+        }
+        if (score <= -MATE + MAX_PLY) {
+            return score + ply;
+        }
+        return score;
+    }
+}
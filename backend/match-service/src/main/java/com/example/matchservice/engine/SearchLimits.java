@@ -0,0 +1,54 @@
+package com.example.matchservice.engine;
+
+/**
+ * When to stop iterative deepening. No new iteration starts once the soft limit has
+ * passed; the hard limit aborts the iteration in progress.
+ */
+public final class SearchLimits {
+
+    private static final long UNLIMITED = Long.MAX_VALUE;
+
+    private final int maxDepth;
+    private final long softMs;
+    private final long hardMs;
+
+    private SearchLimits(int maxDepth, long softMs, long hardMs) {
+        this.maxDepth = Math.max(1, Math.min(maxDepth, Search.MAX_PLY - 1));
+        this.softMs = softMs;
+        this.hardMs = hardMs;
+    }
+
+    public static SearchLimits depth(int depth) {
+        return new SearchLimits(depth, UNLIMITED, UNLIMITED);
+    }
+
+    public static SearchLimits movetime(long ms) {
+        return new SearchLimits(Search.MAX_PLY, ms / 2, ms);
+    }
+
+    /**
+     * Budgets for a game clock, assuming about 30 moves remain and keeping a quarter of
+     * the remaining time out of reach of a single move.
+     */
+    public static SearchLimits clock(long remainingMs, long incrementMs) {
+        long budget = remainingMs / 30 + incrementMs * 3 / 4;
+        long hard = Math.max(10, Math.min(budget * 3, remainingMs / 4));
+        return new SearchLimits(Search.MAX_PLY, Math.min(budget, hard), hard);
+    }
+
+    public SearchLimits withMaxDepth(int depth) {
+        return new SearchLimits(depth, softMs, hardMs);
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public long getSoftMs() {
+        return softMs;
+    }
+
+    public long getHardMs() {
+        return hardMs;
+    }
+}
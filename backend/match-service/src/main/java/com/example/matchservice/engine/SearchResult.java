@@ -0,0 +1,70 @@
+package com.example.matchservice.engine;
+
+import com.example.matchservice.chess.Moves;
+
+public final class SearchResult {
+
+    private final int bestMove;
+    private final int score;
+    private final int depth;
+    private final long nodes;
+    private final long elapsedMs;
+    private final int threads;
+
+    public SearchResult(int bestMove, int score, int depth, long nodes, long elapsedMs) {
+        this(bestMove, score, depth, nodes, elapsedMs, 1);
+    }
+
+    public SearchResult(int bestMove, int score, int depth, long nodes, long elapsedMs, int threads) {
+        this.bestMove = bestMove;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.elapsedMs = elapsedMs;
+        this.threads = threads;
+    }
+
+    public int getBestMove() {
+        return bestMove;
+    }
+
+    public String getBestMoveUci() {
+        return bestMove == Moves.NONE ? null : Moves.toUci(bestMove);
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public boolean isMate() {
+        return Math.abs(score) >= Search.MATE - Search.MAX_PLY;
+    }
+
+    /**
+     * Moves until mate, positive when the side to move mates. Only meaningful if {@link #isMate()}.
+     */
+    public int getMateIn() {
+        int plies = Search.MATE - Math.abs(score);
+        return score > 0 ? (plies + 1) / 2 : -(plies / 2);
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getElapsedMs() {
+        return elapsedMs;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public long getNodesPerSecond() {
+        return elapsedMs == 0 ? nodes * 1000 : nodes * 1000 / elapsedMs;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.matchservice.engine;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * One read-only, memory-mapped table. The file is a 16-byte header (magic, piece count,
+ * position count) followed by 2-bit win/draw/loss values packed four to a byte and then
+ * one distance-to-mate byte per position, in plies. Values are from the side to move's
+ * point of view and both lookups are a single array access.
+ */
+public final class Tablebase {
+
+    public static final int ILLEGAL = 0;
+    public static final int DRAW = 1;
+    public static final int WIN = 2;
+    public static final int LOSS = 3;
+
+    static final long MAGIC = 0x494354424C303031L; // "ICTBL001"
+    static final int HEADER_BYTES = 16;
+
+    private final TablebaseMaterial material;
+    private final MappedByteBuffer buffer;
+    private final int dtmOffset;
+
+    private Tablebase(TablebaseMaterial material, MappedByteBuffer buffer) {
+        this.material = material;
+        this.buffer = buffer;
+        this.dtmOffset = HEADER_BYTES + material.positions() / 4;
+    }
+
+    public static Tablebase open(Path path, TablebaseMaterial material) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long expected = HEADER_BYTES + material.positions() / 4 + (long) material.positions();
+            if (channel.size() != expected) {
+                throw new IOException("Unexpected tablebase size for " + material + ": " + channel.size());
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.BIG_ENDIAN);
+            if (buffer.getLong(0) != MAGIC || buffer.getInt(8) != material.pieceCount()
+                    || buffer.getInt(12) != material.positions()) {
+                throw new IOException("Not a " + material + " tablebase: " + path);
+            }
+            return new Tablebase(material, buffer);
+        }
+    }
+
+    public TablebaseMaterial material() {
+        return material;
+    }
+
+    public int wdl(int index) {
+        return (buffer.get(HEADER_BYTES + (index >>> 2)) >>> ((index & 3) << 1)) & 3;
+    }
+
+    public int dtm(int index) {
+        return buffer.get(dtmOffset + index) & 0xFF;
+    }
+
+    static int index(int sideToMove, int[] squares, int count) {
+        int index = sideToMove;
+        for (int i = 0; i < count; i++) {
+            index = (index << 6) | squares[i];
+        }
+        return index;
+    }
+}
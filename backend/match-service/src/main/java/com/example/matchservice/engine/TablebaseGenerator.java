@@ -0,0 +1,426 @@
+package com.example.matchservice.engine;
+
+import com.example.matchservice.chess.Bitboards;
+import com.example.matchservice.chess.Pieces;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Retrograde generator for one {@link TablebaseMaterial}. Mates are seeded first, then
+ * each pass walks back one ply: white-to-move positions that reach a lost black position
+ * become wins, and black positions whose every move reaches a win become losses. Black
+ * captures always draw (the remaining material cannot mate), and KPK promotions are read
+ * from the KQK and KRK tables, so those have to be generated first. Each pass runs over
+ * the index range on a fork-join pool.
+ *
+ * <pre>
+ * java -cp match-service.jar com.example.matchservice.engine.TablebaseGenerator tablebases [KQK KRK KPK KBNK]
+ * </pre>
+ */
+public final class TablebaseGenerator {
+
+    private static final byte UNKNOWN = 4;
+    private static final int CHUNK = 1 << 15;
+
+    private final TablebaseMaterial material;
+    private final Tablebases subTables;
+    private final ForkJoinPool pool;
+    private final int pieces;
+    private final int half;
+    private final byte[] wdl;
+    private final byte[] dtm;
+    private final AtomicInteger longestExit = new AtomicInteger();
+
+    public TablebaseGenerator(TablebaseMaterial material, Tablebases subTables, ForkJoinPool pool) {
+        this.material = material;
+        this.subTables = subTables;
+        this.pool = pool;
+        this.pieces = material.pieceCount();
+        this.half = material.positions() / 2;
+        this.wdl = new byte[material.positions()];
+        this.dtm = new byte[material.positions()];
+        if (material == TablebaseMaterial.KPK
+                && (subTables.get(TablebaseMaterial.KQK) == null || subTables.get(TablebaseMaterial.KRK) == null)) {
+            throw new RuntimeException("KPK needs the KQK and KRK tables");
+        }
+    }
+
+    /**
+     * Fills the table and returns the longest win in plies.
+     */
+    public int generate() {
+        run(0, material.positions(), this::initialize);
+        int ply = 0;
+        while (true) {
+            int target = ++ply;
+            if (target > 255) {
+                throw new RuntimeException("Distance to mate does not fit in a byte");
+            }
+            long changed = (target & 1) == 1
+                    ? run(0, material.positions(), (from, to) -> markWins(from, to, target))
+                    : run(0, half, (from, to) -> markLosses(from, to, target));
+            if (changed == 0 && target >= longestExit.get()) {
+                break;
+            }
+        }
+        run(0, material.positions(), (from, to) -> {
+            for (int i = from; i < to; i++) {
+                if (wdl[i] == UNKNOWN) {
+                    wdl[i] = Tablebase.DRAW;
+                    dtm[i] = 0;
+                }
+            }
+            return 0;
+        });
+        return ply - 1;
+    }
+
+    /**
+     * Writes the table next to {@code path} and moves it into place, so a table that a
+     * running server has mapped is never modified.
+     */
+    public void write(Path path) throws IOException {
+        Path temp = Files.createTempFile(path.toAbsolutePath().getParent(), material.name(), ".tmp");
+        try (OutputStream file = Files.newOutputStream(temp);
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+            out.writeLong(Tablebase.MAGIC);
+            out.writeInt(pieces);
+            out.writeInt(material.positions());
+            for (int i = 0; i < wdl.length; i += 4) {
+                out.writeByte(wdl[i] | wdl[i + 1] << 2 | wdl[i + 2] << 4 | wdl[i + 3] << 6);
+            }
+            out.write(dtm);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Classifies every index and records the longest promotion exit, in plies.
+    private long initialize(int from, int to) {
+        int[] squares = new int[pieces];
+        int longest = 0;
+        for (int index = from; index < to; index++) {
+            int sideToMove = decode(index, squares);
+            long occupied = occupancy(squares);
+            if (!isValid(squares, occupied)) {
+                wdl[index] = Tablebase.ILLEGAL;
+                continue;
+            }
+            boolean blackInCheck = whiteAttacks(squares[1], squares, occupied, -1);
+            if (sideToMove == Pieces.WHITE) {
+                if (blackInCheck) {
+                    wdl[index] = Tablebase.ILLEGAL;
+                } else if (!whiteHasMove(squares, occupied)) {
+                    wdl[index] = Tablebase.DRAW;
+                } else {
+                    int exit = promotionExit(squares, occupied);
+                    wdl[index] = UNKNOWN;
+                    dtm[index] = (byte) exit;
+                    longest = Math.max(longest, exit);
+                }
+            } else {
+                int moves = 0;
+                boolean capture = false;
+                long targets = Bitboards.kingAttacks(squares[1]) & ~(1L << squares[0]);
+                while (targets != 0) {
+                    int target = Long.numberOfTrailingZeros(targets);
+                    targets &= targets - 1;
+                    if (!isAttackedAfterKingMove(target, squares, occupied)) {
+                        moves++;
+                        capture |= (occupied & (1L << target)) != 0;
+                    }
+                }
+                if (capture) {
+                    wdl[index] = Tablebase.DRAW;
+                } else if (moves == 0) {
+                    wdl[index] = (byte) (blackInCheck ? Tablebase.LOSS : Tablebase.DRAW);
+                } else {
+                    wdl[index] = UNKNOWN;
+                }
+            }
+        }
+        longestExit.accumulateAndGet(longest, Math::max);
+        return 0;
+    }
+
+    // Odd plies: white-to-move predecessors of black losses at ply - 1 win at ply.
+    private long markWins(int from, int to, int ply) {
+        int[] squares = new int[pieces];
+        long changed = 0;
+        for (int index = from; index < to; index++) {
+            if (index < half) {
+                if (wdl[index] == UNKNOWN && (dtm[index] & 0xFF) == ply) {
+                    dtm[index] = (byte) ply;
+                    wdl[index] = Tablebase.WIN;
+                    changed++;
+                }
+                continue;
+            }
+            if (wdl[index] != Tablebase.LOSS || (dtm[index] & 0xFF) != ply - 1) {
+                continue;
+            }
+            decode(index, squares);
+            long occupied = occupancy(squares);
+            for (int piece = 0; piece < pieces; piece++) {
+                if (piece == 1) {
+                    continue;
+                }
+                int square = squares[piece];
+                long origins = unmoveOrigins(piece, square, occupied);
+                while (origins != 0) {
+                    squares[piece] = Long.numberOfTrailingZeros(origins);
+                    origins &= origins - 1;
+                    int predecessor = Tablebase.index(Pieces.WHITE, squares, pieces);
+                    if (wdl[predecessor] == UNKNOWN) {
+                        dtm[predecessor] = (byte) ply;
+                        wdl[predecessor] = Tablebase.WIN;
+                        changed++;
+                    }
+                }
+                squares[piece] = square;
+            }
+        }
+        return changed;
+    }
+
+    // Even plies: black-to-move predecessors of white wins at ply - 1 lose at ply when
+    // every black move reaches a white win.
+    private long markLosses(int from, int to, int ply) {
+        int[] squares = new int[pieces];
+        long changed = 0;
+        for (int index = from; index < to; index++) {
+            if (wdl[index] != Tablebase.WIN || (dtm[index] & 0xFF) != ply - 1) {
+                continue;
+            }
+            decode(index, squares);
+            long occupied = occupancy(squares);
+            int king = squares[1];
+            long origins = Bitboards.kingAttacks(king) & ~occupied;
+            while (origins != 0) {
+                squares[1] = Long.numberOfTrailingZeros(origins);
+                origins &= origins - 1;
+                int predecessor = Tablebase.index(Pieces.BLACK, squares, pieces);
+                if (wdl[predecessor] == UNKNOWN && everyBlackMoveLoses(squares)) {
+                    dtm[predecessor] = (byte) ply;
+                    wdl[predecessor] = Tablebase.LOSS;
+                    changed++;
+                }
+            }
+            squares[1] = king;
+        }
+        return changed;
+    }
+
+    private boolean everyBlackMoveLoses(int[] squares) {
+        long occupied = occupancy(squares);
+        int king = squares[1];
+        long targets = Bitboards.kingAttacks(king) & ~occupied;
+        boolean loses = true;
+        while (targets != 0 && loses) {
+            int target = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            if (isAttackedAfterKingMove(target, squares, occupied)) {
+                continue;
+            }
+            squares[1] = target;
+            loses = wdl[Tablebase.index(Pieces.WHITE, squares, pieces)] == Tablebase.WIN;
+            squares[1] = king;
+        }
+        return loses;
+    }
+
+    private long unmoveOrigins(int piece, int square, long occupied) {
+        if (piece == 0) {
+            return Bitboards.kingAttacks(square) & ~occupied;
+        }
+        int type = material.extraType(piece - 2);
+        if (type != Pieces.PAWN) {
+            return attacks(type, square, occupied) & ~occupied;
+        }
+        long origins = 0;
+        int single = square - 8;
+        if (single >= 8 && (occupied & (1L << single)) == 0) {
+            origins |= 1L << single;
+            if ((square >>> 3) == 3 && (occupied & (1L << (square - 16))) == 0) {
+                origins |= 1L << (square - 16);
+            }
+        }
+        return origins;
+    }
+
+    // Fastest mate reachable by promoting, from the KQK and KRK tables; 0 if none.
+    private int promotionExit(int[] squares, long occupied) {
+        if (material != TablebaseMaterial.KPK) {
+            return 0;
+        }
+        int pawn = squares[2];
+        int target = pawn + 8;
+        if ((pawn >>> 3) != 6 || (occupied & (1L << target)) != 0) {
+            return 0;
+        }
+        int best = 0;
+        int[] promoted = { squares[0], squares[1], target };
+        for (TablebaseMaterial table : new TablebaseMaterial[] { TablebaseMaterial.KQK, TablebaseMaterial.KRK }) {
+            Tablebase tablebase = subTables.get(table);
+            int index = Tablebase.index(Pieces.BLACK, promoted, 3);
+            if (tablebase.wdl(index) == Tablebase.LOSS) {
+                int plies = tablebase.dtm(index) + 1;
+                best = best == 0 ? plies : Math.min(best, plies);
+            }
+        }
+        return best;
+    }
+
+    private boolean whiteHasMove(int[] squares, long occupied) {
+        long kingMoves = Bitboards.kingAttacks(squares[0]) & ~occupied & ~Bitboards.kingAttacks(squares[1]);
+        if (kingMoves != 0) {
+            return true;
+        }
+        for (int piece = 2; piece < pieces; piece++) {
+            int type = material.extraType(piece - 2);
+            int square = squares[piece];
+            long moves = type == Pieces.PAWN
+                    ? (1L << (square + 8)) & ~occupied
+                    : attacks(type, square, occupied) & ~occupied;
+            if (moves != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isAttackedAfterKingMove(int target, int[] squares, long occupied) {
+        int captured = -1;
+        for (int piece = 2; piece < pieces; piece++) {
+            if (squares[piece] == target) {
+                captured = piece;
+            }
+        }
+        long after = (occupied & ~(1L << squares[1])) | (1L << target);
+        return whiteAttacks(target, squares, after, captured);
+    }
+
+    private boolean whiteAttacks(int target, int[] squares, long occupied, int skip) {
+        long bit = 1L << target;
+        if ((Bitboards.kingAttacks(squares[0]) & bit) != 0) {
+            return true;
+        }
+        for (int piece = 2; piece < pieces; piece++) {
+            if (piece != skip && (attacks(material.extraType(piece - 2), squares[piece], occupied) & bit) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long attacks(int type, int square, long occupied) {
+        return switch (type) {
+            case Pieces.PAWN -> Bitboards.pawnAttacks(Pieces.WHITE, square);
+            case Pieces.KNIGHT -> Bitboards.knightAttacks(square);
+            case Pieces.BISHOP -> Bitboards.bishopAttacks(square, occupied);
+            case Pieces.ROOK -> Bitboards.rookAttacks(square, occupied);
+            default -> Bitboards.queenAttacks(square, occupied);
+        };
+    }
+
+    private boolean isValid(int[] squares, long occupied) {
+        if (Long.bitCount(occupied) != pieces || (Bitboards.kingAttacks(squares[0]) & (1L << squares[1])) != 0) {
+            return false;
+        }
+        for (int piece = 2; piece < pieces; piece++) {
+            int rank = squares[piece] >>> 3;
+            if (material.extraType(piece - 2) == Pieces.PAWN && (rank == 0 || rank == 7)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long occupancy(int[] squares) {
+        long occupied = 0;
+        for (int square : squares) {
+            occupied |= 1L << square;
+        }
+        return occupied;
+    }
+
+    private int decode(int index, int[] squares) {
+        for (int i = pieces - 1; i >= 0; i--) {
+            squares[i] = index & 63;
+            index >>>= 6;
+        }
+        return index;
+    }
+
+    private long run(int from, int to, RangeBody body) {
+        return pool.invoke(new RangeTask(from, to, body));
+    }
+
+    @FunctionalInterface
+    private interface RangeBody {
+        long apply(int from, int to);
+    }
+
+    private static final class RangeTask extends RecursiveTask<Long> {
+        private final int from;
+        private final int to;
+        private final RangeBody body;
+
+        RangeTask(int from, int to, RangeBody body) {
+            this.from = from;
+            this.to = to;
+            this.body = body;
+        }
+
+        @Override
+        protected Long compute() {
+            if (to - from <= CHUNK) {
+                return body.apply(from, to);
+            }
+            int middle = (from + to) >>> 1;
+            RangeTask left = new RangeTask(from, middle, body);
+            left.fork();
+            long right = new RangeTask(middle, to, body).compute();
+            return right + left.join();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: TablebaseGenerator <directory> [KQK KRK KPK KBNK]");
+            System.exit(1);
+        }
+        Path directory = Path.of(args[0]);
+        Files.createDirectories(directory);
+        List<TablebaseMaterial> materials = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            materials.add(TablebaseMaterial.valueOf(args[i].toUpperCase()));
+        }
+        if (materials.isEmpty()) {
+            materials.addAll(List.of(TablebaseMaterial.values()));
+        }
+
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        for (TablebaseMaterial material : TablebaseMaterial.values()) {
+            if (!materials.contains(material)) {
+                continue;
+            }
+            long start = System.nanoTime();
+            TablebaseGenerator generator = new TablebaseGenerator(material, Tablebases.open(directory), pool);
+            int longest = generator.generate();
+            generator.write(directory.resolve(material.fileName()));
+            System.out.printf("%s: longest mate %d plies, %d ms%n", material, longest,
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.matchservice.engine;
+
+import com.example.matchservice.chess.Pieces;
+import com.example.matchservice.chess.Position;
+
+/**
+ * Material sets covered by the tablebases. The stronger side is always stored as white
+ * and a table indexes side to move, both kings and then the extra pieces in the order
+ * given here, 6 bits per square.
+ */
+public enum TablebaseMaterial {
+    KQK(Pieces.QUEEN),
+    KRK(Pieces.ROOK),
+    KPK(Pieces.PAWN),
+    KBNK(Pieces.BISHOP, Pieces.KNIGHT);
+
+    private final int[] types;
+
+    TablebaseMaterial(int... types) {
+        this.types = types;
+    }
+
+    public int pieceCount() {
+        return types.length + 2;
+    }
+
+    public int positions() {
+        return 2 << (6 * pieceCount());
+    }
+
+    public String fileName() {
+        return name() + ".tb";
+    }
+
+    int extraType(int index) {
+        return types[index];
+    }
+
+    /**
+     * Returns the table for the given side's pieces when the other side has a bare king,
+     * or null.
+     */
+    static TablebaseMaterial of(Position position, int strong) {
+        int weak = strong ^ 1;
+        if (Long.bitCount(position.colorPieces(weak)) != 1) {
+            return null;
+        }
+        int extras = Long.bitCount(position.colorPieces(strong)) - 1;
+        for (TablebaseMaterial material : values()) {
+            if (material.types.length != extras) {
+                continue;
+            }
+            boolean matches = true;
+            for (int type : material.types) {
+                if (Long.bitCount(position.pieces(strong, type)) != 1) {
+                    matches = false;
+                    break;
+                }
+            }
+            if (matches) {
+                return material;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.matchservice.engine;
+
+import com.example.matchservice.chess.MoveGenerator;
+import com.example.matchservice.chess.Moves;
+import com.example.matchservice.chess.Pieces;
+import com.example.matchservice.chess.Position;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The loaded tables, probed by position. Positions where black has the extra material
+ * are mirrored top to bottom with colours swapped, so one table serves both sides.
+ */
+public final class Tablebases {
+
+    private final Map<TablebaseMaterial, Tablebase> tables = new EnumMap<>(TablebaseMaterial.class);
+
+    /**
+     * Opens every table found in {@code directory}; missing files are skipped.
+     */
+    public static Tablebases open(Path directory) throws IOException {
+        Tablebases tablebases = new Tablebases();
+        for (TablebaseMaterial material : TablebaseMaterial.values()) {
+            Path path = directory.resolve(material.fileName());
+            if (Files.exists(path)) {
+                tablebases.add(Tablebase.open(path, material));
+            }
+        }
+        return tablebases;
+    }
+
+    public void add(Tablebase table) {
+        tables.put(table.material(), table);
+    }
+
+    public Tablebase get(TablebaseMaterial material) {
+        return tables.get(material);
+    }
+
+    public Set<TablebaseMaterial> materials() {
+        return tables.keySet();
+    }
+
+    public boolean isEmpty() {
+        return tables.isEmpty();
+    }
+
+    /**
+     * Returns the value of the position for the side to move, or null when no loaded
+     * table covers it. Positions with castling rights are never covered.
+     */
+    public Result probe(Position position) {
+        if (tables.isEmpty() || position.castlingRights() != 0) {
+            return null;
+        }
+        int strong = Long.bitCount(position.colorPieces(Pieces.WHITE)) > 1 ? Pieces.WHITE : Pieces.BLACK;
+        TablebaseMaterial material = TablebaseMaterial.of(position, strong);
+        Tablebase table = material == null ? null : tables.get(material);
+        if (table == null) {
+            return null;
+        }
+
+        int flip = strong == Pieces.WHITE ? 0 : 56;
+        int count = material.pieceCount();
+        int[] squares = new int[count];
+        squares[0] = position.kingSquare(strong) ^ flip;
+        squares[1] = position.kingSquare(strong ^ 1) ^ flip;
+        for (int i = 2; i < count; i++) {
+            squares[i] = Long.numberOfTrailingZeros(position.pieces(strong, material.extraType(i - 2))) ^ flip;
+        }
+        int sideToMove = position.sideToMove() ^ strong;
+        int index = Tablebase.index(sideToMove, squares, count);
+
+        int wdl = table.wdl(index);
+        return wdl == Tablebase.ILLEGAL ? null : new Result(material, wdl, table.dtm(index));
+    }
+
+    /**
+     * Returns the move that wins fastest, holds the draw or loses slowest, or
+     * {@link Moves#NONE} when the position is not covered. Moves that leave the tables
+     * (captures down to bare kings, minor-piece promotions) count as draws.
+     */
+    public int bestMove(Position position, int[] buffer) {
+        if (probe(position) == null) {
+            return Moves.NONE;
+        }
+        int count = MoveGenerator.generateLegal(position, buffer);
+        int best = Moves.NONE;
+        int bestScore = Integer.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            int move = buffer[i];
+            position.makeMove(move);
+            Result child = probe(position);
+            position.unmakeMove(move);
+
+            int score = 0;
+            if (child != null && child.getWdl() == Tablebase.LOSS) {
+                score = 1000 - child.getDtm();
+            } else if (child != null && child.getWdl() == Tablebase.WIN) {
+                score = -1000 + child.getDtm();
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                best = move;
+            }
+        }
+        return best;
+    }
+
+    public static final class Result {
+        private final TablebaseMaterial material;
+        private final int wdl;
+        private final int dtm;
+
+        Result(TablebaseMaterial material, int wdl, int dtm) {
+            this.material = material;
+            this.wdl = wdl;
+            this.dtm = dtm;
+        }
+
+        public TablebaseMaterial getMaterial() {
+            return material;
+        }
+
+        public int getWdl() {
+            return wdl;
+        }
+
+        /** Plies to mate, 0 for a draw. */
+        public int getDtm() {
+            return wdl == Tablebase.DRAW ? 0 : dtm;
+        }
+
+        public String getOutcome() {
+            return switch (wdl) {
+                case Tablebase.WIN -> "WIN";
+                case Tablebase.LOSS -> "LOSS";
+                default -> "DRAW";
+            };
+        }
+    }
+}
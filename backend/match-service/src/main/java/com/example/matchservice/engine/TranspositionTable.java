@@ -0,0 +1,105 @@
+package com.example.matchservice.engine;
+
+import com.example.matchservice.chess.Moves;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size hash table of search results, safe to share between search threads without
+ * locks. Each slot is two longs: the packed entry and the Zobrist key XOR-ed with it. A
+ * slot torn by a concurrent write no longer XORs back to the probed key and reads as a
+ * miss.
+ *
+ * <p>Entry layout: move (bits 0-18), score (19-34, signed), depth (35-42), bound (43-44),
+ * search age (45-50).
+ */
+public final class TranspositionTable {
+
+    public static final int BOUND_UPPER = 1;
+    public static final int BOUND_LOWER = 2;
+    public static final int BOUND_EXACT = 3;
+
+    private static final int SCORE_SHIFT = 19;
+    private static final int DEPTH_SHIFT = 35;
+    private static final int BOUND_SHIFT = 43;
+    private static final int AGE_SHIFT = 45;
+    private static final long MOVE_MASK = (1L << SCORE_SHIFT) - 1;
+
+    private final long[] keys;
+    private final long[] entries;
+    private final int mask;
+    private int age;
+
+    public TranspositionTable(int sizeMb) {
+        long slots = Long.highestOneBit(Math.max(1L, (long) sizeMb << 20) / 16);
+        int size = (int) Math.min(slots, 1 << 30);
+        this.keys = new long[size];
+        this.entries = new long[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Returns the entry stored for the key, or 0 when there is none.
+     */
+    public long probe(long key) {
+        int index = (int) key & mask;
+        long entry = entries[index];
+        return (keys[index] ^ entry) == key ? entry : 0L;
+    }
+
+    public void store(long key, int move, int score, int depth, int bound) {
+        int index = (int) key & mask;
+        long existing = entries[index];
+        boolean sameKey = (keys[index] ^ existing) == key;
+        if (existing != 0 && age(existing) == age && depth < depth(existing) - (sameKey ? 2 : 0)
+                && bound != BOUND_EXACT) {
+            return;
+        }
+        if (move == Moves.NONE && sameKey) {
+            move = move(existing);
+        }
+        long entry = (move & MOVE_MASK)
+                | ((long) (score & 0xFFFF) << SCORE_SHIFT)
+                | ((long) Math.max(0, Math.min(depth, 0xFF)) << DEPTH_SHIFT)
+                | ((long) bound << BOUND_SHIFT)
+                | ((long) age << AGE_SHIFT);
+        keys[index] = key ^ entry;
+        entries[index] = entry;
+    }
+
+    /**
+     * Marks the start of a new search, so entries from earlier ones are replaced first.
+     */
+    public void newSearch() {
+        age = (age + 1) & 0x3F;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        Arrays.fill(entries, 0L);
+    }
+
+    public int capacity() {
+        return keys.length;
+    }
+
+    public static int move(long entry) {
+        return (int) (entry & MOVE_MASK);
+    }
+
+    public static int score(long entry) {
+        return (short) (entry >>> SCORE_SHIFT);
+    }
+
+    public static int depth(long entry) {
+        return (int) (entry >>> DEPTH_SHIFT) & 0xFF;
+    }
+
+    public static int bound(long entry) {
+        return (int) (entry >>> BOUND_SHIFT) & 0x3;
+    }
+
+    private static int age(long entry) {
+        return (int) (entry >>> AGE_SHIFT) & 0x3F;
+    }
+}
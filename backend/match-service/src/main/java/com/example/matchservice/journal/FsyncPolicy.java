@@ -0,0 +1,14 @@
+package com.example.matchservice.journal;
+
+/**
+ * When appended journal records are forced to disk. Every policy survives a process crash,
+ * since the mapped pages belong to the OS; they differ in what a power loss can take.
+ */
+public enum FsyncPolicy {
+    /** Force each record before the append returns. Durable, but costs a disk flush per move. */
+    ALWAYS,
+    /** Group commit: a background thread forces everything appended since its last pass. */
+    INTERVAL,
+    /** Leave write-back to the OS. */
+    NONE
+}
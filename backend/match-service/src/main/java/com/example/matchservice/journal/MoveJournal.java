@@ -0,0 +1,551 @@
+package com.example.matchservice.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal of the games this instance is running, kept in memory-mapped segment
+ * files so a restart can rebuild them. An append is a copy into the mapping plus a checksum
+ * under one lock; when the bytes reach the disk is up to the {@link FsyncPolicy}.
+ *
+ * <p>Segment layout (big-endian): a 16-byte header of magic and segment number, then records
+ * of a 4-byte header (type in the top byte, payload length below), the payload and a CRC32C
+ * of header and payload. A zero header marks the end of the written part, and replay stops at
+ * the first record whose checksum does not match, which is where a torn write would be.
+ *
+ * <p>Records: START (match id, both usernames), MOVE (match id, ply, packed move and both
+ * clock times left after it, {@link #NO_CLOCK} when untimed; older MOVE records stop after
+ * the move), END (match id, winner, game status, match status) and PERSISTED (match id) once
+ * the result is in the database. A segment is deleted as soon as no unpersisted game has records in it.
+ * When a segment fills, games that started before the one just sealed are copied forward as
+ * START plus their moves, so a long game never keeps more than two old segments alive.
+ */
+public final class MoveJournal implements Closeable {
+
+    static final long MAGIC = 0x49434A524E4C3031L; // "ICJRNL01"
+    static final int HEADER_BYTES = 16;
+    static final String SUFFIX = ".journal";
+
+    static final int START = 1;
+    static final int MOVE = 2;
+    static final int END = 3;
+    static final int PERSISTED = 4;
+
+    public static final int NO_WINNER = 0;
+    public static final int WHITE = 1;
+    public static final int BLACK = 2;
+    public static final long NO_CLOCK = -1;
+
+    private static final int MAX_RECORD_BYTES = 1024;
+    private static final int MIN_SEGMENT_BYTES = 64 * 1024;
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final FsyncPolicy policy;
+    private final Map<Long, Game> games = new LinkedHashMap<>();
+    private final TreeMap<Long, Path> sealed = new TreeMap<>();
+    private final ByteBuffer record = ByteBuffer.allocate(MAX_RECORD_BYTES);
+    private final byte[] replayBytes = new byte[MAX_RECORD_BYTES];
+    private final CRC32C crc = new CRC32C();
+    private Thread syncer;
+
+    private long segment;
+    private Path segmentPath;
+    private MappedByteBuffer buffer;
+    private int position;
+    private int forced;
+    private boolean rolled;
+    private boolean checkpointing;
+    private volatile boolean closed;
+
+    private MoveJournal(Path directory, int segmentBytes, FsyncPolicy policy) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.policy = policy;
+    }
+
+    /**
+     * Replays every segment in {@code directory}, then starts a fresh segment for new
+     * records. {@code syncIntervalMs} is only used by {@link FsyncPolicy#INTERVAL}.
+     */
+    public static MoveJournal open(Path directory, int segmentBytes, FsyncPolicy policy, long syncIntervalMs)
+            throws IOException {
+        if (segmentBytes < MIN_SEGMENT_BYTES) {
+            throw new IllegalArgumentException("Journal segments must be at least " + MIN_SEGMENT_BYTES + " bytes");
+        }
+        Files.createDirectories(directory);
+        MoveJournal journal = new MoveJournal(directory, segmentBytes, policy);
+        synchronized (journal) {
+            journal.replay();
+            journal.openSegment(journal.segment + 1);
+            journal.checkpoint();
+        }
+        if (policy == FsyncPolicy.INTERVAL) {
+            journal.syncer = new Thread(() -> journal.syncLoop(syncIntervalMs), "journal-sync");
+            journal.syncer.setDaemon(true);
+            journal.syncer.start();
+        }
+        return journal;
+    }
+
+    /**
+     * Games that were started and not yet marked persisted, finished or not, in the order
+     * they were started. Returned as copies.
+     */
+    public synchronized List<Game> games() {
+        List<Game> copies = new ArrayList<>(games.size());
+        for (Game game : games.values()) {
+            copies.add(game.copy());
+        }
+        return copies;
+    }
+
+    public synchronized int segmentCount() {
+        return sealed.size() + 1;
+    }
+
+    /**
+     * Records a game entering memory with the moves it already has (none for a new game).
+     * A START for a game the journal already holds replaces it.
+     */
+    public synchronized void appendStart(long matchId, String player1, String player2, int[] moves) {
+        if (closed) {
+            return;
+        }
+        Game game = new Game(matchId, player1, player2, segment);
+        for (int i = 0; i < moves.length; i++) {
+            game.add(i + 1, moves[i], NO_CLOCK, NO_CLOCK);
+        }
+        games.put(matchId, game);
+        writeGame(game);
+    }
+
+    /**
+     * Records a move of a started game and the clock times left after it; {@code ply}
+     * counts from 1. Moves of games that were never started here are ignored.
+     */
+    public synchronized void appendMove(long matchId, int ply, int move, long whiteMs, long blackMs) {
+        Game game = games.get(matchId);
+        if (closed || game == null) {
+            return;
+        }
+        writeMove(matchId, ply, move, whiteMs, blackMs);
+        game.add(ply, move, whiteMs, blackMs);
+    }
+
+    public synchronized void appendEnd(long matchId, int winner, String status, String result) {
+        Game game = games.get(matchId);
+        if (closed || game == null) {
+            return;
+        }
+        writeEnd(matchId, winner, status, result);
+        game.end(winner, status, result);
+    }
+
+    /**
+     * Marks a finished game as safely in the database. It is dropped from the journal and any
+     * segment it was the last reason to keep is deleted.
+     */
+    public synchronized void appendPersisted(long matchId) {
+        if (closed || games.remove(matchId) == null) {
+            return;
+        }
+        begin(PERSISTED, matchId);
+        commit();
+        compact();
+    }
+
+    /**
+     * Forces everything appended since the last sync to disk.
+     */
+    public void sync() {
+        MappedByteBuffer target;
+        int from;
+        int to;
+        synchronized (this) {
+            if (closed || forced == position) {
+                return;
+            }
+            target = buffer;
+            from = forced;
+            to = position;
+        }
+        target.force(from, to - from);
+        synchronized (this) {
+            if (target == buffer) {
+                forced = Math.max(forced, to);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            if (policy != FsyncPolicy.NONE) {
+                buffer.force();
+            }
+            closed = true;
+        }
+        if (syncer != null) {
+            syncer.interrupt();
+        }
+    }
+
+    private void writeGame(Game game) {
+        writeStart(game.matchId, game.player1, game.player2);
+        game.firstSegment = segment;
+        for (int i = 0; i < game.ply; i++) {
+            boolean last = i == game.ply - 1;
+            writeMove(game.matchId, i + 1, game.moves[i], last ? game.whiteMs : NO_CLOCK,
+                    last ? game.blackMs : NO_CLOCK);
+        }
+        if (game.status != null) {
+            writeEnd(game.matchId, game.winner, game.status, game.result);
+        }
+    }
+
+    private void writeStart(long matchId, String player1, String player2) {
+        begin(START, matchId);
+        putString(player1);
+        putString(player2);
+        commit();
+    }
+
+    private void writeMove(long matchId, int ply, int move, long whiteMs, long blackMs) {
+        begin(MOVE, matchId);
+        record.putInt(ply);
+        record.putInt(move);
+        record.putLong(whiteMs);
+        record.putLong(blackMs);
+        commit();
+    }
+
+    private void writeEnd(long matchId, int winner, String status, String result) {
+        begin(END, matchId);
+        record.put((byte) winner);
+        putString(status);
+        putString(result);
+        commit();
+    }
+
+    private void begin(int type, long matchId) {
+        record.clear();
+        record.putInt(type << 24);
+        record.putLong(matchId);
+    }
+
+    private void putString(String value) {
+        byte[] bytes = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_RECORD_BYTES / 4) {
+            throw new IllegalArgumentException("Journal string too long: " + value);
+        }
+        record.putShort((short) bytes.length);
+        record.put(bytes);
+    }
+
+    private void commit() {
+        int length = record.position();
+        record.putInt(0, record.getInt(0) | (length - 4));
+        crc.reset();
+        crc.update(record.array(), 0, length);
+        record.putInt((int) crc.getValue());
+        length += 4;
+
+        if (position + length > segmentBytes) {
+            roll();
+        }
+        int start = position;
+        buffer.put(start, record.array(), 0, length);
+        position += length;
+        if (policy == FsyncPolicy.ALWAYS) {
+            buffer.force(forced, position - forced);
+            forced = position;
+        }
+
+        if (rolled && !checkpointing) {
+            rolled = false;
+            checkpoint();
+        }
+    }
+
+    private void roll() {
+        if (policy != FsyncPolicy.NONE) {
+            buffer.force();
+        }
+        sealed.put(segment, segmentPath);
+        try {
+            openSegment(segment + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start journal segment " + (segment + 1), e);
+        }
+        rolled = true;
+    }
+
+    private void openSegment(long number) throws IOException {
+        Path path = segmentPath(number);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        }
+        buffer.putLong(0, MAGIC);
+        buffer.putLong(8, number);
+        segment = number;
+        segmentPath = path;
+        position = HEADER_BYTES;
+        forced = 0;
+        if (policy != FsyncPolicy.NONE) {
+            buffer.force(0, HEADER_BYTES);
+            forced = HEADER_BYTES;
+        }
+    }
+
+    /**
+     * Copies games that started before the previous segment into the current one, then
+     * deletes the segments nothing needs any more.
+     */
+    private void checkpoint() {
+        checkpointing = true;
+        try {
+            for (Game game : games.values()) {
+                if (game.firstSegment >= segment - 1) {
+                    continue;
+                }
+                writeGame(game);
+            }
+        } finally {
+            checkpointing = false;
+            rolled = false;
+        }
+        compact();
+    }
+
+    private void compact() {
+        long oldestNeeded = segment;
+        for (Game game : games.values()) {
+            oldestNeeded = Math.min(oldestNeeded, game.firstSegment);
+        }
+        Iterator<Path> obsolete = sealed.headMap(oldestNeeded).values().iterator();
+        while (obsolete.hasNext()) {
+            Path path = obsolete.next();
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                System.err.println("Failed to delete journal segment " + path + ": " + e.getMessage());
+            }
+            obsolete.remove();
+        }
+    }
+
+    private void replay() throws IOException {
+        List<Long> numbers = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    numbers.add(Long.parseLong(name.substring(0, name.length() - SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    System.err.println("Ignoring unexpected file in journal directory: " + file);
+                }
+            }
+        }
+        Collections.sort(numbers);
+        for (long number : numbers) {
+            Path path = segmentPath(number);
+            replaySegment(number, path);
+            sealed.put(number, path);
+            segment = number;
+        }
+    }
+
+    private void replaySegment(long number, Path path) throws IOException {
+        ByteBuffer data;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (data.limit() < HEADER_BYTES || data.getLong(0) != MAGIC || data.getLong(8) != number) {
+            System.err.println("⚠️ Skipping unreadable journal segment " + path);
+            return;
+        }
+        int offset = HEADER_BYTES;
+        while (offset + 4 <= data.limit()) {
+            int header = data.getInt(offset);
+            if (header == 0) {
+                return;
+            }
+            int length = 4 + (header & 0xFFFFFF);
+            boolean intact = length + 4 <= MAX_RECORD_BYTES && offset + length + 4 <= data.limit();
+            if (intact) {
+                data.get(offset, replayBytes, 0, length);
+                crc.reset();
+                crc.update(replayBytes, 0, length);
+                intact = (int) crc.getValue() == data.getInt(offset + length);
+            }
+            if (!intact) {
+                System.err.println("⚠️ Journal segment " + path + " ends in a damaged record at offset " + offset);
+                return;
+            }
+            apply(header >>> 24, ByteBuffer.wrap(replayBytes, 4, length - 4), number);
+            offset += length + 4;
+        }
+    }
+
+    private void apply(int type, ByteBuffer in, long number) {
+        long matchId = in.getLong();
+        Game game = games.get(matchId);
+        switch (type) {
+            case START -> games.put(matchId, new Game(matchId, getString(in), getString(in), number));
+            case MOVE -> {
+                if (game != null) {
+                    int ply = in.getInt();
+                    int move = in.getInt();
+                    boolean timed = in.remaining() >= 16;
+                    game.add(ply, move, timed ? in.getLong() : NO_CLOCK, timed ? in.getLong() : NO_CLOCK);
+                }
+            }
+            case END -> {
+                if (game != null) {
+                    game.end(in.get(), getString(in), getString(in));
+                }
+            }
+            case PERSISTED -> games.remove(matchId);
+            default -> System.err.println("Unknown journal record type " + type);
+        }
+    }
+
+    private static String getString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getShort()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private Path segmentPath(long number) {
+        return directory.resolve(String.format("%016d%s", number, SUFFIX));
+    }
+
+    private void syncLoop(long intervalMs) {
+        while (!closed) {
+            try {
+                Thread.sleep(intervalMs);
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                sync();
+            } catch (RuntimeException e) {
+                System.err.println("❌ Journal sync failed: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * A game as recorded in the journal: its players, the moves from the start position, the
+     * clock times left after the last of them and, once it ended, its result.
+     */
+    public static final class Game {
+        private final long matchId;
+        private final String player1;
+        private final String player2;
+        private int[] moves = new int[64];
+        private int ply;
+        private long whiteMs = NO_CLOCK;
+        private long blackMs = NO_CLOCK;
+        private int winner;
+        private String status;
+        private String result;
+        private long firstSegment;
+
+        Game(long matchId, String player1, String player2, long firstSegment) {
+            this.matchId = matchId;
+            this.player1 = player1;
+            this.player2 = player2;
+            this.firstSegment = firstSegment;
+        }
+
+        void add(int ply, int move, long whiteMs, long blackMs) {
+            if (ply != this.ply + 1) {
+                return;
+            }
+            if (this.ply == moves.length) {
+                moves = Arrays.copyOf(moves, this.ply * 2);
+            }
+            moves[this.ply++] = move;
+            this.whiteMs = whiteMs;
+            this.blackMs = blackMs;
+        }
+
+        void end(int winner, String status, String result) {
+            this.winner = winner;
+            this.status = status;
+            this.result = result;
+        }
+
+        Game copy() {
+            Game copy = new Game(matchId, player1, player2, firstSegment);
+            copy.moves = Arrays.copyOf(moves, Math.max(ply, 1));
+            copy.ply = ply;
+            copy.whiteMs = whiteMs;
+            copy.blackMs = blackMs;
+            copy.end(winner, status, result);
+            return copy;
+        }
+
+        public long getMatchId() {
+            return matchId;
+        }
+
+        public String getPlayer1() {
+            return player1;
+        }
+
+        public String getPlayer2() {
+            return player2;
+        }
+
+        public int[] getMoves() {
+            return Arrays.copyOf(moves, ply);
+        }
+
+        public int getPly() {
+            return ply;
+        }
+
+        /** White's clock time left after the last move, or {@link #NO_CLOCK}. */
+        public long getWhiteMs() {
+            return whiteMs;
+        }
+
+        /** Black's clock time left after the last move, or {@link #NO_CLOCK}. */
+        public long getBlackMs() {
+            return blackMs;
+        }
+
+        /** {@link #WHITE}, {@link #BLACK} or {@link #NO_WINNER}. */
+        public int getWinner() {
+            return winner;
+        }
+
+        /** The game status it ended with, or null while it is in progress. */
+        public String getStatus() {
+            return status;
+        }
+
+        /** The match status it was persisted with, or null while it is in progress. */
+        public String getResult() {
+            return result;
+        }
+    }
+}
@@ -14,6 +14,9 @@ public class GameDTO {
     private String fen;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    // Remaining clock times of a timed game, null when untimed.
+    private Long whiteMs;
+    private Long blackMs;
 
     public GameDTO() {
     }
@@ -111,4 +114,20 @@ public class GameDTO {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public Long getWhiteMs() {
+        return whiteMs;
+    }
+
+    public void setWhiteMs(Long whiteMs) {
+        this.whiteMs = whiteMs;
+    }
+
+    public Long getBlackMs() {
+        return blackMs;
+    }
+
+    public void setBlackMs(Long blackMs) {
+        this.blackMs = blackMs;
+    }
 }
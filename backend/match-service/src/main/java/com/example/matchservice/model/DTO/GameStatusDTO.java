@@ -1,5 +1,6 @@
 package com.example.matchservice.model.DTO;
 
+import com.fasterxml.jackson.annotation.JsonFormat;
 public class GameStatusDTO {
     private String status;
     private Long matchId;
@@ -7,6 +8,14 @@ public class GameStatusDTO {
     private boolean isMyTurn;
     private String[][] board;
     private String fen;
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    private Long positionHash;
+    private Integer ply;
+    // PGN result ("1-0", "0-1", "1/2-1/2") once the game has one.
+    private String result;
+    // Remaining clock times of a timed game, null when untimed.
+    private Long whiteMs;
+    private Long blackMs;
 
     public GameStatusDTO() {
     }
@@ -68,4 +77,44 @@ public class GameStatusDTO {
     public void setFen(String fen) {
         this.fen = fen;
     }
+
+    public Long getPositionHash() {
+        return positionHash;
+    }
+
+    public void setPositionHash(Long positionHash) {
+        this.positionHash = positionHash;
+    }
+
+    public Integer getPly() {
+        return ply;
+    }
+
+    public void setPly(Integer ply) {
+        this.ply = ply;
+    }
+
+    public String getResult() {
+        return result;
+    }
+
+    public void setResult(String result) {
+        this.result = result;
+    }
+
+    public Long getWhiteMs() {
+        return whiteMs;
+    }
+
+    public void setWhiteMs(Long whiteMs) {
+        this.whiteMs = whiteMs;
+    }
+
+    public Long getBlackMs() {
+        return blackMs;
+    }
+
+    public void setBlackMs(Long blackMs) {
+        this.blackMs = blackMs;
+    }
 }
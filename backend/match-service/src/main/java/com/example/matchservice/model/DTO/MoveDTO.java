@@ -1,5 +1,6 @@
 package com.example.matchservice.model.DTO;
 
+import com.fasterxml.jackson.annotation.JsonFormat;
 import java.time.LocalDateTime;
 
 public class MoveDTO {
@@ -22,6 +23,12 @@ public class MoveDTO {
     private LocalDateTime timestamp;
     private String moveNotation;
     private String playerUsername;
+    // Serialized as a string: JavaScript numbers cannot hold all 64 bits.
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    private Long positionHash;
+    // Remaining clock times after this move, null in untimed games.
+    private Long whiteMs;
+    private Long blackMs;
 
     public MoveDTO() {
     }
@@ -202,4 +209,28 @@ public class MoveDTO {
     public void setPlayerUsername(String playerUsername) {
         this.playerUsername = playerUsername;
     }
+
+    public Long getPositionHash() {
+        return positionHash;
+    }
+
+    public void setPositionHash(Long positionHash) {
+        this.positionHash = positionHash;
+    }
+
+    public Long getWhiteMs() {
+        return whiteMs;
+    }
+
+    public void setWhiteMs(Long whiteMs) {
+        this.whiteMs = whiteMs;
+    }
+
+    public Long getBlackMs() {
+        return blackMs;
+    }
+
+    public void setBlackMs(Long blackMs) {
+        this.blackMs = blackMs;
+    }
 }
@@ -0,0 +1,124 @@
+package com.example.matchservice.model.DTO;
+
+import com.example.matchservice.model.MoveEvaluation;
+
+public class MoveEvaluationDTO {
+    private Long matchId;
+    private int ply;
+    private String uci;
+    private String san;
+    private String bestMove;
+    private String bestSan;
+    private int evalBefore;
+    private int evalAfter;
+    private int centipawnLoss;
+    private String classification;
+    private int depth;
+
+    public MoveEvaluationDTO() {
+    }
+
+    public static MoveEvaluationDTO from(Long matchId, MoveEvaluation evaluation) {
+        MoveEvaluationDTO dto = new MoveEvaluationDTO();
+        dto.setMatchId(matchId);
+        dto.setPly(evaluation.getPly());
+        dto.setUci(evaluation.getUci());
+        dto.setSan(evaluation.getSan());
+        dto.setBestMove(evaluation.getBestMove());
+        dto.setBestSan(evaluation.getBestSan());
+        dto.setEvalBefore(evaluation.getEvalBefore());
+        dto.setEvalAfter(evaluation.getEvalAfter());
+        dto.setCentipawnLoss(evaluation.getCentipawnLoss());
+        dto.setClassification(evaluation.getClassification().name());
+        dto.setDepth(evaluation.getDepth());
+        return dto;
+    }
+
+    public Long getMatchId() {
+        return matchId;
+    }
+
+    public void setMatchId(Long matchId) {
+        this.matchId = matchId;
+    }
+
+    public int getPly() {
+        return ply;
+    }
+
+    public void setPly(int ply) {
+        this.ply = ply;
+    }
+
+    public String getUci() {
+        return uci;
+    }
+
+    public void setUci(String uci) {
+        this.uci = uci;
+    }
+
+    public String getSan() {
+        return san;
+    }
+
+    public void setSan(String san) {
+        this.san = san;
+    }
+
+    public String getBestMove() {
+        return bestMove;
+    }
+
+    public void setBestMove(String bestMove) {
+        this.bestMove = bestMove;
+    }
+
+    public String getBestSan() {
+        return bestSan;
+    }
+
+    public void setBestSan(String bestSan) {
+        this.bestSan = bestSan;
+    }
+
+    public int getEvalBefore() {
+        return evalBefore;
+    }
+
+    public void setEvalBefore(int evalBefore) {
+        this.evalBefore = evalBefore;
+    }
+
+    public int getEvalAfter() {
+        return evalAfter;
+    }
+
+    public void setEvalAfter(int evalAfter) {
+        this.evalAfter = evalAfter;
+    }
+
+    public int getCentipawnLoss() {
+        return centipawnLoss;
+    }
+
+    public void setCentipawnLoss(int centipawnLoss) {
+        this.centipawnLoss = centipawnLoss;
+    }
+
+    public String getClassification() {
+        return classification;
+    }
+
+    public void setClassification(String classification) {
+        this.classification = classification;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public void setDepth(int depth) {
+        this.depth = depth;
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.matchservice.model.DTO;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Compact move broadcast for clients subscribed to /topic/moves/{matchId}/delta. Squares are
+ * 0-63 with a1 = 0 (row = 7 - square / 8, col = square % 8). A client that misses a ply or
+ * sees a hash mismatch requests a full snapshot via /app/game/{matchId}/snapshot.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class MoveFrame {
+
+    public static final int VERSION = 1;
+
+    private int v = VERSION;
+    private Long matchId;
+    private int ply;
+    private int from;
+    private int to;
+    private String promo;
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    private long hash;
+    private String status;
+    private Long whiteMs;
+    private Long blackMs;
+
+    public MoveFrame() {
+    }
+
+    public MoveFrame(Long matchId, int ply, int from, int to, String promo, long hash) {
+        this.matchId = matchId;
+        this.ply = ply;
+        this.from = from;
+        this.to = to;
+        this.promo = promo;
+        this.hash = hash;
+    }
+
+    public int getV() {
+        return v;
+    }
+
+    public void setV(int v) {
+        this.v = v;
+    }
+
+    public Long getMatchId() {
+        return matchId;
+    }
+
+    public void setMatchId(Long matchId) {
+        this.matchId = matchId;
+    }
+
+    public int getPly() {
+        return ply;
+    }
+
+    public void setPly(int ply) {
+        this.ply = ply;
+    }
+
+    public int getFrom() {
+        return from;
+    }
+
+    public void setFrom(int from) {
+        this.from = from;
+    }
+
+    public int getTo() {
+        return to;
+    }
+
+    public void setTo(int to) {
+        this.to = to;
+    }
+
+    public String getPromo() {
+        return promo;
+    }
+
+    public void setPromo(String promo) {
+        this.promo = promo;
+    }
+
+    public long getHash() {
+        return hash;
+    }
+
+    public void setHash(long hash) {
+        this.hash = hash;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Long getWhiteMs() {
+        return whiteMs;
+    }
+
+    public void setWhiteMs(Long whiteMs) {
+        this.whiteMs = whiteMs;
+    }
+
+    public Long getBlackMs() {
+        return blackMs;
+    }
+
+    public void setBlackMs(Long blackMs) {
+        this.blackMs = blackMs;
+    }
+}
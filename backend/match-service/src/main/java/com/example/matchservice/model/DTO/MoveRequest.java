@@ -1,5 +1,7 @@
 package com.example.matchservice.model.DTO;
 
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import java.time.LocalDateTime;
 
 public class MoveRequest {
@@ -15,11 +17,15 @@ public class MoveRequest {
     private Boolean isPromotion;
     private String fenBefore;
     private String fenAfter;
+    // The server owns the position; a client-sent board is skipped rather than materialised.
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
     private String[][] board;
     private Boolean isWhiteTurn;
     private String playerColor;
     private Long matchId;
     private LocalDateTime timestamp;
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    private Long positionHash;
 
     public MoveRequest() {
     }
@@ -182,4 +188,12 @@ public class MoveRequest {
     public void setTimestamp(LocalDateTime timestamp) {
         this.timestamp = timestamp;
     }
+
+    public Long getPositionHash() {
+        return positionHash;
+    }
+
+    public void setPositionHash(Long positionHash) {
+        this.positionHash = positionHash;
+    }
 }
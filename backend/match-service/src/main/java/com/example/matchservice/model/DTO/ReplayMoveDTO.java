@@ -0,0 +1,89 @@
+package com.example.matchservice.model.DTO;
+
+import com.example.matchservice.model.PieceColor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One stored move of a game replay, as a line of GET /game/{matchId}/moves. Built directly
+ * by the query, so the rows never become managed {@code Move} entities.
+ */
+public class ReplayMoveDTO {
+    private int ply;
+    private int moveNumber;
+    private PieceColor color;
+    private String uci;
+    private String san;
+    private String fenAfter;
+    private LocalDateTime timestamp;
+
+    public ReplayMoveDTO() {
+    }
+
+    public ReplayMoveDTO(int ply, int moveNumber, PieceColor color, String uci, String san, String fenAfter,
+            LocalDateTime timestamp) {
+        this.ply = ply;
+        this.moveNumber = moveNumber;
+        this.color = color;
+        this.uci = uci;
+        this.san = san;
+        this.fenAfter = fenAfter;
+        this.timestamp = timestamp;
+    }
+
+    public int getPly() {
+        return ply;
+    }
+
+    public void setPly(int ply) {
+        this.ply = ply;
+    }
+
+    public int getMoveNumber() {
+        return moveNumber;
+    }
+
+    public void setMoveNumber(int moveNumber) {
+        this.moveNumber = moveNumber;
+    }
+
+    public PieceColor getColor() {
+        return color;
+    }
+
+    public void setColor(PieceColor color) {
+        this.color = color;
+    }
+
+    public String getUci() {
+        return uci;
+    }
+
+    public void setUci(String uci) {
+        this.uci = uci;
+    }
+
+    public String getSan() {
+        return san;
+    }
+
+    public void setSan(String san) {
+        this.san = san;
+    }
+
+    public String getFenAfter() {
+        return fenAfter;
+    }
+
+    public void setFenAfter(String fenAfter) {
+        this.fenAfter = fenAfter;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(LocalDateTime timestamp) {
+        this.timestamp = timestamp;
+    }
+}
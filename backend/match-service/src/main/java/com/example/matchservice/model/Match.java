@@ -41,6 +41,17 @@ public class Match {
     @Column(name = "last_move_uci", length = 10)
     private String lastMoveUci;
 
+    // Clock times left after the last stored move; null for untimed games.
+    @Column(name = "white_ms")
+    private Long whiteMs;
+
+    @Column(name = "black_ms")
+    private Long blackMs;
+
+    // How a game without a deciding move ended (e.g. ABANDONED); null otherwise.
+    @Column(name = "termination", length = 20)
+    private String termination;
+
     @OneToMany(mappedBy = "match", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     @OrderBy("ply ASC")
     private List<Move> moves = new ArrayList<>();
@@ -149,6 +160,30 @@ public class Match {
         this.lastMoveUci = lastMoveUci;
     }
 
+    public Long getWhiteMs() {
+        return whiteMs;
+    }
+
+    public void setWhiteMs(Long whiteMs) {
+        this.whiteMs = whiteMs;
+    }
+
+    public Long getBlackMs() {
+        return blackMs;
+    }
+
+    public void setBlackMs(Long blackMs) {
+        this.blackMs = blackMs;
+    }
+
+    public String getTermination() {
+        return termination;
+    }
+
+    public void setTermination(String termination) {
+        this.termination = termination;
+    }
+
     public List<Move> getMoves() {
         return moves;
     }
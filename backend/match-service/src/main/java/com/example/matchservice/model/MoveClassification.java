@@ -0,0 +1,9 @@
+package com.example.matchservice.model;
+
+public enum MoveClassification {
+    BEST,
+    GOOD,
+    INACCURACY,
+    MISTAKE,
+    BLUNDER
+}
@@ -0,0 +1,148 @@
+package com.example.matchservice.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Engine verdict on one played move. Evaluations are centipawns from white's point of
+ * view, with forced mates clamped to +/-10000; the centipawn loss is from the mover's.
+ */
+@Entity
+@Table(name = "move_evaluations", uniqueConstraints = @UniqueConstraint(columnNames = { "match_id", "ply" }))
+public class MoveEvaluation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "match_id", nullable = false)
+    private Match match;
+
+    private int ply;
+
+    @Column(length = 10)
+    private String uci;
+
+    private String san;
+
+    @Column(length = 10)
+    private String bestMove;
+
+    private String bestSan;
+
+    private int evalBefore;
+    private int evalAfter;
+    private int centipawnLoss;
+
+    @Enumerated(EnumType.STRING)
+    private MoveClassification classification;
+
+    private int depth;
+
+    private LocalDateTime createdAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Match getMatch() {
+        return match;
+    }
+
+    public void setMatch(Match match) {
+        this.match = match;
+    }
+
+    public int getPly() {
+        return ply;
+    }
+
+    public void setPly(int ply) {
+        this.ply = ply;
+    }
+
+    public String getUci() {
+        return uci;
+    }
+
+    public void setUci(String uci) {
+        this.uci = uci;
+    }
+
+    public String getSan() {
+        return san;
+    }
+
+    public void setSan(String san) {
+        this.san = san;
+    }
+
+    public String getBestMove() {
+        return bestMove;
+    }
+
+    public void setBestMove(String bestMove) {
+        this.bestMove = bestMove;
+    }
+
+    public String getBestSan() {
+        return bestSan;
+    }
+
+    public void setBestSan(String bestSan) {
+        this.bestSan = bestSan;
+    }
+
+    public int getEvalBefore() {
+        return evalBefore;
+    }
+
+    public void setEvalBefore(int evalBefore) {
+        this.evalBefore = evalBefore;
+    }
+
+    public int getEvalAfter() {
+        return evalAfter;
+    }
+
+    public void setEvalAfter(int evalAfter) {
+        this.evalAfter = evalAfter;
+    }
+
+    public int getCentipawnLoss() {
+        return centipawnLoss;
+    }
+
+    public void setCentipawnLoss(int centipawnLoss) {
+        this.centipawnLoss = centipawnLoss;
+    }
+
+    public MoveClassification getClassification() {
+        return classification;
+    }
+
+    public void setClassification(MoveClassification classification) {
+        this.classification = classification;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public void setDepth(int depth) {
+        this.depth = depth;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
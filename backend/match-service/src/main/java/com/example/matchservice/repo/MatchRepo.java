@@ -1,9 +1,14 @@
 package com.example.matchservice.repo;
 
 import com.example.matchservice.model.Match;
+import com.example.matchservice.model.MatchStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface MatchRepo extends JpaRepository<Match, Long> {
+    List<Match> findByStatusIn(Collection<MatchStatus> statuses);
 }
@@ -0,0 +1,14 @@
+package com.example.matchservice.repo;
+
+import com.example.matchservice.model.MoveEvaluation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface MoveEvaluationRepo extends JpaRepository<MoveEvaluation, Long> {
+    List<MoveEvaluation> findByMatchIdOrderByPlyAsc(Long matchId);
+
+    long countByMatchId(Long matchId);
+}
@@ -1,9 +1,45 @@
 package com.example.matchservice.repo;
 
+import com.example.matchservice.model.DTO.ReplayMoveDTO;
 import com.example.matchservice.model.Move;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository
 public interface MoveRepo extends JpaRepository<Move, Long> {
+
+    /**
+     * Rows written between flushes when a replay is streamed to the client.
+     */
+    int REPLAY_FETCH_SIZE = 64;
+
+    List<Move> findByMatchIdOrderByPlyAsc(Long matchId);
+
+    /**
+     * The last ply stored for the game, 0 when it has no moves yet.
+     */
+    @Query("SELECT COALESCE(MAX(m.ply), 0) FROM Move m WHERE m.match.id = :matchId")
+    int maxPly(@Param("matchId") Long matchId);
+
+    /**
+     * Moves with {@code fromPly <= ply < toPly} in ply order, streamed row by row as the server
+     * sends them (a fetch size of {@link Integer#MIN_VALUE} for Connector/J, as in the PGN
+     * export). Must be consumed, and closed, inside a transaction.
+     */
+    @Query("SELECT new com.example.matchservice.model.DTO.ReplayMoveDTO(m.ply, m.moveNumber, m.color, m.uci, m.san, "
+            + "m.fenAfter, m.createdAt) FROM Move m "
+            + "WHERE m.match.id = :matchId AND m.ply >= :fromPly AND m.ply < :toPly ORDER BY m.ply")
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true") })
+    Stream<ReplayMoveDTO> streamReplay(@Param("matchId") Long matchId, @Param("fromPly") int fromPly,
+            @Param("toPly") int toPly);
 }
@@ -0,0 +1,483 @@
+package com.example.matchservice.service;
+
+import com.example.matchservice.chess.MoveGenerator;
+import com.example.matchservice.chess.Moves;
+import com.example.matchservice.chess.Notation;
+import com.example.matchservice.chess.Position;
+import com.example.matchservice.engine.Search;
+import com.example.matchservice.engine.SearchLimits;
+import com.example.matchservice.engine.SearchResult;
+import com.example.matchservice.model.DTO.MoveEvaluationDTO;
+import com.example.matchservice.model.Match;
+import com.example.matchservice.model.MatchStatus;
+import com.example.matchservice.model.Move;
+import com.example.matchservice.model.MoveClassification;
+import com.example.matchservice.model.MoveEvaluation;
+import com.example.matchservice.repo.MatchRepo;
+import com.example.matchservice.repo.MoveEvaluationRepo;
+import com.example.matchservice.repo.MoveRepo;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Post-game analysis. Every position of a finished game is queued as its own task on a
+ * priority queue drained by a fixed number of virtual-thread workers, so a game someone
+ * is waiting on overtakes background backfill position by position. A move is classified
+ * as soon as the positions before and after it are both evaluated, then stored and
+ * pushed to /topic/analysis/{matchId} and any SSE streams. Games finishing are handed to
+ * their own virtual thread, which loads them and queues their positions, so the lane that
+ * ended the game never waits on the database.
+ */
+@Service
+public class AnalysisService {
+
+    public enum Priority {
+        INTERACTIVE,
+        BACKGROUND
+    }
+
+    static final int MATE_CP = 10000;
+    private static final int LOSS_CLAMP_CP = 1000;
+    private static final int INACCURACY_CP = 50;
+    private static final int MISTAKE_CP = 100;
+    private static final int BLUNDER_CP = 300;
+    private static final long STREAM_TIMEOUT_MS = 10 * 60 * 1000;
+
+    private final GameService gameService;
+    private final EngineService engineService;
+    private final MatchRepo matchRepo;
+    private final MoveRepo moveRepo;
+    private final MoveEvaluationRepo evaluationRepo;
+    private final FramePublisher framePublisher;
+    private final SearchLimits limits;
+    private final PriorityBlockingQueue<PositionTask> queue = new PriorityBlockingQueue<>();
+    private final BlockingQueue<Long> finishedGames = new LinkedBlockingQueue<>();
+    private final Map<Long, AnalysisJob> jobs = new ConcurrentHashMap<>();
+    private final Map<Long, List<SseEmitter>> streams = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ThreadLocal<int[]> moveBuffers = ThreadLocal.withInitial(() -> new int[MoveGenerator.MAX_MOVES]);
+    private final List<Thread> workers = new ArrayList<>();
+    private final Thread submitter;
+
+    public AnalysisService(GameService gameService, EngineService engineService, MatchRepo matchRepo,
+            MoveRepo moveRepo, MoveEvaluationRepo evaluationRepo, FramePublisher framePublisher,
+            @Value("${analysis.workers:2}") int workerCount,
+            @Value("${analysis.movetime-ms:500}") long movetimeMs,
+            @Value("${analysis.depth:12}") int maxDepth) {
+        this.gameService = gameService;
+        this.engineService = engineService;
+        this.matchRepo = matchRepo;
+        this.moveRepo = moveRepo;
+        this.evaluationRepo = evaluationRepo;
+        this.framePublisher = framePublisher;
+        this.limits = SearchLimits.movetime(movetimeMs).withMaxDepth(maxDepth);
+        for (int i = 0; i < Math.max(1, workerCount); i++) {
+            workers.add(Thread.ofVirtual().name("analysis-" + i).start(this::work));
+        }
+        this.submitter = Thread.ofVirtual().name("analysis-submit").start(this::submitFinished);
+    }
+
+    // Published on the game's lane: only hand the game over.
+    @EventListener
+    public void onGameFinished(GameFinishedEvent event) {
+        finishedGames.add(event.matchId());
+    }
+
+    /**
+     * Queues every position of a finished game. A game that is already queued keeps its
+     * progress; asking again with a higher priority re-queues its remaining positions.
+     */
+    public Map<String, Object> submit(Long matchId, Priority priority) {
+        AnalysisJob job = jobs.get(matchId);
+        if (job != null) {
+            if (priority.ordinal() < job.priority.ordinal()) {
+                job.priority = priority;
+                enqueueRemaining(job);
+            }
+            return status(matchId, job);
+        }
+
+        Match match = matchRepo.findById(matchId).orElseThrow(() -> new RuntimeException("Game not found"));
+        if (gameService.copyPosition(matchId) != null) {
+            throw new RuntimeException("Game is still in progress");
+        }
+        int[] moves = loadMoves(matchId);
+        if (moves.length == 0) {
+            throw new RuntimeException("No moves recorded for game " + matchId);
+        }
+
+        Set<Integer> stored = new HashSet<>();
+        for (MoveEvaluation evaluation : evaluationRepo.findByMatchIdOrderByPlyAsc(matchId)) {
+            stored.add(evaluation.getPly());
+        }
+        if (stored.size() >= moves.length) {
+            return status(matchId, null);
+        }
+
+        job = new AnalysisJob(match, moves, stored, priority);
+        AnalysisJob existing = jobs.putIfAbsent(matchId, job);
+        if (existing != null) {
+            return status(matchId, existing);
+        }
+        enqueueRemaining(job);
+        System.out.println("Queued analysis of game " + matchId + " (" + job.fens.length + " positions, "
+                + priority + ")");
+        return status(matchId, job);
+    }
+
+    /**
+     * Queues every finished game that has no stored analysis yet, at background priority.
+     */
+    public int backfill() {
+        int queued = 0;
+        for (Match match : matchRepo.findByStatusIn(
+                List.of(MatchStatus.FINISHED, MatchStatus.DRAW, MatchStatus.RESIGNED))) {
+            Long matchId = match.getId();
+            if (jobs.containsKey(matchId) || evaluationRepo.countByMatchId(matchId) > 0) {
+                continue;
+            }
+            try {
+                submit(matchId, Priority.BACKGROUND);
+                queued++;
+            } catch (RuntimeException e) {
+                // No usable moves stored for this game.
+            }
+        }
+        return queued;
+    }
+
+    public Map<String, Object> getAnalysis(Long matchId) {
+        Map<String, Object> response = status(matchId, jobs.get(matchId));
+        response.put("evaluations", getEvaluations(matchId));
+        return response;
+    }
+
+    /**
+     * Streams stored evaluations and then live ones as they complete, ending with a
+     * "complete" event. An evaluation finishing while the stream opens may be sent twice;
+     * clients key them by ply.
+     */
+    public SseEmitter stream(Long matchId) {
+        SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT_MS);
+        List<SseEmitter> listeners = streams.computeIfAbsent(matchId, id -> new CopyOnWriteArrayList<>());
+        listeners.add(emitter);
+        emitter.onCompletion(() -> listeners.remove(emitter));
+        emitter.onTimeout(() -> listeners.remove(emitter));
+        emitter.onError(e -> listeners.remove(emitter));
+
+        try {
+            for (MoveEvaluationDTO evaluation : getEvaluations(matchId)) {
+                emitter.send(SseEmitter.event().name("evaluation").data(evaluation));
+            }
+            if (!jobs.containsKey(matchId)) {
+                emitter.send(SseEmitter.event().name("complete").data(status(matchId, null)));
+                emitter.complete();
+            }
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+        }
+        return emitter;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.forEach(Thread::interrupt);
+        submitter.interrupt();
+    }
+
+    private void submitFinished() {
+        while (!Thread.currentThread().isInterrupted()) {
+            Long matchId;
+            try {
+                matchId = finishedGames.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                submit(matchId, Priority.BACKGROUND);
+            } catch (RuntimeException e) {
+                System.err.println("Could not queue analysis for game " + matchId + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void work() {
+        while (!Thread.currentThread().isInterrupted()) {
+            PositionTask task;
+            try {
+                task = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                analyse(task.job, task.index);
+            } catch (Exception e) {
+                System.err.println("Error analysing game " + task.job.matchId + " at ply " + task.index + ": "
+                        + e.getMessage());
+            }
+        }
+    }
+
+    private void analyse(AnalysisJob job, int index) {
+        synchronized (job) {
+            if (job.analysed[index]) {
+                return;
+            }
+        }
+
+        int[] buffer = moveBuffers.get();
+        Position position = Position.fromFen(job.fens[index]);
+        int score;
+        int bestMove = Moves.NONE;
+        int depth = 0;
+        if (!MoveGenerator.hasLegalMove(position, buffer)) {
+            score = position.isInCheck() ? -Search.MATE : 0;
+        } else {
+            SearchResult result = engineService.search(position, limits, 1);
+            score = result.getScore();
+            bestMove = result.getBestMove();
+            depth = result.getDepth();
+        }
+
+        List<MoveEvaluation> ready = new ArrayList<>(2);
+        synchronized (job) {
+            if (job.analysed[index]) {
+                return;
+            }
+            job.analysed[index] = true;
+            job.scores[index] = score;
+            job.bestMoves[index] = bestMove;
+            job.depths[index] = depth;
+            for (int move = Math.max(0, index - 1); move <= Math.min(index, job.moves.length - 1); move++) {
+                if (job.analysed[move] && job.analysed[move + 1]) {
+                    ready.add(evaluate(job, move, buffer));
+                }
+            }
+        }
+
+        for (MoveEvaluation evaluation : ready) {
+            if (!job.stored.contains(evaluation.getPly())) {
+                try {
+                    evaluationRepo.save(evaluation);
+                } catch (Exception e) {
+                    System.err.println("❌ Error saving evaluation for game " + job.matchId + ": " + e.getMessage());
+                }
+            }
+            publish(job.matchId, "evaluation", MoveEvaluationDTO.from(job.matchId, evaluation));
+        }
+
+        boolean finished;
+        synchronized (job) {
+            job.published += ready.size();
+            finished = job.published == job.moves.length;
+        }
+        if (finished) {
+            jobs.remove(job.matchId);
+            Map<String, Object> complete = status(job.matchId, null);
+            complete.put("type", "ANALYSIS_COMPLETE");
+            publish(job.matchId, "complete", complete);
+            List<SseEmitter> listeners = streams.remove(job.matchId);
+            if (listeners != null) {
+                listeners.forEach(SseEmitter::complete);
+            }
+            System.out.println("Finished analysis of game " + job.matchId);
+        }
+    }
+
+    // Scores are from the side to move, so the mover's score after move i is -scores[i + 1].
+    private MoveEvaluation evaluate(AnalysisJob job, int move, int[] buffer) {
+        int played = job.moves[move];
+        int best = job.bestMoves[move];
+        int before = job.scores[move];
+        int after = -job.scores[move + 1];
+        int loss = played == best ? 0 : Math.max(0, clamp(before) - clamp(after));
+
+        MoveClassification classification;
+        if (played == best) {
+            classification = MoveClassification.BEST;
+        } else if (loss >= BLUNDER_CP) {
+            classification = MoveClassification.BLUNDER;
+        } else if (loss >= MISTAKE_CP) {
+            classification = MoveClassification.MISTAKE;
+        } else if (loss >= INACCURACY_CP) {
+            classification = MoveClassification.INACCURACY;
+        } else {
+            classification = MoveClassification.GOOD;
+        }
+
+        Position position = Position.fromFen(job.fens[move]);
+        int sign = position.isWhiteToMove() ? 1 : -1;
+
+        MoveEvaluation evaluation = new MoveEvaluation();
+        evaluation.setMatch(job.match);
+        evaluation.setPly(move + 1);
+        evaluation.setUci(Moves.toUci(played));
+        evaluation.setSan(Notation.toSan(position, played, buffer));
+        if (best != Moves.NONE) {
+            evaluation.setBestMove(Moves.toUci(best));
+            evaluation.setBestSan(Notation.toSan(position, best, buffer));
+        }
+        evaluation.setEvalBefore(sign * toCentipawns(before));
+        evaluation.setEvalAfter(sign * toCentipawns(after));
+        evaluation.setCentipawnLoss(loss);
+        evaluation.setClassification(classification);
+        evaluation.setDepth(job.depths[move]);
+        evaluation.setCreatedAt(LocalDateTime.now());
+        return evaluation;
+    }
+
+    private static int toCentipawns(int score) {
+        if (score >= Search.MATE - Search.MAX_PLY) {
+            return MATE_CP;
+        }
+        if (score <= -Search.MATE + Search.MAX_PLY) {
+            return -MATE_CP;
+        }
+        return score;
+    }
+
+    private static int clamp(int score) {
+        return Math.max(-LOSS_CLAMP_CP, Math.min(LOSS_CLAMP_CP, toCentipawns(score)));
+    }
+
+    private void publish(Long matchId, String event, Object payload) {
+        framePublisher.publish("/topic/analysis/" + matchId, payload);
+        List<SseEmitter> listeners = streams.get(matchId);
+        if (listeners == null) {
+            return;
+        }
+        for (SseEmitter emitter : listeners) {
+            try {
+                emitter.send(SseEmitter.event().name(event).data(payload));
+            } catch (IOException | IllegalStateException e) {
+                listeners.remove(emitter);
+            }
+        }
+    }
+
+    private void enqueueRemaining(AnalysisJob job) {
+        Priority priority = job.priority;
+        synchronized (job) {
+            for (int i = 0; i < job.fens.length; i++) {
+                if (!job.analysed[i]) {
+                    queue.add(new PositionTask(job, i, priority, sequence.incrementAndGet()));
+                }
+            }
+        }
+    }
+
+    private int[] loadMoves(Long matchId) {
+        int[] live = gameService.getMoves(matchId);
+        if (live != null) {
+            return live;
+        }
+        List<Move> rows = moveRepo.findByMatchIdOrderByPlyAsc(matchId);
+        int[] moves = new int[rows.size()];
+        int[] buffer = moveBuffers.get();
+        Position position = Position.startPosition();
+        for (int i = 0; i < moves.length; i++) {
+            int move = Notation.fromUci(position, rows.get(i).getUci(), buffer);
+            if (move == Moves.NONE) {
+                throw new RuntimeException("Stored move " + rows.get(i).getUci() + " at ply " + (i + 1)
+                        + " is not legal");
+            }
+            position.makeMove(move);
+            moves[i] = move;
+        }
+        return moves;
+    }
+
+    private List<MoveEvaluationDTO> getEvaluations(Long matchId) {
+        List<MoveEvaluationDTO> evaluations = new ArrayList<>();
+        for (MoveEvaluation evaluation : evaluationRepo.findByMatchIdOrderByPlyAsc(matchId)) {
+            evaluations.add(MoveEvaluationDTO.from(matchId, evaluation));
+        }
+        return evaluations;
+    }
+
+    private Map<String, Object> status(Long matchId, AnalysisJob job) {
+        Map<String, Object> status = new HashMap<>();
+        status.put("matchId", matchId);
+        if (job == null) {
+            status.put("status", "COMPLETE");
+            return status;
+        }
+        int analysed;
+        synchronized (job) {
+            analysed = job.published;
+        }
+        status.put("status", analysed == 0 ? "QUEUED" : "RUNNING");
+        status.put("priority", job.priority.name());
+        status.put("moves", job.moves.length);
+        status.put("evaluated", analysed);
+        return status;
+    }
+
+    private static final class AnalysisJob {
+        final Long matchId;
+        final Match match;
+        final int[] moves;
+        final String[] fens;
+        final Set<Integer> stored;
+        final boolean[] analysed;
+        final int[] scores;
+        final int[] bestMoves;
+        final int[] depths;
+        volatile Priority priority;
+        int published;
+
+        AnalysisJob(Match match, int[] moves, Set<Integer> stored, Priority priority) {
+            this.matchId = match.getId();
+            this.match = match;
+            this.moves = moves;
+            this.stored = stored;
+            this.priority = priority;
+            this.fens = new String[moves.length + 1];
+            this.analysed = new boolean[fens.length];
+            this.scores = new int[fens.length];
+            this.bestMoves = new int[fens.length];
+            this.depths = new int[fens.length];
+
+            Position position = Position.startPosition();
+            fens[0] = position.toFen();
+            for (int i = 0; i < moves.length; i++) {
+                position.makeMove(moves[i]);
+                position.trimHistory();
+                fens[i + 1] = position.toFen();
+            }
+        }
+    }
+
+    private static final class PositionTask implements Comparable<PositionTask> {
+        final AnalysisJob job;
+        final int index;
+        final Priority priority;
+        final long sequence;
+
+        PositionTask(AnalysisJob job, int index, Priority priority, long sequence) {
+            this.job = job;
+            this.index = index;
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(PositionTask other) {
+            int byPriority = Integer.compare(priority.ordinal(), other.priority.ordinal());
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.matchservice.service;
+
+import com.example.matchservice.chess.Moves;
+import com.example.matchservice.chess.Pieces;
+import com.example.matchservice.chess.Position;
+import com.example.matchservice.chess.Squares;
+import com.example.matchservice.engine.SearchLimits;
+import com.example.matchservice.engine.SearchResult;
+import com.example.matchservice.model.DTO.MoveRequest;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.security.Principal;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Plays the engine side of {@code GameType.BOT} matches. Bot moves go through
+ * {@link GameService#processMove} like a human's, on the game's {@link MatchLanes} lane, so
+ * they are validated, persisted and broadcast on the same STOMP topics. The search itself
+ * runs on the bot pool and never holds up a lane.
+ *
+ * <p>Which games are bot games, and which side the bot plays, follow from the
+ * {@link #BOT_USERNAME} seat in the {@link GameRegistry}, so games rebuilt from the journal
+ * or the database after a restart keep being answered. Only the per-game search time lives
+ * here; a game that lost it plays at {@code bot.movetime-ms}.
+ */
+@Service
+public class BotService {
+
+    public static final String BOT_USERNAME = "Computer";
+
+    private static final long MIN_MOVETIME_MS = 100;
+    private static final long MAX_MOVETIME_MS = 10_000;
+
+    private final GameService gameService;
+    private final EngineService engineService;
+    private final OpeningBookService openingBookService;
+    private final TablebaseService tablebaseService;
+    private final MatchLanes matchLanes;
+    private final GameRegistry gameRegistry;
+    private final long defaultMovetimeMs;
+    private final int searchThreads;
+    private final ExecutorService executor;
+    private final Map<Long, Long> movetimes = new ConcurrentHashMap<>();
+    // Games with a search or reply in flight, so a repeated trigger does not search twice.
+    private final Set<Long> thinking = ConcurrentHashMap.newKeySet();
+    private final Principal botPrincipal = () -> BOT_USERNAME;
+
+    public BotService(GameService gameService, EngineService engineService, OpeningBookService openingBookService,
+            TablebaseService tablebaseService, MatchLanes matchLanes, GameRegistry gameRegistry,
+            @Value("${bot.movetime-ms:1000}") long defaultMovetimeMs,
+            @Value("${bot.search-threads:1}") int searchThreads,
+            @Value("${bot.threads:2}") int threads) {
+        this.gameService = gameService;
+        this.engineService = engineService;
+        this.openingBookService = openingBookService;
+        this.tablebaseService = tablebaseService;
+        this.matchLanes = matchLanes;
+        this.gameRegistry = gameRegistry;
+        this.defaultMovetimeMs = defaultMovetimeMs;
+        this.searchThreads = searchThreads;
+        this.executor = Executors.newFixedThreadPool(threads);
+    }
+
+    /**
+     * Starts a bot game that is already loaded, with the requested search time (null for
+     * the default). The first reply, if the engine opens, is queued on the game's lane.
+     */
+    public void startGame(Long matchId, Long movetimeMs) {
+        if (movetimeMs != null) {
+            movetimes.put(matchId, Math.max(MIN_MOVETIME_MS, Math.min(movetimeMs, MAX_MOVETIME_MS)));
+        }
+        matchLanes.execute(matchId, () -> onMoveApplied(matchId));
+    }
+
+    public boolean isBotGame(Long matchId) {
+        return botColor(matchId) >= 0;
+    }
+
+    /**
+     * Queues a reply if the match is a bot game in progress, the engine is to move and no
+     * reply is already on its way. Safe to call again for the same position. Runs on the
+     * game's lane.
+     */
+    public void onMoveApplied(Long matchId) {
+        int color = botColor(matchId);
+        if (color < 0) {
+            return;
+        }
+        Position position = gameService.copyPosition(matchId);
+        if (position == null || position.sideToMove() != color || !thinking.add(matchId)) {
+            return;
+        }
+        long movetime = movetimes.getOrDefault(matchId, defaultMovetimeMs);
+        executor.execute(() -> playMove(matchId, movetime, position));
+    }
+
+    /**
+     * Answers the bot games rebuilt from the journal at startup where the engine was to move.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeGames() {
+        for (Long matchId : gameRegistry.activeMatches(BOT_USERNAME)) {
+            matchLanes.execute(matchId, () -> onMoveApplied(matchId));
+        }
+    }
+
+    @EventListener
+    public void onGameFinished(GameFinishedEvent event) {
+        movetimes.remove(event.matchId());
+    }
+
+    /**
+     * The side the bot plays in the game, or -1 when it is not a bot game in progress.
+     */
+    private int botColor(Long matchId) {
+        GameRegistry.Players players = gameRegistry.players(matchId);
+        if (players == null) {
+            return -1;
+        }
+        if (BOT_USERNAME.equals(players.player1())) {
+            return Pieces.WHITE;
+        }
+        return BOT_USERNAME.equals(players.player2()) ? Pieces.BLACK : -1;
+    }
+
+    private void playMove(Long matchId, long movetimeMs, Position position) {
+        boolean replied = false;
+        try {
+            int tablebaseMove = tablebaseService.bestMove(position);
+            if (tablebaseMove != Moves.NONE) {
+                System.out.println("Bot plays tablebase move " + Moves.toUci(tablebaseMove) + " in game " + matchId);
+                replied = applyMove(matchId, position, tablebaseMove);
+                return;
+            }
+
+            int bookMove = openingBookService.pickMove(position);
+            if (bookMove != Moves.NONE) {
+                System.out.println("Bot plays book move " + Moves.toUci(bookMove) + " in game " + matchId);
+                replied = applyMove(matchId, position, bookMove);
+                return;
+            }
+
+            SearchResult result = engineService.search(position, SearchLimits.movetime(movetimeMs), searchThreads);
+            int move = result.getBestMove();
+            if (move == Moves.NONE) {
+                return;
+            }
+            System.out.println("Bot plays " + result.getBestMoveUci() + " in game " + matchId + " (depth "
+                    + result.getDepth() + ", score " + result.getScore() + ", " + result.getNodes() + " nodes)");
+            replied = applyMove(matchId, position, move);
+        } catch (Exception e) {
+            System.err.println("Error playing bot move in game " + matchId + ": " + e.getMessage());
+        } finally {
+            if (!replied) {
+                thinking.remove(matchId);
+            }
+        }
+    }
+
+    /**
+     * Hands the move to the game's lane, which clears the in-flight mark once it is applied.
+     */
+    private boolean applyMove(Long matchId, Position position, int move) {
+        MoveRequest request = toMoveRequest(position, move);
+        matchLanes.execute(matchId, () -> {
+            try {
+                gameService.processMove(matchId, request, botPrincipal);
+            } finally {
+                thinking.remove(matchId);
+            }
+        });
+        return true;
+    }
+
+    private static MoveRequest toMoveRequest(Position position, int move) {
+        int from = Moves.from(move);
+        int to = Moves.to(move);
+
+        MoveRequest request = new MoveRequest();
+        request.setFromRow(Squares.row(from));
+        request.setFromCol(Squares.col(from));
+        request.setToRow(Squares.row(to));
+        request.setToCol(Squares.col(to));
+        request.setPiece(String.valueOf(Pieces.symbol(position.pieceAt(from))));
+        if (Moves.isPromotion(move)) {
+            request.setIsPromotion(true);
+            request.setPromotedTo(String.valueOf(Pieces.symbol(Pieces.make(position.sideToMove(), Moves.promotion(move)))));
+        }
+        request.setPlayerColor(position.isWhiteToMove() ? "white" : "black");
+        request.setPositionHash(position.hash());
+        return request;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
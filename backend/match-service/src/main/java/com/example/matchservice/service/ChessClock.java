@@ -0,0 +1,97 @@
+package com.example.matchservice.service;
+
+/**
+ * Fischer clock of one game: each side's remaining time, charged when the side moves and
+ * credited with the increment. The clock starts with white's first move, so nobody loses
+ * time before both players have seen the board. Only the game's lane mutates it.
+ */
+final class ChessClock {
+
+    private final long incrementMs;
+    private long whiteMs;
+    private long blackMs;
+    // Epoch millis the side to move started thinking; 0 before the first move.
+    private long turnStartedAt;
+
+    ChessClock(long baseMs, long incrementMs) {
+        this(incrementMs, baseMs, baseMs, 0);
+    }
+
+    ChessClock(long incrementMs, long whiteMs, long blackMs, long turnStartedAt) {
+        this.incrementMs = incrementMs;
+        this.whiteMs = whiteMs;
+        this.blackMs = blackMs;
+        this.turnStartedAt = turnStartedAt;
+    }
+
+    /**
+     * Charges the mover for the time since the last move and adds the increment. False when
+     * the mover had already run out, in which case the clock stops at zero for them.
+     */
+    boolean punch(boolean whiteMoved, long now) {
+        if (turnStartedAt != 0) {
+            long left = (whiteMoved ? whiteMs : blackMs) - (now - turnStartedAt);
+            if (left <= 0) {
+                flag(whiteMoved);
+                return false;
+            }
+            if (whiteMoved) {
+                whiteMs = left + incrementMs;
+            } else {
+                blackMs = left + incrementMs;
+            }
+        }
+        turnStartedAt = now;
+        return true;
+    }
+
+    /**
+     * Starts the side to move's turn at {@code now}, for a game rebuilt part-way through.
+     */
+    void start(long now) {
+        turnStartedAt = now;
+    }
+
+    void flag(boolean white) {
+        if (white) {
+            whiteMs = 0;
+        } else {
+            blackMs = 0;
+        }
+        turnStartedAt = 0;
+    }
+
+    /**
+     * Time left for one side at {@code now}, never negative.
+     */
+    long remaining(boolean white, boolean whiteToMove, long now) {
+        long stored = white ? whiteMs : blackMs;
+        if (white == whiteToMove && turnStartedAt != 0) {
+            stored -= now - turnStartedAt;
+        }
+        return Math.max(0, stored);
+    }
+
+    /**
+     * Epoch millis at which the side to move runs out, or -1 while the clock is stopped.
+     */
+    long deadline(boolean whiteToMove) {
+        return turnStartedAt == 0 ? -1 : turnStartedAt + (whiteToMove ? whiteMs : blackMs);
+    }
+
+    long getIncrementMs() {
+        return incrementMs;
+    }
+
+    long getWhiteMs() {
+        return whiteMs;
+    }
+
+    long getBlackMs() {
+        return blackMs;
+    }
+
+    long getTurnStartedAt() {
+        return turnStartedAt;
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.matchservice.service;
+
+import com.example.matchservice.model.GameType;
+import com.example.matchservice.timer.TimingWheel;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time controls and flag-fall timers. Each timed game in progress has one timeout on the
+ * shared game {@link TimingWheel} at the moment its side to move runs out, re-armed after
+ * every move, so a single thread watches all clocks and only wakes for the ones that are due.
+ * When a timeout fires the check is handed to the game's {@link MatchLanes} lane, which
+ * decides against the clock itself: a move that raced the timer just re-arms it.
+ *
+ * <p>BLITZ and RAPID games are timed ({@code clock.blitz-ms} + {@code clock.blitz-increment-ms}
+ * and the rapid equivalents); STANDARD and BOT games have no clock.
+ *
+ * <p>Metric: {@code clocks.armed}.
+ */
+@Component
+public class ClockService {
+
+    private final MatchLanes lanes;
+    private final TimingWheel wheel;
+    private final Map<Long, TimingWheel.Timeout> timeouts = new ConcurrentHashMap<>();
+    private final long blitzMs;
+    private final long blitzIncrementMs;
+    private final long rapidMs;
+    private final long rapidIncrementMs;
+
+    public ClockService(MatchLanes lanes, TimingWheel wheel, MeterRegistry meterRegistry,
+            @Value("${clock.blitz-ms:180000}") long blitzMs,
+            @Value("${clock.blitz-increment-ms:2000}") long blitzIncrementMs,
+            @Value("${clock.rapid-ms:600000}") long rapidMs,
+            @Value("${clock.rapid-increment-ms:5000}") long rapidIncrementMs) {
+        this.lanes = lanes;
+        this.wheel = wheel;
+        this.blitzMs = blitzMs;
+        this.blitzIncrementMs = blitzIncrementMs;
+        this.rapidMs = rapidMs;
+        this.rapidIncrementMs = rapidIncrementMs;
+
+        Gauge.builder("clocks.armed", timeouts, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * A fresh clock for the game type, or null when games of that type are untimed.
+     */
+    ChessClock newClock(GameType gameType) {
+        if (gameType == GameType.BLITZ) {
+            return new ChessClock(blitzMs, blitzIncrementMs);
+        }
+        if (gameType == GameType.RAPID) {
+            return new ChessClock(rapidMs, rapidIncrementMs);
+        }
+        return null;
+    }
+
+    /**
+     * The clock of a game of the type rebuilt part-way through, with the stored times left
+     * (full time where they are null), the side to move's turn starting now. Null when
+     * games of that type are untimed.
+     */
+    ChessClock resumeClock(GameType gameType, Long whiteMs, Long blackMs) {
+        ChessClock fresh = newClock(gameType);
+        if (fresh == null) {
+            return null;
+        }
+        return new ChessClock(fresh.getIncrementMs(), whiteMs == null ? fresh.getWhiteMs() : whiteMs,
+                blackMs == null ? fresh.getBlackMs() : blackMs, System.currentTimeMillis());
+    }
+
+    /**
+     * Runs {@code onFlag} on the match's lane at {@code deadlineMillis} (epoch millis),
+     * replacing the match's previous timer.
+     */
+    void arm(long matchId, long deadlineMillis, Runnable onFlag) {
+        long delay = Math.max(0, deadlineMillis - System.currentTimeMillis());
+        timeouts.compute(matchId, (id, previous) -> {
+            if (previous != null) {
+                previous.cancel();
+            }
+            return wheel.schedule(delay, TimeUnit.MILLISECONDS, () -> lanes.execute(id, onFlag));
+        });
+    }
+
+    /**
+     * Whether the match has a timer that has not fired or been cancelled.
+     */
+    boolean isArmed(long matchId) {
+        TimingWheel.Timeout timeout = timeouts.get(matchId);
+        return timeout != null && !timeout.isExpired();
+    }
+
+    void cancel(long matchId) {
+        TimingWheel.Timeout timeout = timeouts.remove(matchId);
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+
+    @EventListener
+    public void onGameFinished(GameFinishedEvent event) {
+        cancel(event.matchId());
+    }
+
+    public int armedCount() {
+        return timeouts.size();
+    }
+}
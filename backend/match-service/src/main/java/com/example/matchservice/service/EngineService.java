@@ -0,0 +1,110 @@
+package com.example.matchservice.service;
+
+import com.example.matchservice.chess.MoveGenerator;
+import com.example.matchservice.chess.Pieces;
+import com.example.matchservice.chess.Position;
+import com.example.matchservice.engine.ParallelSearch;
+import com.example.matchservice.engine.SearchLimits;
+import com.example.matchservice.engine.SearchResult;
+import com.example.matchservice.engine.TranspositionTable;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Runs engine searches for bot games and the search API. All searches share one
+ * transposition table, and a semaphore caps the total number of search threads: a search
+ * always gets one thread, and only as many helper threads as are free at that moment, so a
+ * deep analysis cannot hold back bot replies in live games. Searches from the API are further
+ * limited to {@code engine.max-api-searches} at a time (half the threads by default) and to
+ * the same 10 s as a bot reply, so callers cannot take over the threads bots need.
+ */
+@Service
+public class EngineService {
+
+    private static final long MAX_MOVETIME_MS = 10_000;
+
+    private final int maxThreadsPerSearch;
+    private final Semaphore searchThreads;
+    private final Semaphore apiSearches;
+    private final ExecutorService helpers;
+    private final ParallelSearch parallelSearch;
+
+    public EngineService(@Value("${engine.hash-mb:128}") int hashMb,
+            @Value("${engine.max-threads:0}") int maxThreads,
+            @Value("${engine.max-threads-per-search:0}") int maxThreadsPerSearch,
+            @Value("${engine.max-api-searches:0}") int maxApiSearches) {
+        int total = maxThreads > 0 ? maxThreads : Runtime.getRuntime().availableProcessors();
+        this.maxThreadsPerSearch = maxThreadsPerSearch > 0 ? Math.min(maxThreadsPerSearch, total) : Math.max(1, total / 2);
+        this.searchThreads = new Semaphore(total, true);
+        this.apiSearches = new Semaphore(maxApiSearches > 0 ? maxApiSearches : Math.max(1, total / 2), true);
+        this.helpers = Executors.newFixedThreadPool(total);
+        this.parallelSearch = new ParallelSearch(new TranspositionTable(hashMb), helpers);
+
+        // Attack tables are built on first use; pay for that here, not in the first search.
+        MoveGenerator.hasLegalMove(Position.startPosition(), new int[MoveGenerator.MAX_MOVES]);
+    }
+
+    public SearchResult search(Position position, SearchLimits limits, int threads) {
+        int wanted = Math.max(1, Math.min(threads, maxThreadsPerSearch));
+        searchThreads.acquireUninterruptibly();
+        int granted = 1;
+        while (granted < wanted && searchThreads.tryAcquire()) {
+            granted++;
+        }
+        try {
+            return parallelSearch.search(position, limits, granted);
+        } finally {
+            searchThreads.release(granted);
+        }
+    }
+
+    public SearchResult search(String fen, Long movetimeMs, Integer depth, Integer threads) {
+        if (fen == null || fen.isBlank()) {
+            throw new RuntimeException("FEN is required");
+        }
+        Position position;
+        try {
+            position = Position.fromFen(fen);
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Invalid FEN: " + fen);
+        }
+        validate(position);
+
+        long movetime = movetimeMs == null ? 1000 : Math.max(1, Math.min(movetimeMs, MAX_MOVETIME_MS));
+        SearchLimits limits = SearchLimits.movetime(movetime);
+        if (depth != null) {
+            limits = limits.withMaxDepth(depth);
+        }
+        apiSearches.acquireUninterruptibly();
+        try {
+            return search(position, limits, threads == null ? 1 : threads);
+        } finally {
+            apiSearches.release();
+        }
+    }
+
+    public int getMaxThreadsPerSearch() {
+        return maxThreadsPerSearch;
+    }
+
+    private static void validate(Position position) {
+        if (Long.bitCount(position.pieces(Pieces.WHITE, Pieces.KING)) != 1
+                || Long.bitCount(position.pieces(Pieces.BLACK, Pieces.KING)) != 1) {
+            throw new RuntimeException("Invalid FEN: each side needs exactly one king");
+        }
+        int opponent = position.sideToMove() ^ 1;
+        if (position.isSquareAttacked(position.kingSquare(opponent), position.sideToMove())) {
+            throw new RuntimeException("Invalid FEN: side not to move is in check");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        helpers.shutdownNow();
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.matchservice.service;
+
+import com.example.matchservice.config.WireFormat;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+/**
+ * Sends a payload once per encoding that has subscribers. Binary encodings are sent as
+ * application/octet-stream with an {@code encoding} header, since that is what makes the
+ * STOMP handler use binary WebSocket frames; SockJS sessions can only use JSON.
+ */
+@Component
+public class FramePublisher {
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final SubscriptionTracker subscriptionTracker;
+
+    public FramePublisher(SimpMessagingTemplate messagingTemplate, SubscriptionTracker subscriptionTracker) {
+        this.messagingTemplate = messagingTemplate;
+        this.subscriptionTracker = subscriptionTracker;
+    }
+
+    public boolean hasSubscribers(String destination) {
+        for (WireFormat format : WireFormat.values()) {
+            if (subscriptionTracker.hasSubscribers(destination + format.suffix())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void publish(String destination, Object payload) {
+        for (WireFormat format : WireFormat.values()) {
+            String target = destination + format.suffix();
+            if (!subscriptionTracker.hasSubscribers(target)) {
+                continue;
+            }
+            if (!format.isBinary()) {
+                messagingTemplate.convertAndSend(target, payload);
+                continue;
+            }
+            try {
+                byte[] bytes = format.mapper().writeValueAsBytes(payload);
+                SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create();
+                accessor.setContentType(MimeTypeUtils.APPLICATION_OCTET_STREAM);
+                accessor.setNativeHeader("encoding", format.mimeType().toString());
+                accessor.setLeaveMutable(true);
+                messagingTemplate.convertAndSend(target, bytes, accessor.getMessageHeaders());
+            } catch (Exception e) {
+                System.err.println("Error encoding frame for " + target + ": " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.matchservice.service;
+
+/**
+ * Published by {@link GameService} once a game has a result, with the live status that
+ * ended it (CHECKMATE, STALEMATE, RESIGNED, ...).
+ */
+public record GameFinishedEvent(Long matchId, String status) {
+}
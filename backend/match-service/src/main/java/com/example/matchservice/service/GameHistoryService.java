@@ -0,0 +1,242 @@
+package com.example.matchservice.service;
+
+import com.example.matchservice.config.WireFormat;
+import com.example.matchservice.model.DTO.ReplayMoveDTO;
+import com.example.matchservice.model.User;
+import com.example.matchservice.repo.MatchRepo;
+import com.example.matchservice.repo.MoveRepo;
+import com.example.matchservice.repo.UserRepo;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Stored games read back from the database for clients, streamed rather than loaded: rows
+ * come through a read-only cursor and are written to the response as they arrive, so a
+ * replay costs the same server memory however long the game is, and a PGN export the same
+ * however many games the player has. Moves still in the {@link MovePersister} queue are not
+ * visible yet.
+ *
+ * <p>Metrics: {@code history.moves.streamed} and {@code history.pgn.games}.
+ */
+@Service
+public class GameHistoryService {
+
+    // A player's finished games with their moves, in one pass ordered by game then ply.
+    static final String EXPORT_GAMES = "SELECT m.id, m.game_type, m.status, m.started_at, m.termination, "
+            + "p1.user_name, p2.user_name, w.user_name, mv.san, mv.uci "
+            + "FROM matches m JOIN users p1 ON p1.user_id = m.player1_id JOIN users p2 ON p2.user_id = m.player2_id "
+            + "LEFT JOIN users w ON w.user_id = m.winner_id LEFT JOIN moves mv ON mv.match_id = m.id "
+            + "WHERE (m.player1_id = ? OR m.player2_id = ?) AND m.status <> 'IN_PROGRESS' "
+            + "ORDER BY m.id, mv.ply";
+    // Bot games played in the browser are only recorded as results, without moves. Abandoned
+    // server games also have a game_results row; they are exported with their moves instead.
+    static final String EXPORT_RESULTS_ONLY = "SELECT game_type, status, played_at, player1_name, player2_name, "
+            + "winner_name FROM game_results "
+            + "WHERE status <> 'ABANDONED' AND (player1_name = ? OR player2_name = ?) ORDER BY played_at";
+
+    private static final int EXPORT_BUFFER_BYTES = 64 * 1024;
+    private static final DateTimeFormatter PGN_DATE = DateTimeFormatter.ofPattern("yyyy.MM.dd");
+
+    private final MatchRepo matchRepo;
+    private final MoveRepo moveRepo;
+    private final UserRepo userRepo;
+    private final TransactionTemplate readOnly;
+    // Flushing is per fetched batch, not per line.
+    private final ObjectWriter writer = WireFormat.JSON.mapper().writer()
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    private final JdbcTemplate exportJdbc;
+    private final Counter movesStreamed;
+    private final Counter pgnGames;
+
+    public GameHistoryService(MatchRepo matchRepo, MoveRepo moveRepo, UserRepo userRepo,
+            PlatformTransactionManager transactionManager, JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.matchRepo = matchRepo;
+        this.moveRepo = moveRepo;
+        this.userRepo = userRepo;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        // Integer.MIN_VALUE makes MySQL Connector/J stream rows one by one as the server sends
+        // them, instead of buffering the result or opening a server-side cursor.
+        this.exportJdbc = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.exportJdbc.setFetchSize(Integer.MIN_VALUE);
+        this.movesStreamed = meterRegistry.counter("history.moves.streamed");
+        this.pgnGames = meterRegistry.counter("history.pgn.games");
+    }
+
+    public boolean exists(Long matchId) {
+        return matchRepo.existsById(matchId);
+    }
+
+    /**
+     * The user id of the player, or null when there is no such user.
+     */
+    public Long userId(String username) {
+        User user = userRepo.getUserByUsername(username);
+        return user == null ? null : user.getUserId();
+    }
+
+    /**
+     * Writes up to {@code limit} moves of the game from ply {@code fromPly} on (the first
+     * move is ply 1) as NDJSON, one {@link ReplayMoveDTO} per line, flushing after every
+     * {@link MoveRepo#REPLAY_FETCH_SIZE} rows so the client can render while the rest is
+     * streamed. A null limit means to the end of the game.
+     */
+    public void streamMoves(Long matchId, int fromPly, Integer limit, OutputStream out) throws IOException {
+        int toPly = limit == null ? Integer.MAX_VALUE : (int) Math.min((long) fromPly + limit, Integer.MAX_VALUE);
+        try (JsonGenerator generator = writer.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            readOnly.executeWithoutResult(status -> {
+                try (Stream<ReplayMoveDTO> moves = moveRepo.streamReplay(matchId, fromPly, toPly)) {
+                    writeLines(moves.iterator(), generator);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void writeLines(Iterator<ReplayMoveDTO> moves, JsonGenerator generator) throws IOException {
+        int written = 0;
+        while (moves.hasNext()) {
+            writer.writeValue(generator, moves.next());
+            generator.writeRaw('\n');
+            if (++written % MoveRepo.REPLAY_FETCH_SIZE == 0) {
+                generator.flush();
+                movesStreamed.increment(MoveRepo.REPLAY_FETCH_SIZE);
+            }
+        }
+        generator.flush();
+        movesStreamed.increment(written % MoveRepo.REPLAY_FETCH_SIZE);
+    }
+
+    /**
+     * Writes every finished game of the player as PGN, gzip-compressed (at the fastest level,
+     * to keep up with the database) when {@code gzip} is set: first the games played on the
+     * server with their moves, then the bot games only recorded as results.
+     */
+    public void exportPgn(Long userId, String username, OutputStream out, boolean gzip) throws IOException {
+        OutputStream target = gzip ? new GZIPOutputStream(out, EXPORT_BUFFER_BYTES) {
+            {
+                def.setLevel(Deflater.BEST_SPEED);
+            }
+        } : out;
+        PgnWriter pgn = new PgnWriter(target, EXPORT_BUFFER_BYTES);
+
+        ServerGames games = new ServerGames(pgn);
+        try {
+            exportJdbc.query(EXPORT_GAMES, games, userId, userId);
+            games.finish();
+            exportJdbc.query(EXPORT_RESULTS_ONLY, (RowCallbackHandler) rs -> writeResultOnly(pgn, rs), username,
+                    username);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        pgn.flush();
+        if (target instanceof GZIPOutputStream compressed) {
+            compressed.finish();
+        }
+    }
+
+    private void writeResultOnly(PgnWriter pgn, ResultSet rs) throws SQLException {
+        String white = rs.getString(4);
+        String black = rs.getString(5);
+        String winner = rs.getString(6);
+        String result = "DRAW".equals(rs.getString(2)) ? "1/2-1/2"
+                : winner == null ? "*" : winner.equals(white) ? "1-0" : winner.equals(black) ? "0-1" : "*";
+        try {
+            pgn.beginGame("IndiChess " + rs.getString(1), pgnDate(rs.getTimestamp(3)), white, black, result, null);
+            pgn.endGame(result);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        pgnGames.increment();
+    }
+
+    private static String pgnDate(Timestamp timestamp) {
+        return timestamp == null ? "????.??.??" : timestamp.toLocalDateTime().format(PGN_DATE);
+    }
+
+    /**
+     * Turns the rows of {@link #EXPORT_GAMES} (one per move, or one with null move columns
+     * for a game without moves) back into games as the match id changes.
+     */
+    private final class ServerGames implements RowCallbackHandler {
+
+        private final PgnWriter pgn;
+        private long matchId = -1;
+        private String result;
+
+        ServerGames(PgnWriter pgn) {
+            this.pgn = pgn;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            try {
+                long id = rs.getLong(1);
+                if (id != matchId) {
+                    finish();
+                    matchId = id;
+                    begin(rs);
+                }
+                String san = rs.getString(9);
+                if (san == null) {
+                    san = rs.getString(10);
+                }
+                if (san != null) {
+                    pgn.move(san);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void begin(ResultSet rs) throws SQLException, IOException {
+            String white = rs.getString(6);
+            String black = rs.getString(7);
+            String winner = rs.getString(8);
+            result = "DRAW".equals(rs.getString(3)) ? "1/2-1/2"
+                    : winner == null ? "*" : winner.equals(white) ? "1-0" : "0-1";
+            String termination = "ABANDONED".equals(rs.getString(5)) ? "abandoned" : "normal";
+            pgn.beginGame("IndiChess " + rs.getString(2), pgnDate(rs.getTimestamp(4)), white, black, result,
+                    termination);
+        }
+
+        void finish() {
+            if (matchId < 0) {
+                return;
+            }
+            try {
+                pgn.endGame(result);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            pgnGames.increment();
+            matchId = -1;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.matchservice.service;
+
+/**
+ * Published by {@link MovePersister} once a game's result has been committed to the database.
+ */
+public record GamePersistedEvent(Long matchId) {
+}
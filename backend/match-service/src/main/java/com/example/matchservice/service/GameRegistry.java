@@ -0,0 +1,126 @@
+package com.example.matchservice.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Who plays which game, for the games in progress. The states themselves live in
+ * {@link GameStateStore}, which may have them off-heap or not loaded at all; this keeps the
+ * small indexes that must answer without touching it: match id to players, username to the
+ * player's active matches, and username to a pairing the player has not picked up yet. A
+ * game is registered when it is created or brought back into memory and leaves every index
+ * when it finishes.
+ *
+ * <p>Metrics: {@code games.active}, {@code players.active} and {@code matchmaking.unclaimed}.
+ */
+@Component
+public class GameRegistry {
+
+    private final Map<Long, Players> players = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> activeMatches = new ConcurrentHashMap<>();
+    private final Map<String, Long> unclaimed = new ConcurrentHashMap<>();
+
+    public GameRegistry(MeterRegistry meterRegistry) {
+        Gauge.builder("games.active", players, Map::size).register(meterRegistry);
+        Gauge.builder("players.active", activeMatches, Map::size).register(meterRegistry);
+        Gauge.builder("matchmaking.unclaimed", unclaimed, Map::size).register(meterRegistry);
+    }
+
+    public void register(Long matchId, String player1, String player2) {
+        if (players.putIfAbsent(matchId, new Players(player1, player2)) != null) {
+            return;
+        }
+        index(player1, matchId);
+        index(player2, matchId);
+    }
+
+    /**
+     * Drops the game from every index, including a pairing nobody picked up.
+     */
+    public void finish(Long matchId) {
+        Players removed = players.remove(matchId);
+        if (removed == null) {
+            return;
+        }
+        unindex(removed.player1(), matchId);
+        unindex(removed.player2(), matchId);
+        unclaimed.remove(removed.player1(), matchId);
+        unclaimed.remove(removed.player2(), matchId);
+    }
+
+    @EventListener
+    public void onGameFinished(GameFinishedEvent event) {
+        finish(event.matchId());
+    }
+
+    public Players players(Long matchId) {
+        return players.get(matchId);
+    }
+
+    public Set<Long> activeMatches(String username) {
+        Set<Long> matches = activeMatches.get(username);
+        return matches == null ? Collections.emptySet() : Collections.unmodifiableSet(matches);
+    }
+
+    /**
+     * Records a match the player was paired into while waiting, for them to pick up.
+     */
+    public void announce(String username, Long matchId) {
+        unclaimed.put(username, matchId);
+    }
+
+    /**
+     * The match waiting to be picked up by the player, or null.
+     */
+    public Long unclaimedMatch(String username) {
+        return unclaimed.get(username);
+    }
+
+    /**
+     * Takes the player's unclaimed match, or null if there is none.
+     */
+    public Long claim(String username) {
+        return unclaimed.remove(username);
+    }
+
+    public boolean claim(String username, Long matchId) {
+        return unclaimed.remove(username, matchId);
+    }
+
+    public int activeGameCount() {
+        return players.size();
+    }
+
+    public int activePlayerCount() {
+        return activeMatches.size();
+    }
+
+    private void index(String username, Long matchId) {
+        activeMatches.computeIfAbsent(username, key -> ConcurrentHashMap.newKeySet()).add(matchId);
+    }
+
+    private void unindex(String username, Long matchId) {
+        activeMatches.computeIfPresent(username, (key, matches) -> {
+            matches.remove(matchId);
+            return matches.isEmpty() ? null : matches;
+        });
+    }
+
+    public record Players(String player1, String player2) {
+
+        /** The other player, or null if {@code username} is not in this game. */
+        public String opponentOf(String username) {
+            if (username.equals(player1)) {
+                return player2;
+            }
+            return username.equals(player2) ? player1 : null;
+        }
+    }
+}
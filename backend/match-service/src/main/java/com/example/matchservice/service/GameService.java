@@ -1,86 +1,74 @@
 package com.example.matchservice.service;
 
+import com.example.matchservice.chess.MoveGenerator;
+import com.example.matchservice.chess.Moves;
+import com.example.matchservice.chess.Notation;
+import com.example.matchservice.chess.Pieces;
+import com.example.matchservice.chess.Position;
+import com.example.matchservice.chess.Squares;
+import com.example.matchservice.engine.Tablebase;
+import com.example.matchservice.engine.Tablebases;
+import com.example.matchservice.journal.MoveJournal;
 import com.example.matchservice.model.DTO.*;
 import com.example.matchservice.model.Match;
+import com.example.matchservice.model.MatchStatus;
 import com.example.matchservice.repo.MatchRepo;
+import com.example.matchservice.repo.MoveRepo;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
 import java.security.Principal;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class GameService {
 
     private final MatchRepo matchRepo;
+    private final MoveRepo moveRepo;
     private final JwtService jwtService;
     private final SimpMessagingTemplate messagingTemplate;
-
-    public GameService(MatchRepo matchRepo, JwtService jwtService,
-            SimpMessagingTemplate messagingTemplate) {
+    private final FramePublisher framePublisher;
+    private final TablebaseService tablebaseService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MovePersister movePersister;
+    private final MoveJournalService moveJournal;
+    private final GameStateStore gameStore;
+    private final ClockService clocks;
+    private final SpectatorHub spectators;
+    private final MatchLanes lanes;
+
+    public GameService(MatchRepo matchRepo, MoveRepo moveRepo, JwtService jwtService,
+            SimpMessagingTemplate messagingTemplate, FramePublisher framePublisher,
+            TablebaseService tablebaseService, ApplicationEventPublisher eventPublisher,
+            MovePersister movePersister, MoveJournalService moveJournal, GameStateStore gameStore,
+            ClockService clocks, SpectatorHub spectators, MatchLanes lanes) {
         this.matchRepo = matchRepo;
+        this.moveRepo = moveRepo;
         this.jwtService = jwtService;
         this.messagingTemplate = messagingTemplate;
+        this.framePublisher = framePublisher;
+        this.tablebaseService = tablebaseService;
+        this.eventPublisher = eventPublisher;
+        this.movePersister = movePersister;
+        this.moveJournal = moveJournal;
+        this.gameStore = gameStore;
+        this.clocks = clocks;
+        this.spectators = spectators;
+        this.lanes = lanes;
+        gameStore.onRevive(this::ensureClockArmed);
     }
 
-    private final Map<Long, GameState> activeGames = new ConcurrentHashMap<>();
-    private final Map<Long, List<String>> gamePlayers = new ConcurrentHashMap<>();
-
-    private static class GameState {
-        private String[][] board;
-        private boolean isWhiteTurn;
-        private String status;
-        private String player1Username;
-        private String player2Username;
-
-        public GameState() {
-        }
-
-        public String[][] getBoard() {
-            return board;
-        }
-
-        public void setBoard(String[][] board) {
-            this.board = board;
-        }
-
-        public boolean isWhiteTurn() {
-            return isWhiteTurn;
-        }
-
-        public void setWhiteTurn(boolean whiteTurn) {
-            isWhiteTurn = whiteTurn;
-        }
-
-        public String getStatus() {
-            return status;
-        }
-
-        public void setStatus(String status) {
-            this.status = status;
-        }
-
-        public String getPlayer1Username() {
-            return player1Username;
-        }
-
-        public void setPlayer1Username(String player1Username) {
-            this.player1Username = player1Username;
-        }
-
-        public String getPlayer2Username() {
-            return player2Username;
-        }
-
-        public void setPlayer2Username(String player2Username) {
-            this.player2Username = player2Username;
-        }
-    }
+    private final ThreadLocal<int[]> moveBuffers = ThreadLocal.withInitial(() -> new int[MoveGenerator.MAX_MOVES]);
 
+    /**
+     * The game as the requesting player sees it. The live state is read on the game's
+     * {@link MatchLanes} lane; the caller waits for it.
+     */
     public GameDTO getGameDetails(Long matchId, HttpServletRequest request) {
         String username = getUsernameFromRequest(request);
         if (username == null) {
@@ -94,18 +82,14 @@ public class GameService {
 
         Match match = matchOpt.get();
         String playerColor = determinePlayerColor(match, username);
-        boolean isMyTurn = determineMyTurn(match, username);
-
-        GameState gameState = activeGames.get(matchId);
-        if (gameState == null) {
-            gameState = initializeGameState(match);
-            activeGames.put(matchId, gameState);
+        return lanes.call(matchId, () -> gameDetails(match, username, playerColor));
+    }
 
-            List<String> players = new ArrayList<>();
-            players.add(match.getPlayer1().getUsername());
-            players.add(match.getPlayer2().getUsername());
-            gamePlayers.put(matchId, players);
-        }
+    private GameDTO gameDetails(Match match, String username, String playerColor) {
+        Long matchId = match.getId();
+        GameState gameState = gameStore.load(match);
+        boolean isMyTurn = determineMyTurn(match, username);
+        ensureClockArmed(matchId, gameState);
 
         GameDTO gameDTO = new GameDTO();
         gameDTO.setId(match.getId());
@@ -115,9 +99,15 @@ public class GameService {
         gameDTO.setPlayerColor(playerColor);
         gameDTO.setMyTurn(isMyTurn);
         gameDTO.setBoard(gameState.getBoard());
-        gameDTO.setFen(convertBoardToFEN(gameState.getBoard(), gameState.isWhiteTurn()));
+        gameDTO.setFen(gameState.getFen());
         gameDTO.setCreatedAt(match.getCreatedAt());
         gameDTO.setUpdatedAt(match.getUpdatedAt());
+        ChessClock clock = gameState.getClock();
+        if (clock != null) {
+            long now = System.currentTimeMillis();
+            gameDTO.setWhiteMs(clock.remaining(true, gameState.isWhiteTurn(), now));
+            gameDTO.setBlackMs(clock.remaining(false, gameState.isWhiteTurn(), now));
+        }
 
         return gameDTO;
     }
@@ -132,7 +122,7 @@ public class GameService {
     }
 
     private boolean determineMyTurn(Match match, String username) {
-        GameState gameState = activeGames.get(match.getId());
+        GameState gameState = gameStore.get(match.getId());
         if (gameState == null) {
             return match.getPlayer1().getUsername().equals(username);
         }
@@ -145,28 +135,80 @@ public class GameService {
         }
     }
 
-    private GameState initializeGameState(Match match) {
-        String[][] initialBoard = {
-                { "r", "n", "b", "q", "k", "b", "n", "r" },
-                { "p", "p", "p", "p", "p", "p", "p", "p" },
-                { "", "", "", "", "", "", "", "" },
-                { "", "", "", "", "", "", "", "" },
-                { "", "", "", "", "", "", "", "" },
-                { "", "", "", "", "", "", "", "" },
-                { "P", "P", "P", "P", "P", "P", "P", "P" },
-                { "R", "N", "B", "Q", "K", "B", "N", "R" }
-        };
+    /**
+     * Rebuilds the games the journal still holds after a restart. Moves past the ply the
+     * database has, and results it never got, are queued for persistence again. Timed games
+     * resume with the clock times of their last move, the side to move's turn starting now.
+     */
+    @PostConstruct
+    void restoreFromJournal() {
+        int restored = 0;
+        for (MoveJournal.Game game : moveJournal.recoveredGames()) {
+            try {
+                restoreGame(game);
+                restored++;
+            } catch (Exception e) {
+                System.err.println("❌ Failed to restore game " + game.getMatchId() + " from journal: " + e.getMessage());
+            }
+        }
+        if (restored > 0) {
+            System.out.println("Restored " + restored + " games from the move journal");
+        }
+    }
 
+    private void restoreGame(MoveJournal.Game game) {
+        Long matchId = game.getMatchId();
         GameState gameState = new GameState();
-        gameState.setBoard(initialBoard);
-        gameState.setWhiteTurn(true);
-        gameState.setStatus("IN_PROGRESS");
-        gameState.setPlayer1Username(match.getPlayer1().getUsername());
-        gameState.setPlayer2Username(match.getPlayer2().getUsername());
-
-        return gameState;
+        gameState.setPosition(Position.startPosition());
+        gameState.setStatus(game.getStatus() == null ? "IN_PROGRESS" : game.getStatus());
+        gameState.setPlayer1Username(game.getPlayer1());
+        gameState.setPlayer2Username(game.getPlayer2());
+
+        Optional<Match> match = matchRepo.findById(matchId);
+        // The journal has the times after its last move; a game it holds no timed moves of
+        // falls back to the times stored with the match.
+        boolean journaled = game.getWhiteMs() != MoveJournal.NO_CLOCK;
+        Long whiteMs = journaled ? Long.valueOf(game.getWhiteMs()) : match.map(Match::getWhiteMs).orElse(null);
+        Long blackMs = journaled ? Long.valueOf(game.getBlackMs()) : match.map(Match::getBlackMs).orElse(null);
+
+        // matches.current_ply starts at 1 before any move; the moves table is exact.
+        int persistedPly = moveRepo.maxPly(matchId);
+        int[] buffer = moveBuffers.get();
+        for (int move : game.getMoves()) {
+            if (gameState.getPly() < persistedPly) {
+                gameState.applyMove(move);
+                continue;
+            }
+            String san = Notation.toSan(gameState.getPosition(), move, buffer);
+            String fenBefore = gameState.getFen();
+            gameState.applyMove(move);
+            boolean last = gameState.getPly() == game.getPly();
+            movePersister.enqueueMove(matchId, gameState.getPly(), Moves.toUci(move), san, fenBefore,
+                    gameState.getFen(), last ? whiteMs : null, last ? blackMs : null, null, null);
+        }
+        if (game.getResult() != null) {
+            Boolean whiteWon = game.getWinner() == MoveJournal.NO_WINNER ? null : game.getWinner() == MoveJournal.WHITE;
+            movePersister.enqueueResult(matchId, MatchStatus.valueOf(game.getResult()), whiteWon,
+                    "ABANDONED".equals(game.getStatus()) ? "ABANDONED" : null);
+        }
+
+        ChessClock clock = match.map(m -> gameState.getPly() > 0
+                ? clocks.resumeClock(m.getGameType(), whiteMs, blackMs)
+                : clocks.newClock(m.getGameType())).orElse(null);
+        gameState.setClock(clock);
+        gameStore.put(matchId, gameState);
+        armClock(matchId, gameState);
     }
 
+    /**
+     * Validates and applies a move, then publishes it: a {@link MoveFrame} on
+     * /topic/moves/{matchId}/delta (and to spectators) and the full MoveDTO on
+     * /topic/moves/{matchId}, each only while it has subscribers in some encoding. Returns
+     * null when the MoveDTO was not built.
+     * In a timed game the mover's clock is charged first; a move made after their flag fell
+     * ends the game on time instead. The game state is not locked: callers run this on the
+     * game's {@link MatchLanes} lane.
+     */
     public MoveDTO processMove(Long matchId, MoveRequest moveRequest, Principal principal) {
         String username = principal.getName();
 
@@ -183,7 +225,7 @@ public class GameService {
             throw new RuntimeException("Player color cannot be null");
         }
 
-        GameState gameState = activeGames.get(matchId);
+        GameState gameState = gameStore.load(matchId);
         if (gameState == null) {
             throw new RuntimeException("Game not found or not active");
         }
@@ -203,50 +245,222 @@ public class GameService {
             throw new RuntimeException("Invalid move: Black's turn but player is " + playerColor);
         }
 
-        String[][] newBoard = moveRequest.getBoard();
-        if (newBoard == null) {
-            throw new RuntimeException("Board cannot be null");
+        if (!"IN_PROGRESS".equals(gameState.getStatus())) {
+            throw new RuntimeException("Game is already over");
         }
 
-        gameState.setBoard(newBoard);
-        gameState.setWhiteTurn(!isWhiteTurn);
-        gameState.setStatus("IN_PROGRESS");
+        if (!Squares.isValidRowCol(moveRequest.getFromRow(), moveRequest.getFromCol()) ||
+                !Squares.isValidRowCol(moveRequest.getToRow(), moveRequest.getToCol())) {
+            throw new RuntimeException("Move coordinates out of range");
+        }
 
-        activeGames.put(matchId, gameState);
+        Position position = gameState.getPosition();
+        if (moveRequest.getPositionHash() != null && moveRequest.getPositionHash() != position.hash()) {
+            throw new RuntimeException("Position out of sync");
+        }
 
-        try {
-            updateMatchInDatabase(matchId, moveRequest);
-        } catch (Exception e) {
-            System.err.println("⚠️ Failed to update database: " + e.getMessage());
+        int from = Squares.fromRowCol(moveRequest.getFromRow(), moveRequest.getFromCol());
+        int to = Squares.fromRowCol(moveRequest.getToRow(), moveRequest.getToCol());
+        int promotion = moveRequest.getPromotedTo() == null || moveRequest.getPromotedTo().isEmpty()
+                ? Pieces.NONE
+                : Pieces.typeFromSymbol(moveRequest.getPromotedTo().charAt(0));
+
+        int[] buffer = moveBuffers.get();
+        int move = MoveGenerator.findLegal(position, from, to, promotion, buffer);
+        if (move == Moves.NONE) {
+            throw new RuntimeException("Illegal move");
         }
 
-        String moveNotation = createMoveNotation(moveRequest);
+        ChessClock clock = gameState.getClock();
+        if (clock != null && !clock.punch(isWhiteTurn, System.currentTimeMillis())) {
+            endOnTime(matchId, gameState, isWhiteTurn);
+            throw new RuntimeException("Out of time");
+        }
+
+        int movedPiece = position.pieceAt(from);
+        int capturedPiece = Moves.isEnPassant(move)
+                ? Pieces.make(position.sideToMove() ^ 1, Pieces.PAWN)
+                : position.pieceAt(to);
+
+        String san = Notation.toSan(position, move, buffer);
+        String fenBefore = gameState.getFen();
+        gameState.applyMove(move);
+        String fenAfter = gameState.getFen();
+
+        if (!MoveGenerator.hasLegalMove(position, buffer)) {
+            gameState.setStatus(position.isInCheck() ? "CHECKMATE" : "STALEMATE");
+        } else if (position.isThreefoldRepetition()) {
+            // Ends the game at the first threefold, so fivefold repetition is never reached.
+            gameState.setStatus("THREEFOLD_REPETITION");
+        } else if (position.isSeventyFiveMoveDraw()) {
+            gameState.setStatus("SEVENTY_FIVE_MOVE_RULE");
+        }
+
+        String status = gameState.getStatus();
+        MatchStatus result = "CHECKMATE".equals(status) ? MatchStatus.FINISHED
+                : "IN_PROGRESS".equals(status) ? null : MatchStatus.DRAW;
+        Boolean whiteWon = result == MatchStatus.FINISHED ? isWhiteTurn : null;
+        Long whiteMs = clock == null ? null : clock.getWhiteMs();
+        Long blackMs = clock == null ? null : clock.getBlackMs();
+        moveJournal.move(matchId, gameState.getPly(), move, whiteMs, blackMs);
+        if (result != null) {
+            moveJournal.end(matchId, status, result, whiteWon);
+        }
+        movePersister.enqueueMove(matchId, gameState.getPly(), Moves.toUci(move), san, fenBefore, fenAfter, whiteMs,
+                blackMs, result, whiteWon);
+
+        if (!"IN_PROGRESS".equals(gameState.getStatus())) {
+            eventPublisher.publishEvent(new GameFinishedEvent(matchId, gameState.getStatus()));
+        } else {
+            armClock(matchId, gameState);
+        }
+
+        String topic = "/topic/moves/" + matchId;
+        boolean deltaSubscribers = framePublisher.hasSubscribers(topic + "/delta");
+        if (deltaSubscribers || spectators.hasSpectators(matchId)) {
+            MoveFrame frame = createMoveFrame(matchId, gameState, move);
+            if (deltaSubscribers) {
+                framePublisher.publish(topic + "/delta", frame);
+            }
+            spectators.broadcast(matchId, frame);
+        }
+
+        if (!framePublisher.hasSubscribers(topic)) {
+            return null;
+        }
 
         MoveDTO moveDTO = new MoveDTO();
         moveDTO.setFromRow(moveRequest.getFromRow());
         moveDTO.setFromCol(moveRequest.getFromCol());
         moveDTO.setToRow(moveRequest.getToRow());
         moveDTO.setToCol(moveRequest.getToCol());
-        moveDTO.setPiece(moveRequest.getPiece());
-        moveDTO.setPromotedTo(moveRequest.getPromotedTo());
-        moveDTO.setCapturedPiece(moveRequest.getCapturedPiece());
-        moveDTO.setCastled(moveRequest.getCastled() != null ? moveRequest.getCastled() : false);
-        moveDTO.setIsEnPassant(moveRequest.getIsEnPassant() != null ? moveRequest.getIsEnPassant() : false);
-        moveDTO.setIsPromotion(moveRequest.getIsPromotion() != null ? moveRequest.getIsPromotion() : false);
-        moveDTO.setFenBefore(moveRequest.getFenBefore());
-        moveDTO.setFenAfter(moveRequest.getFenAfter());
-        moveDTO.setBoard(newBoard);
+        moveDTO.setPiece(String.valueOf(Pieces.symbol(movedPiece)));
+        moveDTO.setPromotedTo(Moves.isPromotion(move)
+                ? String.valueOf(Pieces.symbol(Pieces.make(isWhiteTurn ? Pieces.WHITE : Pieces.BLACK,
+                        Moves.promotion(move))))
+                : null);
+        moveDTO.setCapturedPiece(capturedPiece == Pieces.NONE ? null : String.valueOf(Pieces.symbol(capturedPiece)));
+        moveDTO.setCastled(Moves.isCastle(move));
+        moveDTO.setIsEnPassant(Moves.isEnPassant(move));
+        moveDTO.setIsPromotion(Moves.isPromotion(move));
+        moveDTO.setFenBefore(fenBefore);
+        moveDTO.setFenAfter(fenAfter);
+        moveDTO.setBoard(position.toBoardArray());
         moveDTO.setIsWhiteTurn(!isWhiteTurn);
         moveDTO.setPlayerColor(playerColor);
         moveDTO.setMatchId(matchId);
         moveDTO.setTimestamp(LocalDateTime.now());
-        moveDTO.setMoveNotation(moveNotation);
+        moveDTO.setMoveNotation(createMoveNotation(moveDTO));
         moveDTO.setPlayerUsername(username);
+        moveDTO.setPositionHash(position.hash());
+        if (clock != null) {
+            moveDTO.setWhiteMs(clock.getWhiteMs());
+            moveDTO.setBlackMs(clock.getBlackMs());
+        }
 
+        framePublisher.publish(topic, moveDTO);
         return moveDTO;
     }
 
-    private String createMoveNotation(MoveRequest move) {
+    MoveFrame createMoveFrame(Long matchId, GameState gameState, int move) {
+        MoveFrame frame = new MoveFrame(matchId, gameState.getPly(), Moves.from(move), Moves.to(move),
+                Moves.isPromotion(move) ? String.valueOf(Character.toLowerCase(Pieces.symbol(Moves.promotion(move))))
+                        : null,
+                gameState.getPosition().hash());
+        if (!"IN_PROGRESS".equals(gameState.getStatus())) {
+            frame.setStatus(gameState.getStatus());
+        }
+        ChessClock clock = gameState.getClock();
+        if (clock != null) {
+            // Just punched: the stored times are the remaining times as of this move.
+            frame.setWhiteMs(clock.getWhiteMs());
+            frame.setBlackMs(clock.getBlackMs());
+        }
+        return frame;
+    }
+
+    /**
+     * Arms the flag timer of a timed game in progress for its side to move.
+     */
+    private void armClock(Long matchId, GameState gameState) {
+        ChessClock clock = gameState.getClock();
+        if (clock == null || !"IN_PROGRESS".equals(gameState.getStatus())) {
+            return;
+        }
+        long deadline = clock.deadline(gameState.isWhiteTurn());
+        if (deadline >= 0) {
+            clocks.arm(matchId, deadline, () -> checkFlag(matchId));
+        }
+    }
+
+    /**
+     * Arms the timer of a game whose clock runs without one, as after a reload.
+     */
+    private void ensureClockArmed(Long matchId, GameState gameState) {
+        if (gameState.getClock() != null && !clocks.isArmed(matchId)) {
+            armClock(matchId, gameState);
+        }
+    }
+
+    /**
+     * Flag timer callback, on the game's lane. The timer may be stale (a move came in after
+     * it was armed), so the clock itself decides; if time is left the timer is re-armed. A
+     * game that dropped out of memory meanwhile is loaded back.
+     */
+    void checkFlag(Long matchId) {
+        GameState gameState = gameStore.load(matchId);
+        ChessClock clock = gameState == null ? null : gameState.getClock();
+        if (clock == null || !"IN_PROGRESS".equals(gameState.getStatus())) {
+            clocks.cancel(matchId);
+            return;
+        }
+        boolean whiteToMove = gameState.isWhiteTurn();
+        if (clock.remaining(whiteToMove, whiteToMove, System.currentTimeMillis()) > 0) {
+            armClock(matchId, gameState);
+            return;
+        }
+        endOnTime(matchId, gameState, whiteToMove);
+    }
+
+    /**
+     * Ends the game on time against {@code whiteFlagged}'s side: a loss, or a draw when the
+     * opponent could not have won (see
+     * {@link #forfeitResult(Position, boolean, Tablebases.Result)}).
+     */
+    private void endOnTime(Long matchId, GameState gameState, boolean whiteFlagged) {
+        gameState.getClock().flag(whiteFlagged);
+        gameState.setStatus("TIMEOUT");
+
+        Boolean whiteWon = forfeitResult(matchId, gameState.getPosition(), whiteFlagged);
+        MatchStatus result = whiteWon == null ? MatchStatus.DRAW : MatchStatus.FINISHED;
+        moveJournal.end(matchId, "TIMEOUT", result, whiteWon);
+        movePersister.enqueueResult(matchId, result, whiteWon);
+
+        GameStatusDTO statusDTO = new GameStatusDTO();
+        statusDTO.setMatchId(matchId);
+        statusDTO.setStatus("TIMEOUT");
+        statusDTO.setResult(whiteWon == null ? "1/2-1/2" : whiteWon ? "1-0" : "0-1");
+        statusDTO.setFen(gameState.getFen());
+        statusDTO.setPly(gameState.getPly());
+        statusDTO.setWhiteMs(gameState.getClock().getWhiteMs());
+        statusDTO.setBlackMs(gameState.getClock().getBlackMs());
+        publishGameState(matchId, statusDTO);
+        eventPublisher.publishEvent(new GameFinishedEvent(matchId, "TIMEOUT"));
+    }
+
+    /**
+     * False when {@code color} has a bare king or king and one minor piece, which cannot
+     * mate; their opponent forfeiting then only draws.
+     */
+    private static boolean hasMatingMaterial(Position position, int color) {
+        if ((position.pieces(color, Pieces.PAWN) | position.pieces(color, Pieces.ROOK)
+                | position.pieces(color, Pieces.QUEEN)) != 0) {
+            return true;
+        }
+        return Long.bitCount(position.pieces(color, Pieces.KNIGHT) | position.pieces(color, Pieces.BISHOP)) > 1;
+    }
+
+    String createMoveNotation(MoveDTO move) {
         int toRow = move.getToRow();
         int toCol = move.getToCol();
         String piece = move.getPiece();
@@ -270,35 +484,7 @@ public class GameService {
         return String.valueOf((char) ('a' + col));
     }
 
-    private void updateMatchInDatabase(Long matchId, MoveRequest moveRequest) {
-        try {
-            Optional<Match> matchOpt = matchRepo.findById(matchId);
-            if (matchOpt.isPresent()) {
-                Match match = matchOpt.get();
-
-                if (moveRequest.getFenAfter() != null) {
-                    match.setFenCurrent(moveRequest.getFenAfter());
-                }
-
-                String uci = createUCI(moveRequest);
-                if (!uci.isEmpty()) {
-                    match.setLastMoveUci(uci);
-                }
-
-                Integer currentPly = match.getCurrentPly();
-                if (currentPly == null) {
-                    currentPly = 0;
-                }
-                match.setCurrentPly(currentPly + 1);
-
-                matchRepo.save(match);
-            }
-        } catch (Exception e) {
-            System.err.println("❌ Error updating match in database: " + e.getMessage());
-        }
-    }
-
-    private String createUCI(MoveRequest move) {
+    String createUCI(MoveRequest move) {
         if (move.getFromCol() == null || move.getFromRow() == null ||
                 move.getToCol() == null || move.getToRow() == null) {
             return "";
@@ -334,15 +520,9 @@ public class GameService {
     public GameStatusDTO handlePlayerJoin(Long matchId, JoinRequest joinRequest, Principal principal) {
         String username = principal.getName();
 
-        GameState gameState = activeGames.get(matchId);
+        GameState gameState = gameStore.load(matchId);
         if (gameState == null) {
-            Optional<Match> matchOpt = matchRepo.findById(matchId);
-            if (matchOpt.isPresent()) {
-                gameState = initializeGameState(matchOpt.get());
-                activeGames.put(matchId, gameState);
-            } else {
-                throw new RuntimeException("Game not found");
-            }
+            throw new RuntimeException("Game not found");
         }
 
         GameStatusDTO statusDTO = new GameStatusDTO();
@@ -351,13 +531,63 @@ public class GameService {
         statusDTO.setPlayerColor(joinRequest.getPlayerColor());
         statusDTO.setMyTurn(determineMyTurn(matchId, username));
         statusDTO.setBoard(gameState.getBoard());
-        statusDTO.setFen(convertBoardToFEN(gameState.getBoard(), gameState.isWhiteTurn()));
+        statusDTO.setFen(gameState.getFen());
+        statusDTO.setPositionHash(gameState.getPosition().hash());
+        statusDTO.setPly(gameState.getPly());
+        setClockTimes(statusDTO, gameState);
+        ensureClockArmed(matchId, gameState);
 
         return statusDTO;
     }
 
+    /**
+     * Full state for a client that joined late or fell out of sync with the delta stream.
+     */
+    public GameStatusDTO getSnapshot(Long matchId, Principal principal) {
+        GameState gameState = gameStore.load(matchId);
+        if (gameState == null) {
+            throw new RuntimeException("Game not found or not active");
+        }
+
+        String username = principal.getName();
+        GameStatusDTO statusDTO = new GameStatusDTO();
+        statusDTO.setMatchId(matchId);
+        statusDTO.setStatus(gameState.getStatus());
+        if (username.equals(gameState.getPlayer1Username())) {
+            statusDTO.setPlayerColor("white");
+        } else if (username.equals(gameState.getPlayer2Username())) {
+            statusDTO.setPlayerColor("black");
+        }
+        statusDTO.setMyTurn(determineMyTurn(matchId, username));
+        statusDTO.setBoard(gameState.getBoard());
+        statusDTO.setFen(gameState.getFen());
+        statusDTO.setPositionHash(gameState.getPosition().hash());
+        statusDTO.setPly(gameState.getPly());
+        setClockTimes(statusDTO, gameState);
+        ensureClockArmed(matchId, gameState);
+
+        return statusDTO;
+    }
+
+    /**
+     * Sends a game-state change to the players' topic and to spectators.
+     */
+    private void publishGameState(Long matchId, GameStatusDTO statusDTO) {
+        framePublisher.publish("/topic/game-state/" + matchId, statusDTO);
+        spectators.broadcast(matchId, statusDTO);
+    }
+
+    private static void setClockTimes(GameStatusDTO statusDTO, GameState gameState) {
+        ChessClock clock = gameState.getClock();
+        if (clock != null) {
+            long now = System.currentTimeMillis();
+            statusDTO.setWhiteMs(clock.remaining(true, gameState.isWhiteTurn(), now));
+            statusDTO.setBlackMs(clock.remaining(false, gameState.isWhiteTurn(), now));
+        }
+    }
+
     private boolean determineMyTurn(Long matchId, String username) {
-        GameState gameState = activeGames.get(matchId);
+        GameState gameState = gameStore.get(matchId);
         if (gameState == null)
             return false;
 
@@ -369,56 +599,135 @@ public class GameService {
         }
     }
 
-    private String convertBoardToFEN(String[][] board, boolean isWhiteTurn) {
-        StringBuilder fen = new StringBuilder();
-
-        for (int row = 0; row < 8; row++) {
-            int emptyCount = 0;
-            for (int col = 0; col < 8; col++) {
-                String piece = board[row][col];
-                if (piece == null || piece.isEmpty()) {
-                    emptyCount++;
-                } else {
-                    if (emptyCount > 0) {
-                        fen.append(emptyCount);
-                        emptyCount = 0;
-                    }
-                    fen.append(piece);
-                }
-            }
-            if (emptyCount > 0) {
-                fen.append(emptyCount);
+    /**
+     * Copy of the live position for a game that is still in progress, otherwise null. Taken
+     * on the game's lane, so it can be called from anywhere.
+     */
+    Position copyPosition(Long matchId) {
+        return lanes.call(matchId, () -> {
+            GameState gameState = gameStore.get(matchId);
+            if (gameState == null || !"IN_PROGRESS".equals(gameState.getStatus())) {
+                return null;
             }
-            if (row < 7) {
-                fen.append("/");
-            }
-        }
+            return gameState.getPosition().copy();
+        });
+    }
 
-        fen.append(" ").append(isWhiteTurn ? "w" : "b");
-        fen.append(" ").append("KQkq");
-        fen.append(" ").append("-");
-        fen.append(" ").append("0 1");
+    /**
+     * Moves played so far from the start position, or null if the game is not loaded. Read
+     * on the game's lane, like {@link #copyPosition}.
+     */
+    int[] getMoves(Long matchId) {
+        return lanes.call(matchId, () -> {
+            GameState gameState = gameStore.get(matchId);
+            return gameState == null ? null : gameState.getMoves();
+        });
+    }
 
-        return fen.toString();
+    void removeGame(Long matchId) {
+        gameStore.remove(matchId);
     }
 
-    public void handleResignation(Long matchId, String username) {
-        GameState gameState = activeGames.get(matchId);
-        if (gameState != null) {
-            gameState.setStatus("RESIGNED");
-            activeGames.put(matchId, gameState);
+    /**
+     * Ends the game as a loss for {@code username}. Runs on the game's lane; false when the
+     * game is not in progress or {@code username} is not playing in it.
+     */
+    public boolean handleResignation(Long matchId, String username) {
+        GameState gameState = gameStore.get(matchId);
+        if (gameState == null || !"IN_PROGRESS".equals(gameState.getStatus())) {
+            return false;
+        }
+        boolean whiteResigned = username.equals(gameState.getPlayer1Username());
+        if (!whiteResigned && !username.equals(gameState.getPlayer2Username())) {
+            return false;
+        }
+        gameState.setStatus("RESIGNED");
 
-            GameStatusDTO statusDTO = new GameStatusDTO();
-            statusDTO.setMatchId(matchId);
-            statusDTO.setStatus("RESIGNED");
-            statusDTO.setPlayerColor(getPlayerColor(matchId, username));
+        GameStatusDTO statusDTO = new GameStatusDTO();
+        statusDTO.setMatchId(matchId);
+        statusDTO.setStatus("RESIGNED");
+        statusDTO.setPlayerColor(whiteResigned ? "white" : "black");
+
+        publishGameState(matchId, statusDTO);
+        boolean whiteWon = !whiteResigned;
+        moveJournal.end(matchId, "RESIGNED", MatchStatus.RESIGNED, whiteWon);
+        movePersister.enqueueResult(matchId, MatchStatus.RESIGNED, whiteWon);
+        eventPublisher.publishEvent(new GameFinishedEvent(matchId, "RESIGNED"));
+        return true;
+    }
 
-            messagingTemplate.convertAndSend("/topic/game-state/" + matchId, statusDTO);
+    /**
+     * Ends the game against {@code username}, who left and did not come back within the
+     * reconnect grace period. Scored like a resignation (the match row gets RESIGNED and the
+     * opponent as winner), or a draw when the opponent could not have won (see
+     * {@link #forfeitResult(Position, boolean, Tablebases.Result)}), and recorded in
+     * game_results as ABANDONED. Runs on the game's lane; false when the game was already
+     * over.
+     */
+    public boolean handleAbandonment(Long matchId, String username) {
+        GameState gameState = gameStore.get(matchId);
+        if (gameState == null || !"IN_PROGRESS".equals(gameState.getStatus())) {
+            return false;
         }
+        boolean whiteLeft = username.equals(gameState.getPlayer1Username());
+        if (!whiteLeft && !username.equals(gameState.getPlayer2Username())) {
+            return false;
+        }
+        gameState.setStatus("ABANDONED");
+
+        Boolean whiteWon = forfeitResult(matchId, gameState.getPosition(), whiteLeft);
+        MatchStatus result = whiteWon == null ? MatchStatus.DRAW : MatchStatus.RESIGNED;
+        moveJournal.end(matchId, "ABANDONED", result, whiteWon);
+        movePersister.enqueueResult(matchId, result, whiteWon, "ABANDONED");
+
+        GameStatusDTO statusDTO = new GameStatusDTO();
+        statusDTO.setMatchId(matchId);
+        statusDTO.setStatus("ABANDONED");
+        statusDTO.setPlayerColor(whiteLeft ? "white" : "black");
+        statusDTO.setResult(whiteWon == null ? "1/2-1/2" : whiteWon ? "1-0" : "0-1");
+        statusDTO.setFen(gameState.getFen());
+        statusDTO.setPly(gameState.getPly());
+        publishGameState(matchId, statusDTO);
+        eventPublisher.publishEvent(new GameFinishedEvent(matchId, "ABANDONED"));
+
+        System.out.println("Game " + matchId + " abandoned by " + username);
+        return true;
+    }
+
+    private Boolean forfeitResult(Long matchId, Position position, boolean whiteForfeits) {
+        Tablebases.Result verdict = tablebaseService.probe(position);
+        Boolean whiteWon = forfeitResult(position, whiteForfeits, verdict);
+        if (verdict != null && whiteWon == null) {
+            System.out.println("Game " + matchId + " forfeited in a " + verdict.getMaterial()
+                    + " position the opponent cannot win: scored as a draw");
+        }
+        return whiteWon;
+    }
+
+    /**
+     * The result, as whiteWon (null for a draw), of a game {@code whiteForfeits}'s side
+     * forfeits on time or by leaving: a win for the opponent, lowered to a draw when the
+     * opponent has no mating material or, where {@code verdict} (the tablebase probe of the
+     * position, null when no table covers it) says so, no winning line. The forfeiting side
+     * never gets the win.
+     */
+    static Boolean forfeitResult(Position position, boolean whiteForfeits, Tablebases.Result verdict) {
+        int opponent = whiteForfeits ? Pieces.BLACK : Pieces.WHITE;
+        if (!hasMatingMaterial(position, opponent)) {
+            return null;
+        }
+        if (verdict != null) {
+            // The verdict is for the side to move.
+            int opponentWins = position.sideToMove() == opponent ? Tablebase.WIN : Tablebase.LOSS;
+            if (verdict.getWdl() != opponentWins) {
+                return null;
+            }
+        }
+        return !whiteForfeits;
     }
 
     public void handleDrawOffer(Long matchId, String username) {
-        GameState gameState = activeGames.get(matchId);
+        GameState gameState = gameStore.load(matchId);
         if (gameState != null) {
             String opponent = getOpponentUsername(matchId, username);
 
@@ -432,25 +741,13 @@ public class GameService {
         }
     }
 
-    private String getPlayerColor(Long matchId, String username) {
-        List<String> players = gamePlayers.get(matchId);
-        if (players != null && players.size() >= 2) {
-            if (players.get(0).equals(username)) {
-                return "white";
-            } else if (players.get(1).equals(username)) {
-                return "black";
-            }
-        }
-        return null;
-    }
-
     private String getOpponentUsername(Long matchId, String username) {
-        List<String> players = gamePlayers.get(matchId);
-        if (players != null && players.size() >= 2) {
-            if (players.get(0).equals(username)) {
-                return players.get(1);
-            } else if (players.get(1).equals(username)) {
-                return players.get(0);
+        GameState gameState = gameStore.get(matchId);
+        if (gameState != null) {
+            if (username.equals(gameState.getPlayer1Username())) {
+                return gameState.getPlayer2Username();
+            } else if (username.equals(gameState.getPlayer2Username())) {
+                return gameState.getPlayer1Username();
             }
         }
         return null;
@@ -0,0 +1,123 @@
+package com.example.matchservice.service;
+
+import com.example.matchservice.chess.Position;
+
+import java.util.Arrays;
+
+/**
+ * Live state of one game. The position is kept as bitboards with packed castling,
+ * en-passant and clock fields; String[][] boards and FENs are only produced at the API edge.
+ * The FEN is built at most once per ply and reused until the next move. Played moves are
+ * kept as packed ints from the start position for analysis and export. Timed games carry
+ * a {@link ChessClock}. The last access time drives demotion out of the hot tier of
+ * {@link GameStateStore}, which drops a finished game only once it is marked persisted.
+ */
+class GameState {
+    private Position position;
+    private String fen;
+    private int ply;
+    private int[] moves = new int[64];
+    private String status;
+    private String player1Username;
+    private String player2Username;
+    private ChessClock clock;
+    private volatile long lastAccess;
+    private volatile boolean persisted;
+
+    public GameState() {
+    }
+
+    public Position getPosition() {
+        return position;
+    }
+
+    public void setPosition(Position position) {
+        this.position = position;
+        this.fen = null;
+    }
+
+    public String getFen() {
+        String current = fen;
+        if (current == null) {
+            current = position.toFen();
+            fen = current;
+        }
+        return current;
+    }
+
+    public void applyMove(int move) {
+        position.makeMove(move);
+        position.trimHistory();
+        fen = null;
+        if (ply == moves.length) {
+            moves = Arrays.copyOf(moves, ply * 2);
+        }
+        moves[ply++] = move;
+    }
+
+    public int getPly() {
+        return ply;
+    }
+
+    public int[] getMoves() {
+        return Arrays.copyOf(moves, ply);
+    }
+
+    public String[][] getBoard() {
+        return position.toBoardArray();
+    }
+
+    public boolean isWhiteTurn() {
+        return position.isWhiteToMove();
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getPlayer1Username() {
+        return player1Username;
+    }
+
+    public void setPlayer1Username(String player1Username) {
+        this.player1Username = player1Username;
+    }
+
+    public String getPlayer2Username() {
+        return player2Username;
+    }
+
+    public void setPlayer2Username(String player2Username) {
+        this.player2Username = player2Username;
+    }
+
+    /** Null for untimed games. */
+    ChessClock getClock() {
+        return clock;
+    }
+
+    void setClock(ChessClock clock) {
+        this.clock = clock;
+    }
+
+    long getLastAccess() {
+        return lastAccess;
+    }
+
+    void touch() {
+        lastAccess = System.currentTimeMillis();
+    }
+
+    /** Whether the game's result is in the database. */
+    boolean isPersisted() {
+        return persisted;
+    }
+
+    void markPersisted() {
+        persisted = true;
+    }
+}
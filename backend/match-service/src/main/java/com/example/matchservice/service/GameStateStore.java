@@ -0,0 +1,430 @@
+package com.example.matchservice.service;
+
+import com.example.matchservice.chess.MoveGenerator;
+import com.example.matchservice.chess.Moves;
+import com.example.matchservice.chess.Notation;
+import com.example.matchservice.chess.Position;
+import com.example.matchservice.model.Match;
+import com.example.matchservice.model.MatchStatus;
+import com.example.matchservice.model.Move;
+import com.example.matchservice.repo.MatchRepo;
+import com.example.matchservice.repo.MoveRepo;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+
+/**
+ * Game states in three tiers. Games with recent activity are hot {@link GameState} objects
+ * on the heap. A game idle for {@code store.hot-idle-ms} is serialized (players, status and
+ * its moves as packed ints, plus the clock of a timed game) into an {@link OffHeapArena}
+ * and rebuilt by replaying the moves the next time it is read. Finished games are dropped
+ * after {@code store.finished-idle-ms}, but not before their {@link GamePersistedEvent}, as
+ * are idle games the arena has no room for; both reload from the matches and moves tables.
+ * A game brought back from either tier is handed to the {@link #onRevive} listener, which
+ * re-arms its flag timer.
+ *
+ * <p>There is no sweeper thread: whichever request touches the store first after
+ * {@code store.sweep-interval-ms} scans the hot map for idle games, so the heap follows the
+ * number of games being played right now rather than every game since startup. Each idle
+ * game is then demoted or dropped on its {@link MatchLanes} lane, where nothing else can be
+ * changing it.
+ */
+@Component
+public class GameStateStore {
+
+    private final MatchRepo matchRepo;
+    private final MoveRepo moveRepo;
+    private final MoveJournalService moveJournal;
+    private final GameRegistry gameRegistry;
+    private final ClockService clocks;
+    private final MatchLanes lanes;
+    private final long hotIdleMs;
+    private final long finishedIdleMs;
+    private final long sweepIntervalMs;
+
+    private final Map<Long, GameState> hot = new ConcurrentHashMap<>();
+    // Oldest demotion first; guarded by itself together with the arena.
+    private final Map<Long, WarmEntry> warm = new LinkedHashMap<>();
+    private final OffHeapArena arena;
+    private final ReentrantLock sweepLock = new ReentrantLock();
+    private volatile long nextSweep;
+    private final ThreadLocal<int[]> moveBuffers = ThreadLocal.withInitial(() -> new int[MoveGenerator.MAX_MOVES]);
+    private volatile BiConsumer<Long, GameState> onRevive = (matchId, gameState) -> {
+    };
+
+    private final Counter promotions;
+    private final Counter demotions;
+    private final Counter evictions;
+    private final Counter coldLoads;
+
+    public GameStateStore(MatchRepo matchRepo, MoveRepo moveRepo, MoveJournalService moveJournal,
+            GameRegistry gameRegistry, ClockService clocks, MatchLanes lanes, MeterRegistry meterRegistry,
+            @Value("${store.hot-idle-ms:60000}") long hotIdleMs,
+            @Value("${store.finished-idle-ms:10000}") long finishedIdleMs,
+            @Value("${store.sweep-interval-ms:1000}") long sweepIntervalMs,
+            @Value("${store.warm-mb:64}") int warmMb) {
+        this.matchRepo = matchRepo;
+        this.moveRepo = moveRepo;
+        this.moveJournal = moveJournal;
+        this.gameRegistry = gameRegistry;
+        this.clocks = clocks;
+        this.lanes = lanes;
+        this.hotIdleMs = hotIdleMs;
+        this.finishedIdleMs = finishedIdleMs;
+        this.sweepIntervalMs = sweepIntervalMs;
+        this.arena = new OffHeapArena((long) warmMb << 20, 1 << 20);
+
+        Gauge.builder("games.hot", hot, Map::size).register(meterRegistry);
+        Gauge.builder("games.warm", warm, Map::size).register(meterRegistry);
+        Gauge.builder("games.warm.bytes", this, store -> store.arena.usedBytes()).register(meterRegistry);
+        this.promotions = meterRegistry.counter("games.promotions");
+        this.demotions = meterRegistry.counter("games.demotions");
+        this.evictions = meterRegistry.counter("games.evictions");
+        this.coldLoads = meterRegistry.counter("games.cold.loads");
+    }
+
+    /**
+     * The game from the hot or warm tier, or null. A warm game is promoted back to hot.
+     */
+    GameState get(Long matchId) {
+        maybeSweep();
+        GameState gameState = hot.get(matchId);
+        if (gameState == null) {
+            gameState = promote(matchId);
+            if (gameState != null) {
+                onRevive.accept(matchId, gameState);
+            }
+        }
+        if (gameState != null) {
+            gameState.touch();
+        }
+        return gameState;
+    }
+
+    /**
+     * Like {@link #get} but falls back to rebuilding the game from the database, which also
+     * covers matches that have not started yet. Null only when there is no such match.
+     */
+    GameState load(Long matchId) {
+        GameState gameState = get(matchId);
+        if (gameState != null) {
+            return gameState;
+        }
+        Optional<Match> match = matchRepo.findById(matchId);
+        return match.isEmpty() ? null : load(match.get());
+    }
+
+    /**
+     * {@link #load(Long)} for a match the caller already fetched.
+     */
+    GameState load(Match match) {
+        Long matchId = match.getId();
+        GameState gameState = get(matchId);
+        if (gameState != null) {
+            return gameState;
+        }
+        GameState loaded = fromDatabase(match);
+        loaded.touch();
+        GameState existing = hot.putIfAbsent(matchId, loaded);
+        if (existing != null) {
+            return existing;
+        }
+        coldLoads.increment();
+        if ("IN_PROGRESS".equals(loaded.getStatus())) {
+            gameRegistry.register(matchId, loaded.getPlayer1Username(), loaded.getPlayer2Username());
+            moveJournal.start(matchId, loaded.getPlayer1Username(), loaded.getPlayer2Username(), loaded.getMoves());
+            onRevive.accept(matchId, loaded);
+        }
+        return loaded;
+    }
+
+    /**
+     * Sets what to do with a game promoted from the warm tier or loaded from the database,
+     * on the thread that asked for it.
+     */
+    void onRevive(BiConsumer<Long, GameState> listener) {
+        this.onRevive = listener;
+    }
+
+    @EventListener
+    public void onGamePersisted(GamePersistedEvent event) {
+        GameState gameState = hot.get(event.matchId());
+        if (gameState != null) {
+            gameState.markPersisted();
+        }
+    }
+
+    void put(Long matchId, GameState gameState) {
+        gameState.touch();
+        hot.put(matchId, gameState);
+        discardWarm(matchId);
+        if ("IN_PROGRESS".equals(gameState.getStatus())) {
+            gameRegistry.register(matchId, gameState.getPlayer1Username(), gameState.getPlayer2Username());
+        }
+    }
+
+    void remove(Long matchId) {
+        hot.remove(matchId);
+        discardWarm(matchId);
+        gameRegistry.finish(matchId);
+    }
+
+    int hotCount() {
+        return hot.size();
+    }
+
+    int warmCount() {
+        synchronized (warm) {
+            return warm.size();
+        }
+    }
+
+    private GameState promote(Long matchId) {
+        synchronized (warm) {
+            GameState gameState = hot.get(matchId);
+            if (gameState != null) {
+                return gameState;
+            }
+            WarmEntry entry = warm.remove(matchId);
+            if (entry == null) {
+                return null;
+            }
+            gameState = decode(arena.chunk(entry.handle()), OffHeapArena.offset(entry.handle()), entry.bytes());
+            arena.free(entry.handle(), entry.bytes());
+            gameState.touch();
+            hot.put(matchId, gameState);
+            promotions.increment();
+            return gameState;
+        }
+    }
+
+    private void discardWarm(Long matchId) {
+        synchronized (warm) {
+            WarmEntry entry = warm.remove(matchId);
+            if (entry != null) {
+                arena.free(entry.handle(), entry.bytes());
+            }
+        }
+    }
+
+    private void maybeSweep() {
+        long now = System.currentTimeMillis();
+        if (now < nextSweep || !sweepLock.tryLock()) {
+            return;
+        }
+        try {
+            if (now >= nextSweep) {
+                nextSweep = now + sweepIntervalMs;
+                sweep(now);
+            }
+        } finally {
+            sweepLock.unlock();
+        }
+    }
+
+    private void sweep(long now) {
+        for (Map.Entry<Long, GameState> entry : hot.entrySet()) {
+            if (!idle(entry.getValue(), now)) {
+                continue;
+            }
+            Long matchId = entry.getKey();
+            try {
+                lanes.execute(matchId, () -> retire(matchId));
+            } catch (RejectedExecutionException e) {
+                // Shutting down.
+                return;
+            }
+        }
+    }
+
+    // A finished game stays until its result is written, or a reload would find it in progress.
+    private boolean idle(GameState gameState, long now) {
+        boolean finished = !"IN_PROGRESS".equals(gameState.getStatus());
+        if (finished && !gameState.isPersisted()) {
+            return false;
+        }
+        return now - gameState.getLastAccess() >= (finished ? finishedIdleMs : hotIdleMs);
+    }
+
+    // On the game's lane: checked again, since a frame queued before this one may have used it.
+    private void retire(Long matchId) {
+        GameState gameState = hot.get(matchId);
+        if (gameState == null || !idle(gameState, System.currentTimeMillis())) {
+            return;
+        }
+        if (!"IN_PROGRESS".equals(gameState.getStatus())) {
+            if (hot.remove(matchId, gameState)) {
+                evictions.increment();
+            }
+            return;
+        }
+        demote(matchId, gameState);
+    }
+
+    /**
+     * Moves the game into the arena, or drops it when there is no room. It leaves the hot
+     * map only once its warm copy is in place, under the same lock {@link #promote} takes,
+     * so a reader finds it in one tier or the other.
+     */
+    private void demote(Long matchId, GameState gameState) {
+        int bytes = encodedSize(gameState);
+        synchronized (warm) {
+            long handle = arena.allocate(bytes);
+            if (handle < 0 && evictWarm(OffHeapArena.slotSize(bytes))) {
+                handle = arena.allocate(bytes);
+            }
+            if (handle < 0) {
+                if (hot.remove(matchId, gameState)) {
+                    evictions.increment();
+                }
+                return;
+            }
+            encode(gameState, arena.chunk(handle), OffHeapArena.offset(handle), bytes);
+            if (!hot.remove(matchId, gameState)) {
+                arena.free(handle, bytes);
+                return;
+            }
+            warm.put(matchId, new WarmEntry(handle, bytes));
+            demotions.increment();
+        }
+    }
+
+    /**
+     * Drops the longest-idle warm game whose slot is the given size, so its slot can be
+     * reused. Returns false when there is none.
+     */
+    private boolean evictWarm(int slotSize) {
+        Iterator<WarmEntry> entries = warm.values().iterator();
+        while (entries.hasNext()) {
+            WarmEntry entry = entries.next();
+            if (OffHeapArena.slotSize(entry.bytes()) == slotSize) {
+                entries.remove();
+                arena.free(entry.handle(), entry.bytes());
+                evictions.increment();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private GameState fromDatabase(Match match) {
+        GameState gameState = new GameState();
+        gameState.setPosition(Position.startPosition());
+        gameState.setPlayer1Username(match.getPlayer1().getUsername());
+        gameState.setPlayer2Username(match.getPlayer2().getUsername());
+
+        int[] buffer = moveBuffers.get();
+        for (Move row : moveRepo.findByMatchIdOrderByPlyAsc(match.getId())) {
+            int move = Notation.fromUci(gameState.getPosition(), row.getUci(), buffer);
+            if (move == Moves.NONE) {
+                throw new RuntimeException("Stored move " + row.getUci() + " at ply " + row.getPly() + " of game "
+                        + match.getId() + " is not legal");
+            }
+            gameState.applyMove(move);
+        }
+        gameState.setStatus(liveStatus(match.getStatus(), gameState.getPosition(), buffer));
+        if (match.getStatus() != null && match.getStatus() != MatchStatus.IN_PROGRESS) {
+            gameState.markPersisted();
+        }
+        gameState.setClock(gameState.getPly() > 0
+                ? clocks.resumeClock(match.getGameType(), match.getWhiteMs(), match.getBlackMs())
+                : clocks.newClock(match.getGameType()));
+        return gameState;
+    }
+
+    /**
+     * The live status for a stored result, recovered from the final position where it can be.
+     */
+    private static String liveStatus(MatchStatus status, Position position, int[] buffer) {
+        if (status == null || status == MatchStatus.IN_PROGRESS) {
+            return "IN_PROGRESS";
+        }
+        if (!MoveGenerator.hasLegalMove(position, buffer)) {
+            return position.isInCheck() ? "CHECKMATE" : "STALEMATE";
+        }
+        if (position.isThreefoldRepetition()) {
+            return "THREEFOLD_REPETITION";
+        }
+        if (position.isSeventyFiveMoveDraw()) {
+            return "SEVENTY_FIVE_MOVE_RULE";
+        }
+        return status.name();
+    }
+
+    // Warm layout: status, player1, player2 (each a short length and UTF-8), a clock flag byte
+    // and, if set, increment, white, black and turn start as longs, then ply and the moves.
+
+    static int encodedSize(GameState gameState) {
+        return 6 + utf8Length(gameState.getStatus()) + utf8Length(gameState.getPlayer1Username())
+                + utf8Length(gameState.getPlayer2Username()) + 1 + (gameState.getClock() == null ? 0 : 32)
+                + 4 + gameState.getPly() * 4;
+    }
+
+    static void encode(GameState gameState, ByteBuffer chunk, int offset, int bytes) {
+        ByteBuffer out = chunk.slice(offset, bytes);
+        putString(out, gameState.getStatus());
+        putString(out, gameState.getPlayer1Username());
+        putString(out, gameState.getPlayer2Username());
+        ChessClock clock = gameState.getClock();
+        out.put((byte) (clock == null ? 0 : 1));
+        if (clock != null) {
+            out.putLong(clock.getIncrementMs());
+            out.putLong(clock.getWhiteMs());
+            out.putLong(clock.getBlackMs());
+            out.putLong(clock.getTurnStartedAt());
+        }
+        int[] moves = gameState.getMoves();
+        out.putInt(moves.length);
+        for (int move : moves) {
+            out.putInt(move);
+        }
+    }
+
+    static GameState decode(ByteBuffer chunk, int offset, int bytes) {
+        ByteBuffer in = chunk.slice(offset, bytes);
+        GameState gameState = new GameState();
+        gameState.setPosition(Position.startPosition());
+        gameState.setStatus(getString(in));
+        gameState.setPlayer1Username(getString(in));
+        gameState.setPlayer2Username(getString(in));
+        if (in.get() != 0) {
+            // The clock kept running while the game was warm: the turn start is wall time.
+            gameState.setClock(new ChessClock(in.getLong(), in.getLong(), in.getLong(), in.getLong()));
+        }
+        int ply = in.getInt();
+        for (int i = 0; i < ply; i++) {
+            gameState.applyMove(in.getInt());
+        }
+        return gameState;
+    }
+
+    private static int utf8Length(String value) {
+        return value == null ? 0 : value.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static void putString(ByteBuffer out, String value) {
+        byte[] bytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+        out.putShort((short) bytes.length);
+        out.put(bytes);
+    }
+
+    private static String getString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getShort()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private record WarmEntry(long handle, int bytes) {
+    }
+}
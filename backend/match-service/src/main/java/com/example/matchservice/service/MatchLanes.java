@@ -0,0 +1,102 @@
+package com.example.matchservice.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * A fixed set of single-threaded lanes. Everything that mutates a game (STOMP frames for it,
+ * bot replies, timers) runs on the lane its match id hashes to, so a game's state is only
+ * ever touched by one thread at a time, in submission order, without locks, while different
+ * games spread over all lanes. Readers outside a lane (HTTP requests, analysis) go through
+ * {@link #call} and wait for their turn.
+ */
+@Component
+public class MatchLanes {
+
+    private final ExecutorService[] lanes;
+    private final Thread[] threads;
+
+    public MatchLanes(@Value("${lanes.count:0}") int count) {
+        int size = count > 0 ? count : Runtime.getRuntime().availableProcessors();
+        this.lanes = new ExecutorService[size];
+        this.threads = new Thread[size];
+        for (int i = 0; i < size; i++) {
+            int lane = i;
+            String name = "match-lane-" + i;
+            lanes[i] = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                    task -> {
+                        Thread thread = new Thread(task, name);
+                        thread.setDaemon(true);
+                        threads[lane] = thread;
+                        return thread;
+                    });
+        }
+        System.out.println("Match lanes: " + size);
+    }
+
+    public int size() {
+        return lanes.length;
+    }
+
+    public int laneOf(long matchId) {
+        // Spread sequential ids (Fibonacci hashing) before reducing to a lane.
+        return (int) (((matchId * 0x9E3779B97F4A7C15L) >>> 32) % lanes.length);
+    }
+
+    /**
+     * Runs {@code task} on the match's lane after everything already queued for it. A task
+     * that throws is logged and does not stop the lane.
+     */
+    public void execute(long matchId, Runnable task) {
+        lanes[laneOf(matchId)].execute(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                System.err.println("❌ Task for game " + matchId + " failed: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Runs {@code task} on the match's lane after everything already queued for it and waits
+     * for its result, rethrowing what it throws. Called from that lane, it runs right away.
+     */
+    public <T> T call(long matchId, Supplier<T> task) {
+        int lane = laneOf(matchId);
+        if (Thread.currentThread() == threads[lane]) {
+            return task.get();
+        }
+        Future<T> result = lanes[lane].submit(task::get);
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException("Task for game " + matchId + " failed", e.getCause());
+        } catch (InterruptedException e) {
+            result.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for game " + matchId);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+        for (ExecutorService lane : lanes) {
+            lane.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+}
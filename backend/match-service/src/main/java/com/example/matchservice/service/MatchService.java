@@ -1,13 +1,25 @@
 package com.example.matchservice.service;
 
+import com.example.matchservice.model.GameType;
 import com.example.matchservice.model.Match;
 import com.example.matchservice.model.User;
 import com.example.matchservice.repo.MatchRepo;
 import com.example.matchservice.repo.UserRepo;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.async.DeferredResult;
 
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
@@ -17,21 +29,37 @@ import static com.example.matchservice.model.MatchStatus.IN_PROGRESS;
 @Service
 public class MatchService {
 
-    private static final Map<String, Long> waitingPlayers = new ConcurrentHashMap<>();
-    private static final Map<Long, String[]> matchPlayers = new ConcurrentHashMap<>();
+    private static final GameType[] PAIRED_TYPES = { GameType.BLITZ, GameType.RAPID, GameType.STANDARD };
+    private static final int MAX_MATCHES_PER_INSERT = 500;
+    private static final String INSERT_MATCHES = "INSERT INTO matches "
+            + "(player1_id, player2_id, status, current_ply, game_type, created_at, started_at) VALUES ";
 
     private final JwtService jwtService;
     private final UserRepo userRepo;
     private final MatchRepo matchRepo;
     private final GameService gameService;
     private final com.example.matchservice.repo.GameResultRepo gameResultRepo;
-
-    public MatchService(JwtService jwtService, UserRepo userRepo, MatchRepo matchRepo, GameService gameService, com.example.matchservice.repo.GameResultRepo gameResultRepo) {
+    private final BotService botService;
+    private final MatchmakingQueue matchmakingQueue;
+    private final GameRegistry gameRegistry;
+    private final JdbcTemplate jdbcTemplate;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final long longPollMs;
+    // One parked check-match request per waiting player.
+    private final Map<String, DeferredResult<ResponseEntity<Map<String, Long>>>> pendingChecks = new ConcurrentHashMap<>();
+
+    public MatchService(JwtService jwtService, UserRepo userRepo, MatchRepo matchRepo, GameService gameService, com.example.matchservice.repo.GameResultRepo gameResultRepo, BotService botService, MatchmakingQueue matchmakingQueue, GameRegistry gameRegistry, JdbcTemplate jdbcTemplate, SimpMessagingTemplate messagingTemplate, @Value("${matchmaking.long-poll-ms:25000}") long longPollMs) {
         this.jwtService = jwtService;
         this.userRepo = userRepo;
         this.matchRepo = matchRepo;
         this.gameService = gameService;
         this.gameResultRepo = gameResultRepo;
+        this.botService = botService;
+        this.matchmakingQueue = matchmakingQueue;
+        this.gameRegistry = gameRegistry;
+        this.jdbcTemplate = jdbcTemplate;
+        this.messagingTemplate = messagingTemplate;
+        this.longPollMs = longPollMs;
     }
 
     public String getJwtFromCookie(HttpServletRequest request) {
@@ -46,45 +74,62 @@ public class MatchService {
         return null;
     }
 
-    public Optional<Long> createMatch(HttpServletRequest request) {
+    public Optional<Long> createMatch(HttpServletRequest request, GameType gameType) {
         String tk = getJwtFromCookie(request);
         if (tk == null) {
             return Optional.empty();
         }
         String userName = jwtService.extractUsername(tk);
 
-        if (userName == null) {
+        if (userName == null || gameType == GameType.BOT) {
             return Optional.empty();
         }
 
-        System.out.println("User " + userName + " requesting match");
-
-        synchronized (this) {
-            for (String waitingPlayer : waitingPlayers.keySet()) {
-                if (!waitingPlayer.equals(userName)) {
-                    User player1 = userRepo.getUserByUsername(waitingPlayer);
-                    User player2 = userRepo.getUserByUsername(userName);
-
-                    if (player1 != null && player2 != null) {
-                        Match newMatch = matchRepo.save(new Match(player1, player2, IN_PROGRESS, 1));
-                        Long matchId = newMatch.getId();
-
-                        matchPlayers.put(matchId, new String[] { waitingPlayer, userName });
-                        waitingPlayers.remove(waitingPlayer);
+        System.out.println("User " + userName + " requesting " + gameType + " match");
 
-                        System.out.println("Match created: " + matchId);
-                        gameService.getGameDetails(matchId, request);
+        // Looked up before touching the queue, which never waits on the database.
+        User user = userRepo.getUserByUsername(userName);
+        if (user == null) {
+            return Optional.empty();
+        }
 
-                        return Optional.of(matchId);
-                    }
-                }
-            }
+        // Pairs are made by the next pairing tick; the player hears on match-found or check-match.
+        if (matchmakingQueue.enqueue(user, gameType)) {
+            System.out.println("User " + userName + " added to " + gameType + " waiting queue");
+        }
+        return Optional.of(-1L);
+    }
 
-            waitingPlayers.put(userName, -1L);
-            System.out.println("User " + userName + " added to waiting queue");
+    /**
+     * Long-poll fallback for clients without the STOMP push. Answers at once when the player
+     * already has a match or is not queued, otherwise parks the request until the pairing
+     * lands or {@code matchmaking.long-poll-ms} passes (then matchId -1, ask again).
+     */
+    public DeferredResult<ResponseEntity<Map<String, Long>>> awaitMatch(HttpServletRequest request) {
+        DeferredResult<ResponseEntity<Map<String, Long>>> result = new DeferredResult<>(longPollMs,
+                matchIdResponse(-1L));
+        Optional<Long> matchId = checkMatch(request);
+        if (matchId.isEmpty()) {
+            result.setResult(ResponseEntity.badRequest().body(Map.of("matchId", -2L)));
+            return result;
+        }
+        if (matchId.get() != -1L) {
+            result.setResult(matchIdResponse(matchId.get()));
+            return result;
+        }
 
-            return Optional.of(-1L);
+        String userName = jwtService.extractUsername(getJwtFromCookie(request));
+        result.onCompletion(() -> pendingChecks.remove(userName, result));
+        DeferredResult<ResponseEntity<Map<String, Long>>> previous = pendingChecks.put(userName, result);
+        if (previous != null) {
+            previous.setResult(matchIdResponse(-1L));
+        }
+        // The pairing may have landed between the check and parking the request.
+        Long paired = gameRegistry.unclaimedMatch(userName);
+        if (paired != null && result.setResult(matchIdResponse(paired))) {
+            gameRegistry.claim(userName, paired);
         }
+        return result;
     }
 
     public Optional<Long> checkMatch(HttpServletRequest request) {
@@ -98,25 +143,15 @@ public class MatchService {
             return Optional.empty();
         }
 
-        synchronized (this) {
-            if (waitingPlayers.containsKey(userName)) {
-                return Optional.of(-1L);
-            }
-
-            for (Map.Entry<Long, String[]> entry : matchPlayers.entrySet()) {
-                String[] players = entry.getValue();
-                if (players[0].equals(userName) || players[1].equals(userName)) {
-                    Long matchId = entry.getKey();
-                    matchPlayers.remove(matchId);
-                    waitingPlayers.remove(players[0]);
-                    waitingPlayers.remove(players[1]);
-                    System.out.println("Returning match " + matchId + " to " + userName);
-                    return Optional.of(matchId);
-                }
-            }
+        // Queue first: a tick announces the match before it drops the ticket.
+        boolean queued = matchmakingQueue.isQueued(userName);
+        Long matchId = gameRegistry.claim(userName);
+        if (matchId != null) {
+            System.out.println("Returning match " + matchId + " to " + userName);
+            return Optional.of(matchId);
         }
 
-        return Optional.empty();
+        return queued ? Optional.of(-1L) : Optional.empty();
     }
 
     public boolean cancelWaiting(HttpServletRequest request) {
@@ -130,13 +165,111 @@ public class MatchService {
             return false;
         }
 
-        synchronized (this) {
-            boolean removed = waitingPlayers.remove(userName) != null;
-            if (removed) {
-                System.out.println("User " + userName + " cancelled waiting");
+        boolean removed = matchmakingQueue.cancel(userName);
+        if (removed) {
+            System.out.println("User " + userName + " cancelled waiting");
+            DeferredResult<ResponseEntity<Map<String, Long>>> pending = pendingChecks.remove(userName);
+            if (pending != null) {
+                pending.setResult(matchIdResponse(-1L));
             }
-            return removed;
         }
+        return removed;
+    }
+
+    /**
+     * The pairing tick: pairs each rated pool as a whole and creates the matches.
+     */
+    @Scheduled(fixedDelayString = "${matchmaking.tick-ms:250}")
+    public void pairWaitingPlayers() {
+        for (GameType gameType : PAIRED_TYPES) {
+            List<MatchmakingQueue.Pairing> pairings = matchmakingQueue.pair(gameType);
+            for (int from = 0; from < pairings.size(); from += MAX_MATCHES_PER_INSERT) {
+                createMatches(pairings.subList(from, Math.min(from + MAX_MATCHES_PER_INSERT, pairings.size())),
+                        gameType);
+            }
+        }
+    }
+
+    /**
+     * Inserts the match rows for a batch of pairings in one statement, then tells both
+     * players of each. If the insert fails the players go back into the queue.
+     */
+    private void createMatches(List<MatchmakingQueue.Pairing> pairings, GameType gameType) {
+        List<Long> matchIds;
+        try {
+            matchIds = insertMatches(pairings, gameType);
+        } catch (RuntimeException e) {
+            System.err.println("❌ Could not create " + pairings.size() + " " + gameType + " matches: "
+                    + e.getMessage());
+            for (MatchmakingQueue.Pairing pairing : pairings) {
+                matchmakingQueue.release(pairing.white());
+                matchmakingQueue.release(pairing.black());
+            }
+            return;
+        }
+
+        for (int i = 0; i < pairings.size(); i++) {
+            MatchmakingQueue.Pairing pairing = pairings.get(i);
+            Long matchId = matchIds.get(i);
+            String white = pairing.white().getUsername();
+            String black = pairing.black().getUsername();
+            gameRegistry.register(matchId, white, black);
+            gameRegistry.announce(white, matchId);
+            gameRegistry.announce(black, matchId);
+            matchmakingQueue.complete(pairing.white());
+            matchmakingQueue.complete(pairing.black());
+            notifyMatchFound(white, matchId);
+            notifyMatchFound(black, matchId);
+        }
+        System.out.println("Created " + pairings.size() + " " + gameType + " matches");
+    }
+
+    private List<Long> insertMatches(List<MatchmakingQueue.Pairing> pairings, GameType gameType) {
+        StringBuilder sql = new StringBuilder(INSERT_MATCHES);
+        for (int i = 0; i < pairings.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append("(?, ?, ?, ?, ?, ?, ?)");
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql.toString(), Statement.RETURN_GENERATED_KEYS);
+            int column = 1;
+            for (MatchmakingQueue.Pairing pairing : pairings) {
+                statement.setLong(column++, pairing.white().getUser().getUserId());
+                statement.setLong(column++, pairing.black().getUser().getUserId());
+                statement.setString(column++, IN_PROGRESS.name());
+                statement.setInt(column++, 1);
+                statement.setString(column++, gameType.name());
+                statement.setTimestamp(column++, now);
+                statement.setTimestamp(column++, now);
+            }
+            return statement;
+        }, keys);
+
+        List<Long> matchIds = new ArrayList<>(pairings.size());
+        for (Map<String, Object> row : keys.getKeyList()) {
+            matchIds.add(((Number) row.values().iterator().next()).longValue());
+        }
+        if (matchIds.size() != pairings.size()) {
+            throw new RuntimeException("Expected " + pairings.size() + " generated match ids, got " + matchIds.size());
+        }
+        return matchIds;
+    }
+
+    /**
+     * Tells a paired player about their match: on their STOMP session and on a parked
+     * check-match request, whichever they have.
+     */
+    private void notifyMatchFound(String username, Long matchId) {
+        messagingTemplate.convertAndSendToUser(username, "/queue/match-found", Map.of("matchId", matchId));
+        DeferredResult<ResponseEntity<Map<String, Long>>> pending = pendingChecks.remove(username);
+        if (pending != null && pending.setResult(matchIdResponse(matchId))) {
+            gameRegistry.claim(username, matchId);
+        }
+    }
+
+    private static ResponseEntity<Map<String, Long>> matchIdResponse(Long matchId) {
+        return ResponseEntity.ok(Map.of("matchId", matchId));
     }
 
     private Map<String, Object> createPlayerInfo(User user) {
@@ -216,15 +349,7 @@ public class MatchService {
         if (player == null) return Optional.empty();
 
         // Get or create Computer user
-        User computer = userRepo.getUserByUsername("Computer");
-        if (computer == null) {
-            computer = new User();
-            computer.setUsername("Computer");
-            computer.setEmailId("bot@indichess.com");
-            computer.setPassword("bot_password"); // Not used for login
-            computer.setRating(1500);
-            computer = userRepo.save(computer);
-        }
+        getOrCreateComputerUser();
 
         String resultStatus = (String) gameResult.get("status");
         String winnerUsername = (String) gameResult.get("winner");
@@ -262,4 +387,46 @@ public class MatchService {
 
         return Optional.of(savedResult.getId());
     }
+
+    public Optional<Long> createBotMatch(Map<String, Object> options, HttpServletRequest request) {
+        String token = getJwtFromCookie(request);
+        if (token == null) return Optional.empty();
+
+        String username = jwtService.extractUsername(token);
+        if (username == null) return Optional.empty();
+
+        User player = userRepo.getUserByUsername(username);
+        if (player == null) return Optional.empty();
+
+        User computer = getOrCreateComputerUser();
+
+        String color = options != null ? (String) options.get("color") : null;
+        boolean playerIsWhite = "random".equalsIgnoreCase(color) ? new Random().nextBoolean() : !"black".equalsIgnoreCase(color);
+        Long movetimeMs = options != null && options.get("movetimeMs") instanceof Number n ? n.longValue() : null;
+
+        Match match = playerIsWhite
+                ? new Match(player, computer, IN_PROGRESS, 1)
+                : new Match(computer, player, IN_PROGRESS, 1);
+        match.setGameType(GameType.BOT);
+        Long matchId = matchRepo.save(match).getId();
+
+        System.out.println("Bot match created: " + matchId + " for " + username);
+        gameService.getGameDetails(matchId, request);
+        botService.startGame(matchId, movetimeMs);
+
+        return Optional.of(matchId);
+    }
+
+    private User getOrCreateComputerUser() {
+        User computer = userRepo.getUserByUsername(BotService.BOT_USERNAME);
+        if (computer == null) {
+            computer = new User();
+            computer.setUsername(BotService.BOT_USERNAME);
+            computer.setEmailId("bot@indichess.com");
+            computer.setPassword("bot_password"); // Not used for login
+            computer.setRating(1500);
+            computer = userRepo.save(computer);
+        }
+        return computer;
+    }
 }
@@ -0,0 +1,292 @@
+package com.example.matchservice.service;
+
+import com.example.matchservice.model.GameType;
+import com.example.matchservice.model.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Players waiting for an opponent, partitioned by {@link GameType} and by rating bucket
+ * ({@code matchmaking.bucket-width} points each). Joining and leaving never take a lock:
+ * buckets are lock-free queues and a ticket changes hands by a compare-and-set on its state.
+ *
+ * <p>Pairs are made in batches by {@link #pair}, which looks at a game type's whole pool at
+ * once. Players are pairable when their rating gap fits in either player's window, which
+ * starts at {@code matchmaking.initial-window} and grows by
+ * {@code matchmaking.window-growth-per-second} while they wait, up to
+ * {@code matchmaking.max-window}. Callers pass players they have already loaded, so no
+ * database I/O happens here.
+ *
+ * <p>Metrics: {@code matchmaking.waiting}, {@code matchmaking.wait},
+ * {@code matchmaking.rating.gap}, {@code matchmaking.tick} and {@code matchmaking.pairs}.
+ */
+@Component
+public class MatchmakingQueue {
+
+    static final int DEFAULT_RATING = 1500;
+    private static final int MAX_RATING = 4000;
+
+    private static final int WAITING = 0;
+    private static final int CLAIMED = 1;
+    private static final int CANCELLED = 2;
+
+    private final int bucketWidth;
+    private final int initialWindow;
+    private final int windowGrowthPerSecond;
+    private final int maxWindow;
+
+    private final Map<GameType, List<Queue<Ticket>>> pools = new EnumMap<>(GameType.class);
+    private final Map<String, Ticket> tickets = new ConcurrentHashMap<>();
+
+    private final Timer waitTimer;
+    private final DistributionSummary ratingGap;
+    private final Timer tickTimer;
+    private final Counter pairs;
+
+    public MatchmakingQueue(MeterRegistry meterRegistry,
+            @Value("${matchmaking.bucket-width:50}") int bucketWidth,
+            @Value("${matchmaking.initial-window:100}") int initialWindow,
+            @Value("${matchmaking.window-growth-per-second:25}") int windowGrowthPerSecond,
+            @Value("${matchmaking.max-window:600}") int maxWindow) {
+        this.bucketWidth = bucketWidth;
+        this.initialWindow = initialWindow;
+        this.windowGrowthPerSecond = windowGrowthPerSecond;
+        this.maxWindow = maxWindow;
+        int buckets = MAX_RATING / bucketWidth + 1;
+        for (GameType gameType : GameType.values()) {
+            List<Queue<Ticket>> pool = new ArrayList<>(buckets);
+            for (int i = 0; i < buckets; i++) {
+                pool.add(new ConcurrentLinkedQueue<>());
+            }
+            pools.put(gameType, pool);
+        }
+
+        Gauge.builder("matchmaking.waiting", tickets, Map::size).register(meterRegistry);
+        this.waitTimer = Timer.builder("matchmaking.wait").publishPercentiles(0.5, 0.9, 0.99).register(meterRegistry);
+        this.ratingGap = DistributionSummary.builder("matchmaking.rating.gap").publishPercentiles(0.5, 0.9, 0.99)
+                .register(meterRegistry);
+        this.tickTimer = Timer.builder("matchmaking.tick").publishPercentiles(0.5, 0.99).register(meterRegistry);
+        this.pairs = meterRegistry.counter("matchmaking.pairs");
+    }
+
+    /**
+     * Queues {@code user} for the next pairing round. False when they are already queued.
+     */
+    public boolean enqueue(User user, GameType gameType) {
+        return enqueue(user, gameType, System.nanoTime());
+    }
+
+    boolean enqueue(User user, GameType gameType, long now) {
+        Ticket ticket = new Ticket(user, gameType, now);
+        if (tickets.putIfAbsent(ticket.username, ticket) != null) {
+            return false;
+        }
+        bucket(ticket).add(ticket);
+        return true;
+    }
+
+    /**
+     * Pairs as much of the game type's pool as the windows allow and takes the paired
+     * tickets out of the queue. Everyone waiting is sorted by rating and only neighbours are
+     * candidates, since pairing across a closer player never gives a smaller total gap. The
+     * candidate pairs are then taken greedily by their gap as a fraction of the wider of the
+     * two windows, so close ratings go first and a long wait, which widens the window, moves
+     * a player up the order. O(n log n) in the pool size; call it from one thread.
+     */
+    public List<Pairing> pair(GameType gameType) {
+        return pair(gameType, System.nanoTime());
+    }
+
+    List<Pairing> pair(GameType gameType, long now) {
+        long start = System.nanoTime();
+        Ticket[] waiting = snapshot(pools.get(gameType));
+        int n = waiting.length;
+        if (n < 2) {
+            tickTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return Collections.emptyList();
+        }
+        // Buckets come out in order, so this only sorts within each bucket.
+        Arrays.sort(waiting, Comparator.comparingInt(ticket -> ticket.rating));
+
+        // Candidate i is (waiting[i], waiting[i + 1]); the cost sits in the high bits so the
+        // longs sort by it, the index in the low bits.
+        long[] candidates = new long[n - 1];
+        int count = 0;
+        for (int i = 0; i < n - 1; i++) {
+            Ticket a = waiting[i];
+            Ticket b = waiting[i + 1];
+            int gap = b.rating - a.rating;
+            int window = Math.max(window(a.enqueuedNanos, now), window(b.enqueuedNanos, now));
+            if (gap <= window && !a.username.equals(b.username)) {
+                float cost = window == 0 ? 0 : (float) gap / window;
+                candidates[count++] = ((long) Float.floatToIntBits(cost) << 32) | i;
+            }
+        }
+        Arrays.sort(candidates, 0, count);
+
+        List<Pairing> result = new ArrayList<>();
+        boolean[] used = new boolean[n];
+        for (int c = 0; c < count; c++) {
+            int i = (int) candidates[c];
+            if (used[i] || used[i + 1]) {
+                continue;
+            }
+            Ticket a = waiting[i];
+            Ticket b = waiting[i + 1];
+            if (!a.state.compareAndSet(WAITING, CLAIMED)) {
+                used[i] = true;
+                continue;
+            }
+            if (!b.state.compareAndSet(WAITING, CLAIMED)) {
+                // Cancelled since the snapshot.
+                a.state.set(WAITING);
+                used[i + 1] = true;
+                continue;
+            }
+            used[i] = true;
+            used[i + 1] = true;
+            // Whoever has waited longer plays white.
+            result.add(a.enqueuedNanos <= b.enqueuedNanos ? new Pairing(a, b) : new Pairing(b, a));
+            waitTimer.record(now - a.enqueuedNanos, TimeUnit.NANOSECONDS);
+            waitTimer.record(now - b.enqueuedNanos, TimeUnit.NANOSECONDS);
+            ratingGap.record(b.rating - a.rating);
+        }
+        pairs.increment(result.size());
+        tickTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return result;
+    }
+
+    /**
+     * Whether the user has a ticket, including one just paired whose match is still being
+     * created.
+     */
+    public boolean isQueued(String username) {
+        return tickets.containsKey(username);
+    }
+
+    /**
+     * Drops a ticket paired by {@link #pair} once its match exists.
+     */
+    public void complete(Ticket ticket) {
+        tickets.remove(ticket.username, ticket);
+    }
+
+    /**
+     * Puts a paired ticket back, for when creating its match failed. Must come before the
+     * next {@link #pair} of its game type, which would unlink it from its bucket.
+     */
+    public void release(Ticket ticket) {
+        ticket.state.compareAndSet(CLAIMED, WAITING);
+    }
+
+    /**
+     * Takes the user out of the queue. False when they were not waiting or have already
+     * been paired, in which case their match is on its way.
+     */
+    public boolean cancel(String username) {
+        Ticket ticket = tickets.get(username);
+        if (ticket == null || !ticket.state.compareAndSet(WAITING, CANCELLED)) {
+            return false;
+        }
+        // The bucket entry is dropped by the next snapshot.
+        tickets.remove(username, ticket);
+        return true;
+    }
+
+    public int waitingCount() {
+        return tickets.size();
+    }
+
+    /**
+     * The window of a ticket that has waited since {@code enqueuedNanos}.
+     */
+    int window(long enqueuedNanos, long now) {
+        long waitedSeconds = TimeUnit.NANOSECONDS.toSeconds(now - enqueuedNanos);
+        return (int) Math.min(maxWindow, initialWindow + waitedSeconds * windowGrowthPerSecond);
+    }
+
+    /**
+     * The waiting tickets of a pool, lowest bucket first. Paired and cancelled tickets met on
+     * the way are unlinked, so buckets are cleaned once per round instead of per removal.
+     */
+    private static Ticket[] snapshot(List<Queue<Ticket>> pool) {
+        List<Ticket> waiting = new ArrayList<>();
+        for (Queue<Ticket> bucket : pool) {
+            for (Iterator<Ticket> it = bucket.iterator(); it.hasNext(); ) {
+                Ticket ticket = it.next();
+                if (ticket.state.get() == WAITING) {
+                    waiting.add(ticket);
+                } else {
+                    it.remove();
+                }
+            }
+        }
+        return waiting.toArray(new Ticket[0]);
+    }
+
+    private Queue<Ticket> bucket(Ticket ticket) {
+        return pools.get(ticket.gameType).get(bucketIndex(ticket.rating));
+    }
+
+    private int bucketIndex(int rating) {
+        return Math.max(0, Math.min(rating, MAX_RATING)) / bucketWidth;
+    }
+
+    /**
+     * Two tickets paired by {@link #pair}; {@code white} has waited longer.
+     */
+    public record Pairing(Ticket white, Ticket black) {
+    }
+
+    /**
+     * A queued player. Its state starts waiting and ends claimed by a pairing or cancelled.
+     */
+    public static final class Ticket {
+
+        private final User user;
+        private final String username;
+        private final int rating;
+        private final GameType gameType;
+        private final long enqueuedNanos;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+
+        Ticket(User user, GameType gameType, long enqueuedNanos) {
+            this.user = user;
+            this.username = user.getUsername();
+            this.rating = user.getRating() != null ? user.getRating() : DEFAULT_RATING;
+            this.gameType = gameType;
+            this.enqueuedNanos = enqueuedNanos;
+        }
+
+        public User getUser() {
+            return user;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public int getRating() {
+            return rating;
+        }
+
+        public GameType getGameType() {
+            return gameType;
+        }
+
+        public long getEnqueuedNanos() {
+            return enqueuedNanos;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.matchservice.service;
+
+import com.example.matchservice.journal.FsyncPolicy;
+import com.example.matchservice.journal.MoveJournal;
+import com.example.matchservice.model.MatchStatus;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Local crash-recovery journal for the games in {@link GameService}. Failures are logged and
+ * never fail a move; without a journal (disabled or unopenable) every call is a no-op.
+ */
+@Service
+public class MoveJournalService {
+
+    private final MoveJournal journal;
+
+    public MoveJournalService(@Value("${journal.enabled:true}") boolean enabled,
+            @Value("${journal.path:journal}") String path,
+            @Value("${journal.segment-mb:16}") int segmentMb,
+            @Value("${journal.fsync:INTERVAL}") FsyncPolicy fsync,
+            @Value("${journal.sync-interval-ms:10}") long syncIntervalMs) {
+        MoveJournal opened = null;
+        if (enabled) {
+            try {
+                opened = MoveJournal.open(Path.of(path), segmentMb << 20, fsync, syncIntervalMs);
+                System.out.println("Move journal opened in " + path + " (fsync " + fsync + "), "
+                        + opened.games().size() + " games to recover");
+            } catch (IOException | RuntimeException e) {
+                System.err.println("❌ Failed to open move journal in " + path + ": " + e.getMessage());
+            }
+        }
+        this.journal = opened;
+    }
+
+    public List<MoveJournal.Game> recoveredGames() {
+        return journal == null ? List.of() : journal.games();
+    }
+
+    public void start(Long matchId, String player1, String player2, int[] moves) {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.appendStart(matchId, player1, player2, moves);
+        } catch (RuntimeException e) {
+            System.err.println("⚠️ Failed to journal start of game " + matchId + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Records a move and the clock times left after it, null in an untimed game.
+     */
+    public void move(Long matchId, int ply, int move, Long whiteMs, Long blackMs) {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.appendMove(matchId, ply, move, whiteMs == null ? MoveJournal.NO_CLOCK : whiteMs,
+                    blackMs == null ? MoveJournal.NO_CLOCK : blackMs);
+        } catch (RuntimeException e) {
+            System.err.println("⚠️ Failed to journal move " + ply + " of game " + matchId + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Records how a game ended: the live status and the match status it is persisted with.
+     * {@code whiteWon} is null for a draw.
+     */
+    public void end(Long matchId, String status, MatchStatus result, Boolean whiteWon) {
+        if (journal == null) {
+            return;
+        }
+        int winner = whiteWon == null ? MoveJournal.NO_WINNER : whiteWon ? MoveJournal.WHITE : MoveJournal.BLACK;
+        try {
+            journal.appendEnd(matchId, winner, status, result.name());
+        } catch (RuntimeException e) {
+            System.err.println("⚠️ Failed to journal end of game " + matchId + ": " + e.getMessage());
+        }
+    }
+
+    @EventListener
+    public void onGamePersisted(GamePersistedEvent event) {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.appendPersisted(event.matchId());
+        } catch (RuntimeException e) {
+            System.err.println("⚠️ Failed to journal persisted game " + event.matchId() + ": " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+}
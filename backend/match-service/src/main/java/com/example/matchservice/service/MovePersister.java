@@ -0,0 +1,344 @@
+package com.example.matchservice.service;
+
+import com.example.matchservice.model.MatchStatus;
+import com.example.matchservice.model.PieceColor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind persistence for played moves. The move path only enqueues; one flusher
+ * thread drains the bounded queue, inserts the move rows as a single JDBC batch and
+ * issues one matches UPDATE per game with its latest ply, FEN, last move and clocks (and
+ * result, once there is one, plus its game_results row when asked for), all in one
+ * transaction. A full queue blocks the caller instead of dropping moves. Each committed
+ * result is announced as a {@link GamePersistedEvent}.
+ *
+ * <p>A batch that keeps failing is split by game so one bad game cannot take the others
+ * down with it. The games that still fail on their own are parked: their writes, and every
+ * later write of theirs, stay with the flusher and are retried every few seconds. Their
+ * results are not announced meanwhile, so the journal keeps their moves. A game still
+ * failing after {@value #MAX_PARKED_ATTEMPTS} attempts, or holding more than
+ * {@value #MAX_PARKED_WRITES} writes, is dead-lettered: logged and dropped from memory,
+ * leaving its moves to the journal.
+ *
+ * <p>Metrics: {@code moves.persist.queue.depth}, {@code moves.persist.parked} (games),
+ * {@code moves.persist.dead} (writes dropped), {@code moves.persist.lag} (enqueue to
+ * commit), {@code moves.persist.flush}, {@code moves.persist.batch.size},
+ * {@code moves.persist.rows}, {@code moves.persist.failures} and
+ * {@code moves.persist.backpressure}.
+ */
+@Component
+public class MovePersister {
+
+    static final String INSERT_MOVE = "INSERT INTO moves "
+            + "(match_id, ply, move_number, color, uci, san, fen_before, fen_after, created_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    // A move queued without clock times (re-queued on restore) keeps the stored ones.
+    static final String UPDATE_MATCH = "UPDATE matches SET current_ply = ?, fen_current = ?, last_move_uci = ?, "
+            + "white_ms = COALESCE(?, white_ms), black_ms = COALESCE(?, black_ms), updated_at = ? WHERE id = ?";
+    // winner: 0 = none, 1 = player1 (white), 2 = player2 (black)
+    static final String FINISH_MATCH = "UPDATE matches SET status = ?, "
+            + "winner_id = CASE ? WHEN 1 THEN player1_id WHEN 2 THEN player2_id ELSE winner_id END, "
+            + "termination = ?, finished_at = ?, updated_at = ? WHERE id = ?";
+    static final String INSERT_RESULT = "INSERT INTO game_results "
+            + "(player1_name, player2_name, game_type, status, winner_name, played_at) "
+            + "SELECT p1.user_name, p2.user_name, m.game_type, ?, "
+            + "CASE ? WHEN 1 THEN p1.user_name WHEN 2 THEN p2.user_name ELSE NULL END, ? "
+            + "FROM matches m JOIN users p1 ON p1.user_id = m.player1_id JOIN users p2 ON p2.user_id = m.player2_id "
+            + "WHERE m.id = ?";
+
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long PARKED_RETRY_MS = 5_000;
+    private static final int MAX_PARKED_ATTEMPTS = 60;
+    private static final int MAX_PARKED_WRITES = 1_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BlockingQueue<PendingWrite> queue;
+    private final int maxBatch;
+    private final long flushIntervalMs;
+    private final Thread flusher;
+    private volatile boolean running = true;
+    // Writes of games that failed on their own, by game, in queue order. Flusher thread only.
+    private final Map<Long, ParkedGame> parked = new LinkedHashMap<>();
+    private volatile int parkedGames;
+    private long parkedRetryAt;
+
+    private final Timer lag;
+    private final Timer flushTimer;
+    private final DistributionSummary batchSize;
+    private final Counter rows;
+    private final Counter failures;
+    private final Counter backpressure;
+    private final Counter dead;
+
+    public MovePersister(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry, ApplicationEventPublisher eventPublisher,
+            @Value("${persist.queue-capacity:10000}") int capacity,
+            @Value("${persist.max-batch:500}") int maxBatch,
+            @Value("${persist.flush-interval-ms:50}") long flushIntervalMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.maxBatch = maxBatch;
+        this.flushIntervalMs = flushIntervalMs;
+
+        Gauge.builder("moves.persist.queue.depth", queue, BlockingQueue::size).register(meterRegistry);
+        Gauge.builder("moves.persist.parked", this, persister -> persister.parkedGames).register(meterRegistry);
+        this.lag = Timer.builder("moves.persist.lag").publishPercentiles(0.5, 0.99).register(meterRegistry);
+        this.flushTimer = Timer.builder("moves.persist.flush").register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("moves.persist.batch.size").register(meterRegistry);
+        this.rows = meterRegistry.counter("moves.persist.rows");
+        this.failures = meterRegistry.counter("moves.persist.failures");
+        this.backpressure = meterRegistry.counter("moves.persist.backpressure");
+        this.dead = meterRegistry.counter("moves.persist.dead");
+
+        this.flusher = new Thread(this::run, "move-persister");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Queues a played move with the clock times left after it (null when untimed or
+     * unknown). {@code result} is non-null when the move ended the game; {@code whiteWon} is
+     * null for a draw.
+     */
+    public void enqueueMove(Long matchId, int ply, String uci, String san, String fenBefore, String fenAfter,
+            Long whiteMs, Long blackMs, MatchStatus result, Boolean whiteWon) {
+        enqueue(new PendingWrite(matchId, ply, uci, san, fenBefore, fenAfter, whiteMs, blackMs, LocalDateTime.now(),
+                result, whiteWon, null, System.nanoTime()));
+    }
+
+    /**
+     * Queues a result that did not come with a move (adjudication, timeouts).
+     */
+    public void enqueueResult(Long matchId, MatchStatus result, Boolean whiteWon) {
+        enqueueResult(matchId, result, whiteWon, null);
+    }
+
+    /**
+     * Like {@link #enqueueResult(Long, MatchStatus, Boolean)}, also recording the game in
+     * game_results with {@code resultStatus} (e.g. ABANDONED) when that is non-null, and
+     * storing it as the match's termination.
+     */
+    public void enqueueResult(Long matchId, MatchStatus result, Boolean whiteWon, String resultStatus) {
+        enqueue(new PendingWrite(matchId, 0, null, null, null, null, null, null, LocalDateTime.now(), result,
+                whiteWon, resultStatus, System.nanoTime()));
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        flusher.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    private void enqueue(PendingWrite write) {
+        if (queue.offer(write)) {
+            return;
+        }
+        backpressure.increment();
+        try {
+            queue.put(write);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while queueing move for game " + write.matchId());
+        }
+    }
+
+    private void run() {
+        List<PendingWrite> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingWrite first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, maxBatch - 1);
+                    process(batch);
+                }
+                retryParked(!running && queue.isEmpty());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                System.err.println("❌ Move persister error: " + e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+        if (!parked.isEmpty()) {
+            System.err.println("❌ Leaving " + parked.size() + " games with unwritten moves to the journal: "
+                    + parked.keySet());
+        }
+    }
+
+    private void process(List<PendingWrite> batch) throws InterruptedException {
+        List<PendingWrite> writes = new ArrayList<>(batch.size());
+        for (PendingWrite write : batch) {
+            ParkedGame held = parked.get(write.matchId());
+            if (held != null) {
+                held.writes.add(write);
+            } else {
+                writes.add(write);
+            }
+        }
+        if (writes.isEmpty() || flush(writes, MAX_ATTEMPTS)) {
+            return;
+        }
+
+        Map<Long, List<PendingWrite>> byGame = new LinkedHashMap<>();
+        for (PendingWrite write : writes) {
+            byGame.computeIfAbsent(write.matchId(), id -> new ArrayList<>()).add(write);
+        }
+        for (Map.Entry<Long, List<PendingWrite>> game : byGame.entrySet()) {
+            if (!flush(game.getValue(), 1)) {
+                System.err.println("❌ Parking " + game.getValue().size() + " move writes of game " + game.getKey()
+                        + " until they can be written");
+                parked.put(game.getKey(), new ParkedGame(game.getValue()));
+            }
+        }
+        parkedGames = parked.size();
+        parkedRetryAt = System.currentTimeMillis() + PARKED_RETRY_MS;
+    }
+
+    private void retryParked(boolean force) throws InterruptedException {
+        if (parked.isEmpty() || (!force && System.currentTimeMillis() < parkedRetryAt)) {
+            return;
+        }
+        Iterator<Map.Entry<Long, ParkedGame>> games = parked.entrySet().iterator();
+        while (games.hasNext()) {
+            Map.Entry<Long, ParkedGame> game = games.next();
+            ParkedGame held = game.getValue();
+            if (flush(held.writes, 1)) {
+                System.out.println("Wrote the parked moves of game " + game.getKey());
+                games.remove();
+            } else if (++held.attempts >= MAX_PARKED_ATTEMPTS || held.writes.size() > MAX_PARKED_WRITES) {
+                deadLetter(game.getKey(), held);
+                games.remove();
+            }
+        }
+        parkedGames = parked.size();
+        parkedRetryAt = System.currentTimeMillis() + PARKED_RETRY_MS;
+    }
+
+    private void deadLetter(Long matchId, ParkedGame held) {
+        dead.increment(held.writes.size());
+        System.err.println("❌ Dead-lettering " + held.writes.size() + " move writes of game " + matchId + " after "
+                + held.attempts + " attempts; its moves are left to the journal");
+    }
+
+    /**
+     * Writes the batch in one transaction, trying up to {@code attempts} times; false when
+     * nothing of it was committed.
+     */
+    private boolean flush(List<PendingWrite> batch, int attempts) throws InterruptedException {
+        List<Object[]> inserts = new ArrayList<>(batch.size());
+        Map<Long, PendingWrite> latest = new LinkedHashMap<>();
+        Map<Long, PendingWrite> results = new LinkedHashMap<>();
+        for (PendingWrite write : batch) {
+            if (write.uci() != null) {
+                inserts.add(new Object[] { write.matchId(), write.ply(), (write.ply() + 1) / 2,
+                        PieceColor.fromPly(write.ply()).name(), write.uci(), write.san(), write.fenBefore(),
+                        write.fenAfter(), Timestamp.valueOf(write.playedAt()) });
+                latest.merge(write.matchId(), write, (a, b) -> b.ply() >= a.ply() ? b : a);
+            }
+            if (write.result() != null) {
+                results.put(write.matchId(), write);
+            }
+        }
+
+        List<Object[]> updates = new ArrayList<>(latest.size());
+        for (PendingWrite write : latest.values()) {
+            updates.add(new Object[] { write.ply(), write.fenAfter(), write.uci(), write.whiteMs(), write.blackMs(),
+                    Timestamp.valueOf(write.playedAt()), write.matchId() });
+        }
+        List<Object[]> finishes = new ArrayList<>(results.size());
+        List<Object[]> resultRows = new ArrayList<>();
+        for (PendingWrite write : results.values()) {
+            int winner = write.whiteWon() == null ? 0 : write.whiteWon() ? 1 : 2;
+            Timestamp at = Timestamp.valueOf(write.playedAt());
+            finishes.add(new Object[] { write.result().name(), winner, write.resultStatus(), at, at,
+                    write.matchId() });
+            if (write.resultStatus() != null) {
+                resultRows.add(new Object[] { write.resultStatus(), winner, at, write.matchId() });
+            }
+        }
+
+        long start = System.nanoTime();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    if (!inserts.isEmpty()) {
+                        jdbcTemplate.batchUpdate(INSERT_MOVE, inserts);
+                    }
+                    if (!updates.isEmpty()) {
+                        jdbcTemplate.batchUpdate(UPDATE_MATCH, updates);
+                    }
+                    if (!finishes.isEmpty()) {
+                        jdbcTemplate.batchUpdate(FINISH_MATCH, finishes);
+                    }
+                    if (!resultRows.isEmpty()) {
+                        jdbcTemplate.batchUpdate(INSERT_RESULT, resultRows);
+                    }
+                });
+                break;
+            } catch (RuntimeException e) {
+                failures.increment();
+                if (attempt >= attempts) {
+                    System.err.println("❌ Could not write " + batch.size() + " queued move writes after " + attempt
+                            + " attempts: " + e.getMessage());
+                    return false;
+                }
+                System.err.println("⚠️ Move batch failed (attempt " + attempt + "), retrying: " + e.getMessage());
+                Thread.sleep(100L * attempt);
+            }
+        }
+
+        long now = System.nanoTime();
+        flushTimer.record(now - start, TimeUnit.NANOSECONDS);
+        batchSize.record(batch.size());
+        rows.increment(inserts.size());
+        for (PendingWrite write : batch) {
+            lag.record(now - write.enqueuedNanos(), TimeUnit.NANOSECONDS);
+        }
+        for (Long matchId : results.keySet()) {
+            eventPublisher.publishEvent(new GamePersistedEvent(matchId));
+        }
+        return true;
+    }
+
+    private static final class ParkedGame {
+        final List<PendingWrite> writes;
+        int attempts = 1;
+
+        ParkedGame(List<PendingWrite> writes) {
+            this.writes = writes;
+        }
+    }
+
+    private record PendingWrite(Long matchId, int ply, String uci, String san, String fenBefore, String fenAfter,
+            Long whiteMs, Long blackMs, LocalDateTime playedAt, MatchStatus result, Boolean whiteWon, String resultStatus, long enqueuedNanos) {
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.matchservice.service;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Slab allocator over direct buffers. Requests are rounded up to a power-of-two size class
+ * (64 bytes and up) and freed slots are reused for the same class, so fragmentation stays
+ * within a factor of two and nothing ever needs compacting. Chunks are allocated lazily up
+ * to the capacity. A handle packs the chunk index in the high 32 bits and the offset in the
+ * low 32. Not thread-safe.
+ */
+final class OffHeapArena {
+
+    private static final int MIN_SHIFT = 6;
+
+    private final int chunkBytes;
+    private final int maxChunks;
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    private final long[][] freeSlots;
+    private final int[] freeCounts;
+    private int bumpOffset;
+    private long usedBytes;
+
+    OffHeapArena(long capacityBytes, int chunkBytes) {
+        if (Integer.bitCount(chunkBytes) != 1 || chunkBytes < 1 << MIN_SHIFT) {
+            throw new IllegalArgumentException("Chunk size must be a power of two of at least 64 bytes");
+        }
+        this.chunkBytes = chunkBytes;
+        this.maxChunks = (int) Math.max(1, capacityBytes / chunkBytes);
+        int classes = Integer.numberOfTrailingZeros(chunkBytes) - MIN_SHIFT + 1;
+        this.freeSlots = new long[classes][8];
+        this.freeCounts = new int[classes];
+        this.bumpOffset = chunkBytes;
+    }
+
+    /**
+     * Returns a handle to at least {@code bytes} bytes, or -1 when the arena is full.
+     */
+    long allocate(int bytes) {
+        int sizeClass = sizeClass(bytes);
+        if (sizeClass >= freeSlots.length) {
+            return -1;
+        }
+        usedBytes += slotBytes(sizeClass);
+        if (freeCounts[sizeClass] > 0) {
+            return freeSlots[sizeClass][--freeCounts[sizeClass]];
+        }
+        int slot = slotBytes(sizeClass);
+        if (bumpOffset + slot > chunkBytes) {
+            if (chunks.size() == maxChunks) {
+                usedBytes -= slot;
+                return -1;
+            }
+            chunks.add(ByteBuffer.allocateDirect(chunkBytes));
+            bumpOffset = 0;
+        }
+        long handle = ((long) (chunks.size() - 1) << 32) | bumpOffset;
+        bumpOffset += slot;
+        return handle;
+    }
+
+    void free(long handle, int bytes) {
+        int sizeClass = sizeClass(bytes);
+        if (freeCounts[sizeClass] == freeSlots[sizeClass].length) {
+            freeSlots[sizeClass] = Arrays.copyOf(freeSlots[sizeClass], freeCounts[sizeClass] * 2);
+        }
+        freeSlots[sizeClass][freeCounts[sizeClass]++] = handle;
+        usedBytes -= slotBytes(sizeClass);
+    }
+
+    ByteBuffer chunk(long handle) {
+        return chunks.get((int) (handle >>> 32));
+    }
+
+    static int offset(long handle) {
+        return (int) handle;
+    }
+
+    /** Bytes in allocated slots, including the rounding to the size class. */
+    long usedBytes() {
+        return usedBytes;
+    }
+
+    long reservedBytes() {
+        return (long) chunks.size() * chunkBytes;
+    }
+
+    /** The slot size a request of {@code bytes} is rounded up to. */
+    static int slotSize(int bytes) {
+        return slotBytes(sizeClass(bytes));
+    }
+
+    private static int sizeClass(int bytes) {
+        int shift = 32 - Integer.numberOfLeadingZeros(Math.max(bytes, 1 << MIN_SHIFT) - 1);
+        return shift - MIN_SHIFT;
+    }
+
+    private static int slotBytes(int sizeClass) {
+        return 1 << (sizeClass + MIN_SHIFT);
+    }
+}
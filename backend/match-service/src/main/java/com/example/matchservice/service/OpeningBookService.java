@@ -0,0 +1,131 @@
+package com.example.matchservice.service;
+
+import com.example.matchservice.chess.MoveGenerator;
+import com.example.matchservice.chess.Moves;
+import com.example.matchservice.chess.Notation;
+import com.example.matchservice.chess.Position;
+import com.example.matchservice.engine.OpeningBook;
+import com.example.matchservice.engine.OpeningBookBuilder;
+import com.example.matchservice.model.Match;
+import com.example.matchservice.model.MatchStatus;
+import com.example.matchservice.model.Move;
+import com.example.matchservice.repo.MatchRepo;
+import com.example.matchservice.repo.MoveRepo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Service
+public class OpeningBookService {
+
+    private final MatchRepo matchRepo;
+    private final MoveRepo moveRepo;
+    private final Path bookPath;
+    private final int maxPly;
+    private final ThreadLocal<int[]> moveBuffers = ThreadLocal.withInitial(() -> new int[MoveGenerator.MAX_MOVES]);
+    private volatile OpeningBook book;
+
+    public OpeningBookService(MatchRepo matchRepo, MoveRepo moveRepo,
+            @Value("${book.path:opening-book.bin}") String bookPath,
+            @Value("${book.max-ply:30}") int maxPly) {
+        this.matchRepo = matchRepo;
+        this.moveRepo = moveRepo;
+        this.bookPath = Path.of(bookPath);
+        this.maxPly = maxPly;
+
+        if (Files.exists(this.bookPath)) {
+            try {
+                book = OpeningBook.open(this.bookPath);
+                System.out.println("Opening book loaded: " + book.size() + " entries from " + this.bookPath);
+            } catch (IOException e) {
+                System.err.println("Failed to open opening book " + this.bookPath + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * A weighted random book move for the position, or {@link Moves#NONE}.
+     */
+    public int pickMove(Position position) {
+        OpeningBook current = book;
+        if (current == null) {
+            return Moves.NONE;
+        }
+        return current.pickMove(position, ThreadLocalRandom.current(), moveBuffers.get());
+    }
+
+    public List<Map<String, Object>> lookup(String fen) {
+        Position position;
+        try {
+            position = Position.fromFen(fen);
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Invalid FEN: " + fen);
+        }
+
+        List<Map<String, Object>> moves = new ArrayList<>();
+        OpeningBook current = book;
+        if (current == null) {
+            return moves;
+        }
+
+        List<OpeningBook.BookMove> bookMoves = current.moves(position);
+        int total = bookMoves.stream().mapToInt(OpeningBook.BookMove::getWeight).sum();
+        int[] buffer = new int[MoveGenerator.MAX_MOVES];
+        for (OpeningBook.BookMove bookMove : bookMoves) {
+            Map<String, Object> move = new HashMap<>();
+            move.put("uci", Moves.toUci(bookMove.getMove()));
+            move.put("san", Notation.toSan(position, bookMove.getMove(), buffer));
+            move.put("weight", bookMove.getWeight());
+            move.put("games", bookMove.getCount());
+            move.put("share", total == 0 ? 0.0 : (double) bookMove.getWeight() / total);
+            moves.add(move);
+        }
+        return moves;
+    }
+
+    /**
+     * Rebuilds the book from finished matches and their recorded moves, then swaps it in.
+     * Returns the number of entries written.
+     */
+    public int rebuildFromDatabase() throws IOException {
+        OpeningBookBuilder builder = new OpeningBookBuilder(maxPly);
+        List<Match> matches = matchRepo.findByStatusIn(
+                List.of(MatchStatus.FINISHED, MatchStatus.DRAW, MatchStatus.RESIGNED));
+        for (Match match : matches) {
+            List<Move> moves = moveRepo.findByMatchIdOrderByPlyAsc(match.getId());
+            if (moves.isEmpty()) {
+                continue;
+            }
+            List<String> uci = new ArrayList<>(Math.min(moves.size(), maxPly));
+            for (Move move : moves) {
+                if (uci.size() == maxPly) {
+                    break;
+                }
+                uci.add(move.getUci());
+            }
+            builder.addUciGame(uci, result(match));
+        }
+
+        int entries = builder.write(bookPath);
+        book = OpeningBook.open(bookPath);
+        System.out.println("Opening book rebuilt: " + entries + " entries from " + builder.getGames() + " games");
+        return entries;
+    }
+
+    private static Integer result(Match match) {
+        if (match.getStatus() == MatchStatus.DRAW) {
+            return OpeningBookBuilder.DRAW;
+        }
+        if (match.getWinner() == null) {
+            return null;
+        }
+        return match.getWinner().getUserId().equals(match.getPlayer1().getUserId())
+                ? OpeningBookBuilder.WHITE_WINS
+                : OpeningBookBuilder.BLACK_WINS;
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.matchservice.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes games in PGN export format (seven tag roster, movetext wrapped before column 80)
+ * straight into a byte buffer over the output stream, one game at a time. SAN and move
+ * numbers are ASCII and copied byte by byte; only tag values go through UTF-8 encoding.
+ */
+final class PgnWriter {
+
+    private static final int LINE_WIDTH = 79;
+
+    private final OutputStream out;
+    private final byte[] buffer;
+    private int position;
+    private int column;
+    private int ply;
+
+    PgnWriter(OutputStream out, int bufferSize) {
+        this.out = out;
+        this.buffer = new byte[bufferSize];
+    }
+
+    /**
+     * Starts a game: the tag pairs and the blank line before its movetext. {@code date} is
+     * yyyy.MM.dd (?? for unknown parts); a null {@code termination} is left out.
+     */
+    void beginGame(String event, String date, String white, String black, String result, String termination)
+            throws IOException {
+        tag("Event", event);
+        tag("Site", "IndiChess");
+        tag("Date", date);
+        tag("Round", "-");
+        tag("White", white);
+        tag("Black", black);
+        tag("Result", result);
+        if (termination != null) {
+            tag("Termination", termination);
+        }
+        newline();
+        ply = 0;
+        column = 0;
+    }
+
+    void move(String san) throws IOException {
+        ply++;
+        boolean white = (ply & 1) == 1;
+        int width = san.length() + (white ? digits((ply + 1) >> 1) + 2 : 0);
+        if (column > 0 && column + 1 + width > LINE_WIDTH) {
+            newline();
+            column = 0;
+        } else if (column > 0) {
+            put((byte) ' ');
+            column++;
+        }
+        if (white) {
+            number((ply + 1) >> 1);
+            put((byte) '.');
+            put((byte) ' ');
+        }
+        ascii(san);
+        column += width;
+    }
+
+    /**
+     * Ends the movetext with the result token and the blank line between games.
+     */
+    void endGame(String result) throws IOException {
+        if (column > 0 && column + 1 + result.length() > LINE_WIDTH) {
+            newline();
+        } else if (column > 0) {
+            put((byte) ' ');
+        }
+        ascii(result);
+        newline();
+        newline();
+    }
+
+    void flush() throws IOException {
+        out.write(buffer, 0, position);
+        position = 0;
+        out.flush();
+    }
+
+    private void tag(String name, String value) throws IOException {
+        put((byte) '[');
+        ascii(name);
+        put((byte) ' ');
+        put((byte) '"');
+        byte[] bytes = (value == null ? "?" : value).getBytes(StandardCharsets.UTF_8);
+        for (byte b : bytes) {
+            if (b == '"' || b == '\\') {
+                put((byte) '\\');
+            }
+            put(b);
+        }
+        put((byte) '"');
+        put((byte) ']');
+        newline();
+    }
+
+    private void ascii(String s) throws IOException {
+        int length = s.length();
+        if (buffer.length - position < length) {
+            drain();
+        }
+        for (int i = 0; i < length; i++) {
+            put((byte) s.charAt(i));
+        }
+    }
+
+    private void number(int n) throws IOException {
+        if (n >= 10) {
+            number(n / 10);
+        }
+        put((byte) ('0' + n % 10));
+    }
+
+    private static int digits(int n) {
+        int digits = 1;
+        while (n >= 10) {
+            n /= 10;
+            digits++;
+        }
+        return digits;
+    }
+
+    private void newline() throws IOException {
+        put((byte) '\n');
+    }
+
+    private void put(byte b) throws IOException {
+        if (position == buffer.length) {
+            drain();
+        }
+        buffer[position++] = b;
+    }
+
+    private void drain() throws IOException {
+        out.write(buffer, 0, position);
+        position = 0;
+    }
+}
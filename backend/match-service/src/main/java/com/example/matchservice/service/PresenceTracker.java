@@ -0,0 +1,182 @@
+package com.example.matchservice.service;
+
+import com.example.matchservice.timer.TimingWheel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.security.Principal;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whether each player of a game in progress is connected to it, judged by their STOMP
+ * subscriptions to the game's topics (/topic/moves/{matchId}[/delta] and
+ * /topic/game-state/{matchId}). When a player's last one goes (tab closed, network lost) a
+ * reconnect grace timer of {@code presence.reconnect-grace-ms} starts on the shared game
+ * {@link TimingWheel}; subscribing again cancels it. If it runs out, the game is ended on
+ * the game's lane as abandoned by that player, so games nobody plays any more do not stay
+ * in progress forever.
+ *
+ * <p>Metrics: {@code presence.grace.pending} and {@code games.abandoned}.
+ */
+@Component
+public class PresenceTracker {
+
+    private static final String[] GAME_TOPICS = { "/topic/moves/", "/topic/game-state/" };
+
+    private final GameRegistry gameRegistry;
+    private final GameService gameService;
+    private final MatchLanes lanes;
+    private final TimingWheel wheel;
+    private final long graceMs;
+
+    // sessionId -> subscriptionId -> match id, for subscriptions of players to their games
+    private final Map<String, Map<String, Long>> sessions = new ConcurrentHashMap<>();
+    private final Map<String, String> sessionUsers = new ConcurrentHashMap<>();
+    // Live subscriptions per seat; a seat without an entry is disconnected.
+    private final Map<Seat, Integer> connected = new ConcurrentHashMap<>();
+    private final Map<Seat, TimingWheel.Timeout> graceTimers = new ConcurrentHashMap<>();
+
+    private final Counter abandoned;
+
+    public PresenceTracker(GameRegistry gameRegistry, GameService gameService, MatchLanes lanes, TimingWheel wheel,
+            MeterRegistry meterRegistry, @Value("${presence.reconnect-grace-ms:60000}") long graceMs) {
+        this.gameRegistry = gameRegistry;
+        this.gameService = gameService;
+        this.lanes = lanes;
+        this.wheel = wheel;
+        this.graceMs = graceMs;
+
+        Gauge.builder("presence.grace.pending", graceTimers, Map::size).register(meterRegistry);
+        this.abandoned = meterRegistry.counter("games.abandoned");
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        Principal user = accessor.getUser();
+        if (user != null) {
+            subscribed(accessor.getSessionId(), accessor.getSubscriptionId(), user.getName(),
+                    matchId(accessor.getDestination()));
+        }
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        Map<String, Long> subscriptions = sessions.get(accessor.getSessionId());
+        if (subscriptions == null || accessor.getSubscriptionId() == null) {
+            return;
+        }
+        Long matchId = subscriptions.remove(accessor.getSubscriptionId());
+        if (matchId != null) {
+            left(new Seat(matchId, sessionUsers.get(accessor.getSessionId())));
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        Map<String, Long> subscriptions = sessions.remove(event.getSessionId());
+        String username = sessionUsers.remove(event.getSessionId());
+        if (subscriptions != null) {
+            subscriptions.values().forEach(matchId -> left(new Seat(matchId, username)));
+        }
+    }
+
+    void subscribed(String sessionId, String subscriptionId, String username, long matchId) {
+        if (sessionId == null || subscriptionId == null || matchId < 0) {
+            return;
+        }
+        GameRegistry.Players players = gameRegistry.players(matchId);
+        if (players == null || players.opponentOf(username) == null) {
+            // A spectator, or not a game in progress.
+            return;
+        }
+        sessionUsers.put(sessionId, username);
+        Long previous = sessions.computeIfAbsent(sessionId, id -> new ConcurrentHashMap<>())
+                .put(subscriptionId, matchId);
+        if (previous != null) {
+            left(new Seat(previous, username));
+        }
+        Seat seat = new Seat(matchId, username);
+        connected.merge(seat, 1, Integer::sum);
+        TimingWheel.Timeout grace = graceTimers.remove(seat);
+        if (grace != null) {
+            grace.cancel();
+        }
+    }
+
+    public boolean isConnected(long matchId, String username) {
+        return connected.containsKey(new Seat(matchId, username));
+    }
+
+    public int pendingGraceCount() {
+        return graceTimers.size();
+    }
+
+    private void left(Seat seat) {
+        connected.compute(seat, (key, count) -> {
+            if (count != null && count > 1) {
+                return count - 1;
+            }
+            startGrace(seat);
+            return null;
+        });
+    }
+
+    private void startGrace(Seat seat) {
+        if (gameRegistry.players(seat.matchId()) == null) {
+            return;
+        }
+        graceTimers.compute(seat, (key, previous) -> {
+            if (previous != null) {
+                previous.cancel();
+            }
+            return wheel.schedule(graceMs, TimeUnit.MILLISECONDS,
+                    () -> lanes.execute(seat.matchId(), () -> graceExpired(seat)));
+        });
+    }
+
+    private void graceExpired(Seat seat) {
+        graceTimers.computeIfPresent(seat, (key, timeout) -> timeout.isExpired() ? null : timeout);
+        if (connected.containsKey(seat) || gameRegistry.players(seat.matchId()) == null) {
+            return;
+        }
+        if (gameService.handleAbandonment(seat.matchId(), seat.username())) {
+            abandoned.increment();
+        }
+    }
+
+    /**
+     * The match id of a game topic destination, or -1.
+     */
+    static long matchId(String destination) {
+        if (destination == null) {
+            return -1;
+        }
+        for (String prefix : GAME_TOPICS) {
+            if (destination.startsWith(prefix)) {
+                int end = destination.indexOf('/', prefix.length());
+                String id = destination.substring(prefix.length(), end < 0 ? destination.length() : end);
+                try {
+                    return id.isEmpty() ? -1 : Long.parseLong(id);
+                } catch (NumberFormatException e) {
+                    return -1;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private record Seat(long matchId, String username) {
+    }
+}
@@ -0,0 +1,327 @@
+package com.example.matchservice.service;
+
+import com.example.matchservice.config.WireFormat;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompEncoder;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+import org.springframework.web.socket.sockjs.transport.SockJsSession;
+
+import java.nio.ByteBuffer;
+import java.security.Principal;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fan-out to spectators, who subscribe to /topic/spectate/{matchId} (plus a
+ * {@link WireFormat} suffix for a binary encoding) instead of the players' topics. The
+ * simple broker converts and STOMP-encodes a message once per subscriber; here a frame is
+ * encoded once per encoding and subscription id (clients number their subscriptions, so a
+ * crowd shares a handful of ids) into an immutable buffer, and that same buffer goes to
+ * every session in the group, binary frames as read-only views of it.
+ *
+ * <p>Sessions are captured by {@link #decorate}, which sits in front of the STOMP handler and
+ * serializes sends per session, so frames written here and by the broker never interleave.
+ * The writes run on a per-match fan-out thread ({@code spectators.fanout-threads}), off the
+ * game's lane, in publish order.
+ *
+ * <p>Metrics: {@code spectators.subscriptions} and {@code spectators.broadcast}.
+ */
+@Component
+public class SpectatorHub {
+
+    static final String PREFIX = "/topic/spectate/";
+
+    private final GameRegistry gameRegistry;
+    private final int sendTimeLimitMs;
+    private final int sendBufferSizeLimit;
+    private final ExecutorService[] fanout;
+    private final StompEncoder encoder = new StompEncoder();
+    private final AtomicLong messageIds = new AtomicLong();
+
+    private final Map<String, Connection> connections = new ConcurrentHashMap<>();
+    // match id -> (encoding, subscription id) -> session ids
+    private final Map<Long, Map<Group, Set<String>>> audiences = new ConcurrentHashMap<>();
+    // session id -> subscription id -> what it watches, for unsubscribe and disconnect
+    private final Map<String, Map<String, Subscription>> sessions = new ConcurrentHashMap<>();
+
+    private final Timer broadcastTimer;
+
+    public SpectatorHub(GameRegistry gameRegistry, MeterRegistry meterRegistry,
+            @Value("${spectators.fanout-threads:0}") int threads,
+            @Value("${spectators.send-time-limit-ms:10000}") int sendTimeLimitMs,
+            @Value("${spectators.send-buffer-size-limit:524288}") int sendBufferSizeLimit) {
+        this.gameRegistry = gameRegistry;
+        this.sendTimeLimitMs = sendTimeLimitMs;
+        this.sendBufferSizeLimit = sendBufferSizeLimit;
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.fanout = new ExecutorService[size];
+        for (int i = 0; i < size; i++) {
+            String name = "spectator-fanout-" + i;
+            fanout[i] = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                    task -> {
+                        Thread thread = new Thread(task, name);
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+        }
+
+        Gauge.builder("spectators.subscriptions", sessions, map -> map.values().stream().mapToInt(Map::size).sum())
+                .register(meterRegistry);
+        this.broadcastTimer = Timer.builder("spectators.broadcast").publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Wraps the STOMP WebSocket handler so every session is known here and sends to it are
+     * serialized, whoever makes them.
+     */
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                WebSocketSession concurrent = connected(session);
+                super.afterConnectionEstablished(concurrent);
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                connections.remove(session.getId());
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    WebSocketSession connected(WebSocketSession session) {
+        ConcurrentWebSocketSessionDecorator concurrent = new ConcurrentWebSocketSessionDecorator(session,
+                sendTimeLimitMs, sendBufferSizeLimit);
+        connections.put(session.getId(), new Connection(concurrent, session instanceof SockJsSession));
+        return concurrent;
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        Principal user = accessor.getUser();
+        subscribed(accessor.getSessionId(), accessor.getSubscriptionId(), user == null ? null : user.getName(),
+                accessor.getDestination());
+    }
+
+    void subscribed(String sessionId, String subscriptionId, String username, String destination) {
+        if (sessionId == null || subscriptionId == null || destination == null || !destination.startsWith(PREFIX)) {
+            return;
+        }
+        WireFormat format = WireFormat.JSON;
+        String id = destination.substring(PREFIX.length());
+        for (WireFormat candidate : WireFormat.values()) {
+            if (candidate.isBinary() && id.endsWith(candidate.suffix())) {
+                format = candidate;
+                id = id.substring(0, id.length() - candidate.suffix().length());
+            }
+        }
+        long matchId;
+        try {
+            matchId = Long.parseLong(id);
+        } catch (NumberFormatException e) {
+            return;
+        }
+        Connection connection = connections.get(sessionId);
+        if (connection == null || (connection.sockJs() && format.isBinary())) {
+            return;
+        }
+        GameRegistry.Players players = gameRegistry.players(matchId);
+        if (username != null && players != null && players.opponentOf(username) != null) {
+            // Players follow their own topics.
+            return;
+        }
+        Group group = new Group(format, subscriptionId);
+        Subscription previous = sessions.computeIfAbsent(sessionId, key -> new ConcurrentHashMap<>())
+                .put(subscriptionId, new Subscription(matchId, group));
+        if (previous != null) {
+            leave(sessionId, previous);
+        }
+        // Under the match's bin lock, so a concurrent leave cannot drop the group being joined.
+        audiences.compute(matchId, (key, audience) -> {
+            Map<Group, Set<String>> groups = audience != null ? audience : new ConcurrentHashMap<>();
+            groups.computeIfAbsent(group, g -> ConcurrentHashMap.newKeySet()).add(sessionId);
+            return groups;
+        });
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        Map<String, Subscription> subscriptions = sessions.get(accessor.getSessionId());
+        if (subscriptions == null || accessor.getSubscriptionId() == null) {
+            return;
+        }
+        Subscription subscription = subscriptions.remove(accessor.getSubscriptionId());
+        if (subscription != null) {
+            leave(accessor.getSessionId(), subscription);
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        connections.remove(event.getSessionId());
+        Map<String, Subscription> subscriptions = sessions.remove(event.getSessionId());
+        if (subscriptions != null) {
+            subscriptions.values().forEach(subscription -> leave(event.getSessionId(), subscription));
+        }
+    }
+
+    public boolean hasSpectators(long matchId) {
+        return audiences.containsKey(matchId);
+    }
+
+    /**
+     * Sends {@code payload} to the match's spectators from its fan-out thread. The payload
+     * must not change after this call.
+     */
+    public void broadcast(long matchId, Object payload) {
+        if (!audiences.containsKey(matchId)) {
+            return;
+        }
+        fanout[(int) (((matchId * 0x9E3779B97F4A7C15L) >>> 32) % fanout.length)].execute(() -> {
+            try {
+                deliver(matchId, payload);
+            } catch (RuntimeException e) {
+                System.err.println("❌ Spectator broadcast for game " + matchId + " failed: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Encodes and writes one broadcast on the calling thread. Returns the number of sessions
+     * written to.
+     */
+    int deliver(long matchId, Object payload) {
+        Map<Group, Set<String>> audience = audiences.get(matchId);
+        if (audience == null) {
+            return 0;
+        }
+        long start = System.nanoTime();
+        String messageId = "s-" + messageIds.incrementAndGet();
+        byte[][] bodies = new byte[WireFormat.values().length][];
+        int sent = 0;
+        for (Map.Entry<Group, Set<String>> entry : audience.entrySet()) {
+            Set<String> sessionIds = entry.getValue();
+            if (sessionIds.isEmpty()) {
+                continue;
+            }
+            Group group = entry.getKey();
+            WireFormat format = group.format();
+            byte[] body = bodies[format.ordinal()];
+            if (body == null) {
+                body = encode(format, payload);
+                bodies[format.ordinal()] = body;
+            }
+            byte[] frame = frame(PREFIX + matchId + format.suffix(), group.subscriptionId(), messageId, format, body);
+            ByteBuffer shared = format.isBinary() ? ByteBuffer.wrap(frame).asReadOnlyBuffer() : null;
+            TextMessage text = format.isBinary() ? null : new TextMessage(frame);
+            for (String sessionId : sessionIds) {
+                Connection connection = connections.get(sessionId);
+                if (connection == null) {
+                    continue;
+                }
+                // Each send gets its own view: the container moves the position as it writes.
+                WebSocketMessage<?> message = text != null ? text : new BinaryMessage(shared.duplicate());
+                if (send(connection.session(), message)) {
+                    sent++;
+                }
+            }
+        }
+        broadcastTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return sent;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        for (ExecutorService executor : fanout) {
+            executor.shutdown();
+        }
+        for (ExecutorService executor : fanout) {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    private byte[] encode(WireFormat format, Object payload) {
+        try {
+            return format.mapper().writeValueAsBytes(payload);
+        } catch (Exception e) {
+            throw new RuntimeException("Error encoding spectator frame: " + e.getMessage());
+        }
+    }
+
+    private byte[] frame(String destination, String subscriptionId, String messageId, WireFormat format,
+            byte[] body) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.MESSAGE);
+        accessor.setDestination(destination);
+        accessor.setSubscriptionId(subscriptionId);
+        accessor.setMessageId(messageId);
+        if (format.isBinary()) {
+            accessor.setContentType(MimeTypeUtils.APPLICATION_OCTET_STREAM);
+            accessor.setNativeHeader("encoding", format.mimeType().toString());
+        } else {
+            accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        }
+        return encoder.encode(accessor.getMessageHeaders(), body);
+    }
+
+    private static boolean send(WebSocketSession session, WebSocketMessage<?> message) {
+        if (!session.isOpen()) {
+            return false;
+        }
+        try {
+            session.sendMessage(message);
+            return true;
+        } catch (Exception e) {
+            // A slow or broken spectator is closed by its session decorator; the rest go on.
+            System.err.println("⚠️ Dropping spectator frame for session " + session.getId() + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void leave(String sessionId, Subscription subscription) {
+        audiences.computeIfPresent(subscription.matchId(), (matchId, audience) -> {
+            audience.computeIfPresent(subscription.group(), (group, sessionIds) -> {
+                sessionIds.remove(sessionId);
+                return sessionIds.isEmpty() ? null : sessionIds;
+            });
+            return audience.isEmpty() ? null : audience;
+        });
+    }
+
+    private record Connection(WebSocketSession session, boolean sockJs) {
+    }
+
+    private record Group(WireFormat format, String subscriptionId) {
+    }
+
+    private record Subscription(long matchId, Group group) {
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.matchservice.service;
+
+import com.example.matchservice.chess.MoveGenerator;
+import com.example.matchservice.chess.Moves;
+import com.example.matchservice.chess.Position;
+import com.example.matchservice.engine.Tablebase;
+import com.example.matchservice.engine.Tablebases;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Service
+public class TablebaseService {
+
+    private final Tablebases tablebases;
+    private final ThreadLocal<int[]> moveBuffers = ThreadLocal.withInitial(() -> new int[MoveGenerator.MAX_MOVES]);
+
+    public TablebaseService(@Value("${tablebase.path:tablebases}") String path) {
+        Tablebases loaded = new Tablebases();
+        try {
+            loaded = Tablebases.open(Path.of(path));
+        } catch (IOException e) {
+            System.err.println("Failed to open tablebases in " + path + ": " + e.getMessage());
+        }
+        this.tablebases = loaded;
+        if (!tablebases.isEmpty()) {
+            System.out.println("Tablebases loaded: " + tablebases.materials());
+        }
+    }
+
+    public Tablebases.Result probe(Position position) {
+        return tablebases.probe(position);
+    }
+
+    public int bestMove(Position position) {
+        return tablebases.bestMove(position, moveBuffers.get());
+    }
+
+    public Map<String, Object> probe(String fen) {
+        Position position = Position.fromFen(fen);
+        Tablebases.Result result = tablebases.probe(position);
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("fen", fen);
+        response.put("found", result != null);
+        if (result != null) {
+            response.put("material", result.getMaterial().name());
+            response.put("outcome", result.getOutcome());
+            response.put("dtm", result.getDtm());
+            if (result.getWdl() != Tablebase.DRAW) {
+                response.put("mateIn", (result.getDtm() + 1) / 2);
+            }
+            int best = bestMove(position);
+            if (best != Moves.NONE) {
+                response.put("bestMove", Moves.toUci(best));
+            }
+        }
+        return response;
+    }
+}
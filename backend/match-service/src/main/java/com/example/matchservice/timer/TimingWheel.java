@@ -0,0 +1,279 @@
+package com.example.matchservice.timer;
+
+import java.io.Closeable;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * Hierarchical timing wheel (Varghese and Lauck) driven by one thread. Level 0 has 256 slots
+ * of one tick each; levels 1 to 3 have 64 slots, each covering a whole turn of the level
+ * below, so with 10 ms ticks the wheel spans about 2.5 s, 2.7 min, 2.9 h and 7.6 days.
+ * Later deadlines wait in the top level and are placed again when it comes round.
+ *
+ * <p>A timeout sits in the slot its deadline falls into, linked into that slot's list, so
+ * arming and cancelling are O(1) and a tick only touches the timeouts in the slots it
+ * passes. When a level-0 turn completes, the next slot of level 1 is emptied into level 0
+ * (and so on upwards), which moves each timeout at most once per level.
+ *
+ * <p>{@link #schedule} and {@link Timeout#cancel} may be called from any thread: they only
+ * set a state and queue the timeout for the wheel thread, which links and unlinks it on its
+ * next tick. Tasks run on the wheel thread and must be quick; hand real work off.
+ */
+public final class TimingWheel implements Closeable {
+
+    private static final int[] LEVEL_BITS = { 8, 6, 6, 6 };
+    private static final int LEVELS = LEVEL_BITS.length;
+
+    private static final int PENDING = 0;
+    private static final int CANCELLED = 1;
+    private static final int EXPIRED = 2;
+
+    private final long tickNanos;
+    private final LongSupplier nanoClock;
+    private final long originNanos;
+    private final int[] shifts = new int[LEVELS];
+    private final long[] spans = new long[LEVELS];
+    private final Timeout[][] slots = new Timeout[LEVELS][];
+    private final Queue<Timeout> added = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+    private final String name;
+    private long currentTick;
+    private volatile int linked;
+    private volatile boolean running;
+    private Thread thread;
+
+    public TimingWheel(String name, long tickDuration, TimeUnit unit) {
+        this(name, unit.toNanos(tickDuration), System::nanoTime);
+    }
+
+    /**
+     * A wheel on its own clock, for driving by hand through {@link #advance}.
+     */
+    TimingWheel(String name, long tickNanos, LongSupplier nanoClock) {
+        if (tickNanos <= 0) {
+            throw new IllegalArgumentException("Tick must be positive");
+        }
+        this.name = name;
+        this.tickNanos = tickNanos;
+        this.nanoClock = nanoClock;
+        this.originNanos = nanoClock.getAsLong();
+        int shift = 0;
+        for (int level = 0; level < LEVELS; level++) {
+            shifts[level] = shift;
+            shift += LEVEL_BITS[level];
+            spans[level] = 1L << shift;
+            slots[level] = new Timeout[1 << LEVEL_BITS[level]];
+        }
+    }
+
+    public synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Runs {@code task} on the wheel thread once {@code delay} has passed, rounded up to the
+     * next tick.
+     */
+    public Timeout schedule(long delay, TimeUnit unit, Runnable task) {
+        long deadlineNanos = nanoClock.getAsLong() + Math.max(0, unit.toNanos(delay));
+        Timeout timeout = new Timeout(this, task, tickOf(deadlineNanos + tickNanos - 1));
+        added.add(timeout);
+        return timeout;
+    }
+
+    /** Timeouts linked into the wheel, as of the last tick. */
+    public int size() {
+        return linked;
+    }
+
+    public long getTickNanos() {
+        return tickNanos;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        Thread current = thread;
+        if (current != null) {
+            LockSupport.unpark(current);
+            try {
+                current.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void run() {
+        while (running) {
+            advance(nanoClock.getAsLong());
+            long next = originNanos + (currentTick + 1) * tickNanos;
+            LockSupport.parkNanos(Math.max(0, next - nanoClock.getAsLong()));
+        }
+    }
+
+    /**
+     * Takes in queued arms and cancels, then expires everything due up to {@code nowNanos}.
+     * Only the wheel thread (or a test driving the wheel by hand) may call this.
+     */
+    void advance(long nowNanos) {
+        drainCancelled();
+        drainAdded();
+        long target = tickOf(nowNanos);
+        while (currentTick < target) {
+            currentTick++;
+            // Cascade from the top so a timeout can fall more than one level in one tick.
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & (spans[level - 1] - 1)) == 0) {
+                    cascade(level, (int) ((currentTick >>> shifts[level]) & (slots[level].length - 1)));
+                }
+            }
+            expire((int) (currentTick & (slots[0].length - 1)));
+        }
+    }
+
+    private long tickOf(long nanos) {
+        return Math.max(0, (nanos - originNanos) / tickNanos);
+    }
+
+    private void drainAdded() {
+        Timeout timeout;
+        while ((timeout = added.poll()) != null) {
+            if (timeout.state.get() == PENDING) {
+                // The current slot has already expired, so anything due goes in the next one.
+                timeout.deadlineTick = Math.max(timeout.deadlineTick, currentTick + 1);
+                place(timeout);
+                linked++;
+            }
+        }
+    }
+
+    private void drainCancelled() {
+        Timeout timeout;
+        while ((timeout = cancelled.poll()) != null) {
+            if (timeout.slot != null) {
+                unlink(timeout);
+                linked--;
+            }
+        }
+    }
+
+    private void place(Timeout timeout) {
+        long remaining = timeout.deadlineTick - currentTick;
+        int level = 0;
+        while (level < LEVELS - 1 && remaining >= spans[level]) {
+            level++;
+        }
+        long tick = remaining >= spans[LEVELS - 1] ? currentTick + spans[LEVELS - 1] - 1 : timeout.deadlineTick;
+        int index = (int) ((tick >>> shifts[level]) & (slots[level].length - 1));
+        link(timeout, level, index);
+    }
+
+    private void cascade(int level, int index) {
+        Timeout timeout = slots[level][index];
+        slots[level][index] = null;
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.slot = null;
+            place(timeout);
+            timeout = next;
+        }
+    }
+
+    private void expire(int index) {
+        Timeout timeout = slots[0][index];
+        slots[0][index] = null;
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.slot = null;
+            if (timeout.deadlineTick > currentTick) {
+                place(timeout);
+            } else {
+                linked--;
+                if (timeout.state.compareAndSet(PENDING, EXPIRED)) {
+                    try {
+                        timeout.task.run();
+                    } catch (RuntimeException e) {
+                        System.err.println("❌ Timer task failed: " + e.getMessage());
+                    }
+                }
+            }
+            timeout = next;
+        }
+    }
+
+    private void link(Timeout timeout, int level, int index) {
+        Timeout head = slots[level][index];
+        timeout.next = head;
+        if (head != null) {
+            head.prev = timeout;
+        }
+        slots[level][index] = timeout;
+        timeout.slot = slots[level];
+        timeout.index = index;
+    }
+
+    private void unlink(Timeout timeout) {
+        if (timeout.prev != null) {
+            timeout.prev.next = timeout.next;
+        } else {
+            timeout.slot[timeout.index] = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.prev = timeout.prev;
+        }
+        timeout.prev = null;
+        timeout.next = null;
+        timeout.slot = null;
+    }
+
+    /**
+     * Handle to a scheduled task. The links are only touched by the wheel thread.
+     */
+    public static final class Timeout {
+
+        private final TimingWheel wheel;
+        private final Runnable task;
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+        private long deadlineTick;
+        private Timeout prev;
+        private Timeout next;
+        private Timeout[] slot;
+        private int index;
+
+        private Timeout(TimingWheel wheel, Runnable task, long deadlineTick) {
+            this.wheel = wheel;
+            this.task = task;
+            this.deadlineTick = deadlineTick;
+        }
+
+        /**
+         * Stops the task from running. False when it already ran or was cancelled.
+         */
+        public boolean cancel() {
+            if (!state.compareAndSet(PENDING, CANCELLED)) {
+                return false;
+            }
+            wheel.cancelled.add(this);
+            return true;
+        }
+
+        public boolean isExpired() {
+            return state.get() == EXPIRED;
+        }
+    }
+}
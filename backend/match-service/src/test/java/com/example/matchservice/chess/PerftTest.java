@@ -0,0 +1,45 @@
+package com.example.matchservice.chess;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Leaf counts of the legal move tree against the published perft numbers, which cover
+ * castling, en passant, promotions, pins and checks.
+ */
+class PerftTest {
+
+    static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    @Test
+    void startPosition() {
+        long[] expected = { 20, 400, 8_902, 197_281 };
+        for (int depth = 1; depth <= expected.length; depth++) {
+            assertEquals(expected[depth - 1], perft(Position.startPosition(), depth), "depth " + depth);
+        }
+    }
+
+    @Test
+    void kiwipete() {
+        long[] expected = { 48, 2_039, 97_862, 4_085_603 };
+        for (int depth = 1; depth <= expected.length; depth++) {
+            assertEquals(expected[depth - 1], perft(Position.fromFen(KIWIPETE), depth), "depth " + depth);
+        }
+    }
+
+    static long perft(Position position, int depth) {
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generateLegal(position, moves);
+        if (depth == 1) {
+            return count;
+        }
+        long nodes = 0;
+        for (int i = 0; i < count; i++) {
+            position.makeMove(moves[i]);
+            nodes += perft(position, depth - 1);
+            position.unmakeMove(moves[i]);
+        }
+        return nodes;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.matchservice.chess;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The incremental hash kept by make and unmake must equal the hash computed from scratch
+ * for the same position.
+ */
+class ZobristHashTest {
+
+    @Test
+    void incrementalHashMatchesFreshHashAlongRandomGames() {
+        SplittableRandom random = new SplittableRandom(42);
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        for (String fen : new String[] { Position.startPosition().toFen(), PerftTest.KIWIPETE }) {
+            for (int game = 0; game < 50; game++) {
+                Position position = Position.fromFen(fen);
+                for (int ply = 0; ply < 120; ply++) {
+                    int count = MoveGenerator.generateLegal(position, moves);
+                    if (count == 0) {
+                        break;
+                    }
+                    position.makeMove(moves[random.nextInt(count)]);
+                    assertEquals(Position.fromFen(position.toFen()).hash(), position.hash(), position.toFen());
+                }
+            }
+        }
+    }
+
+    @Test
+    void unmakeRestoresTheHash() {
+        Position position = Position.fromFen(PerftTest.KIWIPETE);
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generateLegal(position, moves);
+        long before = position.hash();
+        String fen = position.toFen();
+        for (int i = 0; i < count; i++) {
+            position.makeMove(moves[i]);
+            position.unmakeMove(moves[i]);
+            assertEquals(before, position.hash(), Moves.toUci(moves[i]));
+            assertEquals(fen, position.toFen(), Moves.toUci(moves[i]));
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.matchservice.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MoveJournalTest {
+
+    private static final int SEGMENT_BYTES = 64 * 1024;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysGamesMovesClocksAndResults() throws IOException {
+        try (MoveJournal journal = open()) {
+            journal.appendStart(1, "alice", "bob", new int[0]);
+            journal.appendMove(1, 1, 101, 180_000, 180_000);
+            journal.appendMove(1, 2, 102, 182_000, 179_000);
+            journal.appendStart(2, "carol", "dave", new int[] { 201, 202 });
+            journal.appendMove(2, 3, 203, MoveJournal.NO_CLOCK, MoveJournal.NO_CLOCK);
+            journal.appendEnd(2, MoveJournal.WHITE, "CHECKMATE", "FINISHED");
+        }
+
+        try (MoveJournal journal = open()) {
+            List<MoveJournal.Game> games = journal.games();
+            assertEquals(2, games.size());
+
+            MoveJournal.Game first = games.get(0);
+            assertEquals("alice", first.getPlayer1());
+            assertEquals("bob", first.getPlayer2());
+            assertArrayEquals(new int[] { 101, 102 }, first.getMoves());
+            assertEquals(182_000, first.getWhiteMs());
+            assertEquals(179_000, first.getBlackMs());
+            assertNull(first.getStatus());
+
+            MoveJournal.Game second = games.get(1);
+            assertArrayEquals(new int[] { 201, 202, 203 }, second.getMoves());
+            assertEquals(MoveJournal.WHITE, second.getWinner());
+            assertEquals("CHECKMATE", second.getStatus());
+            assertEquals("FINISHED", second.getResult());
+        }
+    }
+
+    @Test
+    void persistedGamesAreNotReplayed() throws IOException {
+        try (MoveJournal journal = open()) {
+            journal.appendStart(1, "alice", "bob", new int[0]);
+            journal.appendMove(1, 1, 101, MoveJournal.NO_CLOCK, MoveJournal.NO_CLOCK);
+            journal.appendEnd(1, MoveJournal.NO_WINNER, "STALEMATE", "DRAW");
+            journal.appendPersisted(1);
+        }
+        try (MoveJournal journal = open()) {
+            assertTrue(journal.games().isEmpty());
+        }
+    }
+
+    @Test
+    void stopsAtATornLastRecord() throws IOException {
+        try (MoveJournal journal = open()) {
+            journal.appendStart(1, "alice", "bob", new int[0]);
+            journal.appendMove(1, 1, 101, MoveJournal.NO_CLOCK, MoveJournal.NO_CLOCK);
+            journal.appendMove(1, 2, 102, MoveJournal.NO_CLOCK, MoveJournal.NO_CLOCK);
+        }
+        tearLastRecord();
+
+        try (MoveJournal journal = open()) {
+            List<MoveJournal.Game> games = journal.games();
+            assertEquals(1, games.size());
+            assertArrayEquals(new int[] { 101 }, games.get(0).getMoves());
+        }
+    }
+
+    private MoveJournal open() throws IOException {
+        return MoveJournal.open(directory, SEGMENT_BYTES, FsyncPolicy.ALWAYS, 10);
+    }
+
+    // Zeroes the checksum at the end of the last written record, as a crash mid-write would.
+    private void tearLastRecord() throws IOException {
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.filter(file -> file.toString().endsWith(MoveJournal.SUFFIX)).sorted()
+                    .reduce((a, b) -> b).orElseThrow();
+        }
+        byte[] bytes = Files.readAllBytes(segment);
+        int end = bytes.length;
+        while (end > MoveJournal.HEADER_BYTES && bytes[end - 1] == 0) {
+            end--;
+        }
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.seek(end - 4);
+            file.write(new byte[4]);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.matchservice.service;
+
+import com.example.matchservice.chess.Position;
+import com.example.matchservice.engine.Tablebase;
+import com.example.matchservice.engine.TablebaseGenerator;
+import com.example.matchservice.engine.TablebaseMaterial;
+import com.example.matchservice.engine.Tablebases;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Results of games lost on time or by leaving, with and without a KQK table.
+ */
+class GameServiceForfeitTest {
+
+    // White queen and king against the bare black king, white to move: a tablebase win.
+    private static final String KQK_WHITE_TO_MOVE = "4k3/8/4K3/8/8/8/8/Q7 w - - 0 1";
+    // Black's queen hangs next to the white king, white to move: the capture draws.
+    private static final String KQK_QUEEN_HANGS = "4k3/8/8/8/8/8/3q4/4K3 w - - 0 1";
+
+    @TempDir
+    static Path directory;
+
+    private static Tablebases tablebases;
+
+    @BeforeAll
+    static void generateKqk() throws IOException {
+        TablebaseGenerator generator = new TablebaseGenerator(TablebaseMaterial.KQK, new Tablebases(),
+                ForkJoinPool.commonPool());
+        generator.generate();
+        generator.write(directory.resolve(TablebaseMaterial.KQK.fileName()));
+        tablebases = Tablebases.open(directory);
+    }
+
+    @Test
+    void theTableSaysWinForTheSideToMove() {
+        assertEquals(Tablebase.WIN, probe(KQK_WHITE_TO_MOVE).getWdl());
+    }
+
+    @Test
+    void flaggingWithTheQueenDrawsAndNeverWins() {
+        Position position = Position.fromFen(KQK_WHITE_TO_MOVE);
+        assertNull(GameService.forfeitResult(position, true, probe(KQK_WHITE_TO_MOVE)));
+        assertNull(GameService.forfeitResult(position, true, null));
+    }
+
+    @Test
+    void flaggingAgainstTheQueenLoses() {
+        Position position = Position.fromFen(KQK_WHITE_TO_MOVE);
+        assertEquals(Boolean.TRUE, GameService.forfeitResult(position, false, probe(KQK_WHITE_TO_MOVE)));
+        assertEquals(Boolean.TRUE, GameService.forfeitResult(position, false, null));
+    }
+
+    @Test
+    void aPositionTheOpponentCannotWinDraws() {
+        Position position = Position.fromFen(KQK_QUEEN_HANGS);
+        assertEquals(Tablebase.DRAW, probe(KQK_QUEEN_HANGS).getWdl());
+        assertNull(GameService.forfeitResult(position, true, probe(KQK_QUEEN_HANGS)));
+        // Without a table black's queen counts as mating material.
+        assertEquals(Boolean.FALSE, GameService.forfeitResult(position, true, null));
+    }
+
+    @Test
+    void uncoveredPositionsFallBackToTheOpponentWinning() {
+        Position start = Position.startPosition();
+        assertEquals(Boolean.FALSE, GameService.forfeitResult(start, true, tablebases.probe(start)));
+        assertEquals(Boolean.TRUE, GameService.forfeitResult(start, false, tablebases.probe(start)));
+    }
+
+    private static Tablebases.Result probe(String fen) {
+        return tablebases.probe(Position.fromFen(fen));
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.matchservice.service;
+
+import com.example.matchservice.model.GameType;
+import com.example.matchservice.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MatchmakingQueueTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    // Buckets of 50, windows of 100 growing by 25 a second up to 600.
+    private final MatchmakingQueue queue = new MatchmakingQueue(new SimpleMeterRegistry(), 50, 100, 25, 600);
+
+    @Test
+    void pairsNeighboursByRatingAndGivesWhiteToTheLongerWait() {
+        queue.enqueue(user("a", 1500), GameType.BLITZ, 0);
+        queue.enqueue(user("b", 2000), GameType.BLITZ, 0);
+        queue.enqueue(user("c", 1540), GameType.BLITZ, SECOND);
+        queue.enqueue(user("d", 2030), GameType.BLITZ, -SECOND);
+
+        List<MatchmakingQueue.Pairing> pairings = queue.pair(GameType.BLITZ, 2 * SECOND);
+
+        // d and b go first: d's longer wait widens the window their gap is measured against.
+        assertEquals(2, pairings.size());
+        assertEquals("d", pairings.get(0).white().getUsername());
+        assertEquals("b", pairings.get(0).black().getUsername());
+        assertEquals("a", pairings.get(1).white().getUsername());
+        assertEquals("c", pairings.get(1).black().getUsername());
+    }
+
+    @Test
+    void waitsUntilTheWindowCoversTheGap() {
+        queue.enqueue(user("a", 1500), GameType.RAPID, 0);
+        queue.enqueue(user("b", 1700), GameType.RAPID, 0);
+
+        assertTrue(queue.pair(GameType.RAPID, SECOND).isEmpty());
+        // 100 + 4 * 25 = 200
+        assertEquals(1, queue.pair(GameType.RAPID, 4 * SECOND).size());
+    }
+
+    @Test
+    void keepsGameTypesApart() {
+        queue.enqueue(user("a", 1500), GameType.BLITZ, 0);
+        queue.enqueue(user("b", 1500), GameType.RAPID, 0);
+
+        assertTrue(queue.pair(GameType.BLITZ, SECOND).isEmpty());
+        assertTrue(queue.pair(GameType.RAPID, SECOND).isEmpty());
+    }
+
+    @Test
+    void skipsCancelledAndAlreadyPairedTickets() {
+        queue.enqueue(user("a", 1500), GameType.BLITZ, 0);
+        queue.enqueue(user("b", 1510), GameType.BLITZ, 0);
+        queue.enqueue(user("c", 1520), GameType.BLITZ, 0);
+        assertTrue(queue.cancel("b"));
+        assertFalse(queue.enqueue(user("a", 1500), GameType.BLITZ, 0));
+
+        List<MatchmakingQueue.Pairing> pairings = queue.pair(GameType.BLITZ, SECOND);
+        assertEquals(1, pairings.size());
+        assertEquals("a", pairings.get(0).white().getUsername());
+        assertEquals("c", pairings.get(0).black().getUsername());
+
+        assertFalse(queue.cancel("a"));
+        assertTrue(queue.pair(GameType.BLITZ, SECOND).isEmpty());
+    }
+
+    private static User user(String username, int rating) {
+        User user = new User();
+        user.setUsername(username);
+        user.setRating(rating);
+        return user;
+    }
+}
@@ -1,33 +1,39 @@
 import React, { useState, useRef, useEffect } from "react";
 import { useNavigate } from "react-router-dom";
+import { Client } from "@stomp/stompjs";
 import { FaFire, FaRegHandshake, FaRobot, FaChessPawn, FaTimes } from "react-icons/fa";
 import "../component-styles/GameInfo.css";
 
+const SEARCH_TIMEOUT_SECONDS = 90;
+
 const GameInfo = ({ streak }) => {
   const navigate = useNavigate();
   const [isSearching, setIsSearching] = useState(false);
   const [searchTime, setSearchTime] = useState(0);
-  const pollingIntervalRef = useRef(null);
-  const searchTimerRef = useRef(null);
+  const searchingRef = useRef(false);
+  const stompClientRef = useRef(null);
+  const elapsedIntervalRef = useRef(null);
 
   // Clean up on unmount
   useEffect(() => {
-    return () => {
-      if (pollingIntervalRef.current) clearInterval(pollingIntervalRef.current);
-      if (searchTimerRef.current) clearTimeout(searchTimerRef.current);
-    };
+    return () => stopListening();
   }, []);
 
-  const cancelSearch = async () => {
-    if (pollingIntervalRef.current) {
-      clearInterval(pollingIntervalRef.current);
-      pollingIntervalRef.current = null;
+  const stopListening = () => {
+    searchingRef.current = false;
+    if (elapsedIntervalRef.current) {
+      clearInterval(elapsedIntervalRef.current);
+      elapsedIntervalRef.current = null;
     }
-    if (searchTimerRef.current) {
-      clearTimeout(searchTimerRef.current);
-      searchTimerRef.current = null;
+    if (stompClientRef.current) {
+      stompClientRef.current.deactivate();
+      stompClientRef.current = null;
     }
-    
+  };
+
+  const cancelSearch = async () => {
+    stopListening();
+
     // Notify backend to remove from waiting queue
     try {
       await fetch('http://localhost:8080/game/cancel-waiting', {
@@ -42,51 +48,73 @@ const GameInfo = ({ streak }) => {
     setSearchTime(0);
   };
 
-  const pollForMatch = () => {
-    let attempts = 0;
-    const maxAttempts = 90; // 90 seconds
-    
-    pollingIntervalRef.current = setInterval(async () => {
-      attempts++;
-      setSearchTime(attempts);
-      
-      if (attempts >= maxAttempts) {
-        cancelSearch();
-        alert("Could not find an opponent within 90 seconds. Please try again.");
-        return;
-      }
-      
+  const matchFound = (matchId) => {
+    if (!searchingRef.current) return;
+    stopListening();
+    setIsSearching(false);
+    setSearchTime(0);
+    navigate(`/game/${matchId}`);
+  };
+
+  // The server pushes the match id on /user/queue/match-found as soon as we are paired.
+  const subscribeToMatchFound = () => {
+    const client = new Client({
+      brokerURL: 'ws://localhost:8080/ws',
+      connectHeaders: { Authorization: `Bearer ${localStorage.getItem('token')}` },
+      reconnectDelay: 2000,
+      onConnect: () => {
+        client.subscribe('/user/queue/match-found', (message) => {
+          const result = JSON.parse(message.body);
+          if (result.matchId > 0) matchFound(result.matchId);
+        });
+      },
+    });
+    client.activate();
+    stompClientRef.current = client;
+  };
+
+  // Fallback when the socket is unavailable: check-match holds the request until we are
+  // paired or ~25 seconds pass, so this is a handful of requests per search, not one a second.
+  const longPollForMatch = async () => {
+    while (searchingRef.current) {
       try {
         const response = await fetch('http://localhost:8080/game/check-match', {
           method: 'GET',
           credentials: 'include',
         });
+        if (!searchingRef.current) return;
 
-        if (response.ok) {
-          const result = await response.json();
-          console.log("Poll result:", result);
-          
-          if (result.matchId && result.matchId > 0) {
-            // Match found! Stop polling and redirect
-            clearInterval(pollingIntervalRef.current);
-            pollingIntervalRef.current = null;
-            clearTimeout(searchTimerRef.current);
-            searchTimerRef.current = null;
-            
-            setIsSearching(false);
-            setSearchTime(0);
-            navigate(`/game/${result.matchId}`);
-          } else if (result.matchId === -2) {
-            // Error case
-            cancelSearch();
-            alert("Error checking for match. Please try again.");
-          }
-          // If matchId === -1, continue waiting
+        const result = await response.json();
+        if (result.matchId > 0) {
+          matchFound(result.matchId);
+          return;
+        } else if (result.matchId === -2) {
+          cancelSearch();
+          alert("Error checking for match. Please try again.");
+          return;
         }
+        // matchId === -1: still waiting, ask again
       } catch (error) {
-        console.error("Error polling for match:", error);
+        console.error("Error waiting for match:", error);
+        await new Promise((resolve) => setTimeout(resolve, 1000));
       }
-    }, 1000); // Poll every second
+    }
+  };
+
+  const waitForMatch = () => {
+    searchingRef.current = true;
+    let elapsed = 0;
+    elapsedIntervalRef.current = setInterval(() => {
+      elapsed++;
+      setSearchTime(elapsed);
+      if (elapsed >= SEARCH_TIMEOUT_SECONDS) {
+        cancelSearch();
+        alert(`Could not find an opponent within ${SEARCH_TIMEOUT_SECONDS} seconds. Please try again.`);
+      }
+    }, 1000);
+
+    subscribeToMatchFound();
+    longPollForMatch();
   };
 
   const createNewGame = async () => {
@@ -112,17 +140,8 @@ const GameInfo = ({ streak }) => {
         console.log("Create game response:", result);
         
         if (result.matchId === -1) {
-          // Player1: Waiting for opponent, start polling
-          pollForMatch();
-          
-          // Set timeout for 90 seconds
-          searchTimerRef.current = setTimeout(() => {
-            if (isSearching) {
-              cancelSearch();
-              alert("Could not find an opponent within 90 seconds. Please try again.");
-            }
-          }, 90000);
-          
+          // Player1: Waiting for opponent, listen for the match
+          waitForMatch();
         } else if (result.matchId > 0) {
           // Player2: Match created immediately, redirect
           setIsSearching(false);